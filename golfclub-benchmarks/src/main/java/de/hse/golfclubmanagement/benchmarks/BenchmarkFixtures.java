@@ -0,0 +1,232 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import de.hse.golfclubmanagement.GolfclubManagementApplication;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.services.GolfCourseService;
+import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.TournamentService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Shared setup of the benchmarks: starts the application context on an
+ * embedded database and generates deterministic test data.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * The number of holes of every generated golf course.
+     */
+    static final int HOLES_PER_COURSE = 18;
+
+    /**
+     * The day of the first generated tournament, the following ones take place on the next days.
+     */
+    static final LocalDate FIRST_TOURNAMENT_DAY = LocalDate.of(2020, 1, 1);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Starts the application without web server on a fresh in-memory database.
+     *
+     * @param databaseName the name of the in-memory database
+     * @return the started application context
+     */
+    static ConfigurableApplicationContext startApplication(String databaseName) {
+        return new SpringApplicationBuilder(GolfclubManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .logStartupInfo(false)
+                .run(arguments(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.main.banner-mode=off",
+                        "golfclub.notifications.enabled=false",
+                        "logging.level.root=WARN"));
+    }
+
+    /**
+     * Starts the application with web server on a random port and a fresh in-memory database.
+     * Notifications and admission control are disabled, so the load is not throttled.
+     *
+     * @param databaseName the name of the in-memory database
+     * @param properties   additional properties (key=value)
+     * @return the started application context, the port is available as local.server.port
+     */
+    static ConfigurableApplicationContext startWebApplication(String databaseName, String... properties) {
+        List<String> allProperties = new ArrayList<>(Arrays.asList(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "golfclub.notifications.enabled=false",
+                "golfclub.admission.enabled=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        allProperties.addAll(Arrays.asList(properties));
+        return new SpringApplicationBuilder(GolfclubManagementApplication.class)
+                .profiles("embedded")
+                .logStartupInfo(false)
+                .run(arguments(allProperties.toArray(new String[0])));
+    }
+
+    /**
+     * Converts properties to command line arguments, which take precedence over application.properties
+     * (unlike the default properties of SpringApplicationBuilder#properties).
+     */
+    private static String[] arguments(String... properties) {
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    /**
+     * Imports the given number of members, one golf course per 100 members
+     * and one tournament per 10 members.
+     *
+     * @param context the started application context
+     * @param members the number of members
+     */
+    static void seed(ConfigurableApplicationContext context, int members) {
+        context.getBean(MemberService.class).importMembers(members(members));
+        context.getBean(GolfCourseService.class).importGolfCourses(golfCourses(Math.max(1, members / 100)));
+        context.getBean(TournamentService.class).importTournaments(tournaments(Math.max(1, members / 10)));
+    }
+
+    /**
+     * Gets the name of the generated member with the given index.
+     *
+     * @param index the index of the member
+     * @return the name of the member
+     */
+    static String memberName(int index) {
+        return String.format("Member %06d", index);
+    }
+
+    /**
+     * Gets the name of the generated golf course with the given index.
+     *
+     * @param index the index of the golf course
+     * @return the name of the golf course
+     */
+    static String golfCourseName(int index) {
+        return String.format("Golf Course %05d", index);
+    }
+
+    /**
+     * Gets the name of the generated tournament with the given index.
+     *
+     * @param index the index of the tournament
+     * @return the name of the tournament
+     */
+    static String tournamentName(int index) {
+        return String.format("Tournament %06d", index);
+    }
+
+    /**
+     * Generates the given number of members.
+     *
+     * @param count the number of members
+     * @return an iterator over the generated members
+     */
+    static Iterator<Member> members(int count) {
+        return generate(count, i -> {
+            Member member = new Member();
+            member.setName(memberName(i));
+            member.setMembershipStatus(i % 10 == 0 ? "inactive" : "active");
+            member.setHandicap(i % 54);
+            return member;
+        });
+    }
+
+    /**
+     * Generates the given number of golf courses with {@link #HOLES_PER_COURSE} holes each.
+     *
+     * @param count the number of golf courses
+     * @return an iterator over the generated golf courses
+     */
+    static Iterator<GolfCourse> golfCourses(int count) {
+        return generate(count, BenchmarkFixtures::golfCourse);
+    }
+
+    /**
+     * Creates a single golf course with {@link #HOLES_PER_COURSE} holes.
+     *
+     * @param index the index of the golf course
+     * @return the golf course
+     */
+    static GolfCourse golfCourse(int index) {
+        GolfCourse golfCourse = new GolfCourse();
+        golfCourse.setName(golfCourseName(index));
+        golfCourse.setLocation("Esslingen");
+        List<Hole> holes = new ArrayList<>(HOLES_PER_COURSE);
+        for (int number = 1; number <= HOLES_PER_COURSE; number++) {
+            Hole hole = new Hole();
+            hole.setNummer(number);
+            hole.setPar(3 + number % 3);
+            hole.setLength(120 + 25 * (number % 15));
+            hole.setGolfCourse(golfCourse);
+            holes.add(hole);
+        }
+        golfCourse.setHoles(holes);
+        return golfCourse;
+    }
+
+    /**
+     * Generates the given number of tournaments, one per day.
+     *
+     * @param count the number of tournaments
+     * @return an iterator over the generated tournaments
+     */
+    static Iterator<Tournament> tournaments(int count) {
+        return generate(count, i -> {
+            Tournament tournament = new Tournament();
+            tournament.setName(tournamentName(i));
+            tournament.setDate(Date.valueOf(FIRST_TOURNAMENT_DAY.plusDays(i)));
+            return tournament;
+        });
+    }
+
+    private static <T> Iterator<T> generate(int count, IntFunction<T> factory) {
+        return new Iterator<T>() {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return factory.apply(next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Load test comparing the platform thread and the virtual thread execution mode
+ * (golfclub.execution.mode). Starts the application once per mode on an embedded
+ * database, replays the same request mix with the same number of concurrent
+ * clients and prints throughput and latency percentiles of both runs.
+ * <p>
+ * Run with: mvn compile exec:java@execution-modes -Dexec.args="[concurrency] [durationSeconds] [members]"
+ * <p>
+ * Virtual threads require Java 21; on older runtimes only the platform thread mode is measured.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public final class ExecutionModeComparison {
+
+    private static final String[] MODES = {"platform", "virtual"};
+
+    private ExecutionModeComparison() {
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args optional concurrency (default 400), duration in seconds (default 20)
+     *             and number of members (default 10000)
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        long durationMillis = (args.length > 1 ? Long.parseLong(args[1]) : 20) * 1000;
+        int members = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %12s %10s %10s %10s %10s %8s",
+                "mode", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors"));
+        for (String mode : MODES) {
+            if ("virtual".equals(mode) && !virtualThreadsSupported()) {
+                report.add(String.format("%-10s skipped, virtual threads require Java 21", mode));
+                continue;
+            }
+            ConfigurableApplicationContext context = BenchmarkFixtures.startWebApplication("execution-mode-" + mode,
+                    "golfclub.execution.mode=" + mode);
+            try {
+                BenchmarkFixtures.seed(context, members);
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                LoadGenerator generator = new LoadGenerator(baseUrl, requestMix(members));
+                generator.run(concurrency, Math.min(5_000, durationMillis));
+                LoadGenerator.LoadResult result = generator.run(concurrency, durationMillis);
+                report.add(String.format("%-10s %12d %10.1f %10.2f %10.2f %10.2f %8d", mode,
+                        result.getRequests(), result.getThroughput(), result.getLatencyMillis(50),
+                        result.getLatencyMillis(99), result.getLatencyMillis(99.9), result.getErrors()));
+            } finally {
+                context.close();
+            }
+        }
+        System.out.println();
+        System.out.println("Execution mode comparison (" + concurrency + " clients, "
+                + durationMillis / 1000 + "s, Java " + System.getProperty("java.version") + ")");
+        report.forEach(System.out::println);
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Builds the request mix: mostly name lookups and pages, some full list requests.
+     */
+    private static List<String> requestMix(int members) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            paths.add("/api/v1/members/findByName?name=" + BenchmarkFixtures.memberName(i * members / 10).replace(" ", "%20"));
+            paths.add("/api/v1/members/page?after=" + (i * members / 10) + "&limit=50");
+            paths.add("/api/v1/members/autocomplete?prefix=member%200" + i);
+        }
+        paths.add("/api/v1/golfcourses");
+        paths.add("/api/v1/tournaments/page?limit=100");
+        paths.add("/api/v1/golfcourses/findByName?name=" + BenchmarkFixtures.golfCourseName(0).replace(" ", "%20"));
+        return paths;
+    }
+}
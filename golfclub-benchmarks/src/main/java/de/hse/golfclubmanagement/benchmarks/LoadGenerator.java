@@ -0,0 +1,287 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of clients send requests
+ * back to back for a given duration and record the latency of every request.
+ * Every client picks its requests from the weighted request mix with its own
+ * fixed seed, so repeated runs replay the same sequence per client.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class LoadGenerator {
+
+    private static final byte[] DISCARD = new byte[8192];
+
+    private final String baseUrl;
+
+    private final Request[] requests;
+
+    private final int[] cumulativeWeights;
+
+    /**
+     * Creates a new load generator.
+     *
+     * @param baseUrl the base url of the application, e.g. http://localhost:8080
+     * @param paths   the GET request paths, each request picks one at random
+     */
+    LoadGenerator(String baseUrl, List<String> paths) {
+        this(baseUrl, paths.stream().map(path -> Request.get(path, 1)).toArray(Request[]::new));
+    }
+
+    /**
+     * Creates a new load generator for a weighted request mix.
+     *
+     * @param baseUrl  the base url of the application, e.g. http://localhost:8080
+     * @param requests the requests, each request picks one with a probability proportional to its weight
+     */
+    LoadGenerator(String baseUrl, Request... requests) {
+        this.baseUrl = baseUrl;
+        this.requests = requests;
+        this.cumulativeWeights = new int[requests.length];
+        int total = 0;
+        for (int i = 0; i < requests.length; i++) {
+            total += requests[i].weight;
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Runs the load with the given number of concurrent clients.
+     *
+     * @param concurrency the number of concurrent clients
+     * @param durationMillis the duration of the run in milliseconds
+     * @return the throughput and latency percentiles of the run
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    LoadResult run(int concurrency, long durationMillis) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Client> clients = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Client client = new Client(i, end, done);
+            clients.add(client);
+            Thread thread = new Thread(client, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+
+        int total = 0;
+        long errors = 0;
+        for (Client client : clients) {
+            total += client.count;
+            errors += client.errors;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+        return new LoadResult(total, errors, elapsedNanos, latencies);
+    }
+
+    private Request pick(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]) + 1);
+        return requests[index >= 0 ? index : -index - 1];
+    }
+
+    private long send(Request request) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request.path).openConnection();
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        connection.setRequestMethod(request.method);
+        if (request.body != null) {
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(request.body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request.body);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            try (InputStream in = body) {
+                while (in.read(DISCARD) >= 0) {
+                    // drain the body, so the connection can be reused (keep-alive)
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * A single client sending requests until the end of the run.
+     */
+    private final class Client implements Runnable {
+
+        private final SplittableRandom random;
+
+        private final long end;
+
+        private final CountDownLatch done;
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        private Client(int index, long end, CountDownLatch done) {
+            this.random = new SplittableRandom(index);
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < end) {
+                    Request request = pick(random);
+                    long start = System.nanoTime();
+                    try {
+                        if (send(request) >= 400) {
+                            errors++;
+                        }
+                    } catch (IOException e) {
+                        errors++;
+                    }
+                    record(System.nanoTime() - start);
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+
+    /**
+     * A request of the mix with its relative weight.
+     */
+    static final class Request {
+
+        private final String method;
+
+        private final String path;
+
+        private final byte[] body;
+
+        private final int weight;
+
+        private Request(String method, String path, String body, int weight) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight must be positive: " + weight);
+            }
+            this.method = method;
+            this.path = path;
+            this.body = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+            this.weight = weight;
+        }
+
+        /**
+         * Creates a GET request.
+         *
+         * @param path   the request path including the query
+         * @param weight the relative weight of the request in the mix
+         * @return the request
+         */
+        static Request get(String path, int weight) {
+            return new Request("GET", path, null, weight);
+        }
+
+        /**
+         * Creates a POST request with a JSON body.
+         *
+         * @param path   the request path
+         * @param json   the JSON request body
+         * @param weight the relative weight of the request in the mix
+         * @return the request
+         */
+        static Request post(String path, String json, int weight) {
+            return new Request("POST", path, json, weight);
+        }
+    }
+
+    /**
+     * Throughput and latency distribution of a load run.
+     * Requests answered with 4xx or 5xx or failed with an I/O error count as errors.
+     */
+    static final class LoadResult {
+
+        private final long requests;
+
+        private final long errors;
+
+        private final long elapsedNanos;
+
+        private final long[] sortedLatencies;
+
+        private LoadResult(long requests, long errors, long elapsedNanos, long[] sortedLatencies) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        long getRequests() {
+            return requests;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        double getThroughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Gets a latency percentile in milliseconds.
+         *
+         * @param percentile the percentile between 0 and 100
+         * @return the latency in milliseconds
+         */
+        double getLatencyMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+    }
+}
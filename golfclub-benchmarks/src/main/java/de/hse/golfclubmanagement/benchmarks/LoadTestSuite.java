@@ -0,0 +1,359 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Load test suite of the REST API: replays request mixes of the member, golf course and
+ * tournament endpoints (scenarios) against the application on an embedded database and
+ * compares throughput and p99 latency with a stored baseline. Every scenario runs on a
+ * freshly started and seeded application, so the scenarios do not influence each other.
+ * After the warmup, a scenario is measured in several rounds and the round with the median
+ * throughput is reported, which keeps single disturbed rounds from failing the comparison.
+ * <p>
+ * The suite is configured with system properties:
+ * <ul>
+ *     <li>loadtest.scenarios - comma separated scenario names, empty runs all</li>
+ *     <li>loadtest.concurrency - the number of concurrent clients</li>
+ *     <li>loadtest.warmup, loadtest.duration, loadtest.rounds - seconds of warmup, seconds per round and rounds per scenario</li>
+ *     <li>loadtest.members - the number of seeded members (golf courses and tournaments are derived)</li>
+ *     <li>loadtest.baseline, loadtest.results - the baseline file and the file the results are written to</li>
+ *     <li>loadtest.throughput-margin, loadtest.latency-margin - the tolerated regression as fraction of the baseline</li>
+ *     <li>loadtest.update-baseline - writes the results of the run as new baseline</li>
+ * </ul>
+ * The throughput and latency are only compared with a baseline recorded on the same Java version
+ * and number of processors, otherwise the comparison is skipped with a warning. The suite fails
+ * with an IllegalStateException (exit status 1) if a scenario regresses past the margins or a
+ * request fails.
+ * <p>
+ * Run with: mvn verify -Pload-test
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public final class LoadTestSuite {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadTestSuite() {
+    }
+
+    /**
+     * The request mixes of the suite.
+     */
+    enum Scenario {
+
+        /**
+         * Members and staff looking up members, golf courses and tournaments by name and page by page.
+         */
+        BROWSE("browse") {
+            @Override
+            LoadGenerator.Request[] requests(int members) {
+                List<LoadGenerator.Request> requests = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    int member = i * members / 10;
+                    requests.add(LoadGenerator.Request.get("/api/v1/members/findByName?name="
+                            + encode(BenchmarkFixtures.memberName(member)), 3));
+                    requests.add(LoadGenerator.Request.get("/api/v1/members/page?after=" + member + "&limit=50", 2));
+                    requests.add(LoadGenerator.Request.get("/api/v1/members/autocomplete?prefix=member%200" + i, 2));
+                    requests.add(LoadGenerator.Request.get("/api/v1/golfcourses/findByName?name="
+                            + encode(BenchmarkFixtures.golfCourseName(i * golfCourses(members) / 10)), 1));
+                    requests.add(LoadGenerator.Request.get("/api/v1/tournaments/findByName?name="
+                            + encode(BenchmarkFixtures.tournamentName(i * tournaments(members) / 10)), 1));
+                }
+                requests.add(LoadGenerator.Request.get("/api/v1/members/search?name=Membr%200001&minSimilarity=0.2", 2));
+                requests.add(LoadGenerator.Request.get("/api/v1/golfcourses/page?limit=20", 3));
+                requests.add(LoadGenerator.Request.get("/api/v1/golfcourses/autocomplete?prefix=golf", 3));
+                requests.add(LoadGenerator.Request.get("/api/v1/tournaments/page?limit=50", 3));
+                requests.add(LoadGenerator.Request.get("/api/v1/tournaments/autocomplete?prefix=tour", 3));
+                return requests.toArray(new LoadGenerator.Request[0]);
+            }
+        },
+
+        /**
+         * The club calendar and tournament pages, as shown on the dashboard and the tournament views.
+         */
+        CALENDAR("calendar") {
+            @Override
+            LoadGenerator.Request[] requests(int members) {
+                List<LoadGenerator.Request> requests = new ArrayList<>();
+                LocalDate firstDay = BenchmarkFixtures.FIRST_TOURNAMENT_DAY;
+                LocalDate lastDay = firstDay.plusDays(tournaments(members) - 1);
+                for (LocalDate month = firstDay; !month.isAfter(lastDay); month = month.plusMonths(1)) {
+                    requests.add(LoadGenerator.Request.get("/api/v1/tournaments/calendar/" + month.getYear()
+                            + "/" + month.getMonthValue(), 2));
+                }
+                for (int year = firstDay.getYear(); year <= lastDay.getYear(); year++) {
+                    requests.add(LoadGenerator.Request.get("/api/v1/tournaments/calendar/seasons/" + year, 1));
+                }
+                requests.add(LoadGenerator.Request.get("/api/v1/tournaments/calendar/upcoming?limit=20", 5));
+                requests.add(LoadGenerator.Request.get("/api/v1/tournaments/page?limit=100", 5));
+                requests.add(LoadGenerator.Request.get("/api/v1/tournaments?fields=id,name,date", 1));
+                return requests.toArray(new LoadGenerator.Request[0]);
+            }
+        },
+
+        /**
+         * The full lists loaded by the admin views, e.g. all golf courses with their holes.
+         */
+        LISTS("lists") {
+            @Override
+            LoadGenerator.Request[] requests(int members) {
+                return new LoadGenerator.Request[] {
+                    LoadGenerator.Request.get("/api/v1/golfcourses", 4),
+                    LoadGenerator.Request.get("/api/v1/golfcourses/summaries", 4),
+                    LoadGenerator.Request.get("/api/v1/golfcourses?fields=id,name,location", 2),
+                    LoadGenerator.Request.get("/api/v1/tournaments?fields=id,name", 2),
+                    LoadGenerator.Request.get("/api/v1/members/page?limit=1000", 1),
+                };
+            }
+        },
+
+        /**
+         * Lookups mixed with new members, golf courses and tournaments (about one write in six requests).
+         */
+        READ_WRITE("read-write") {
+            @Override
+            LoadGenerator.Request[] requests(int members) {
+                List<LoadGenerator.Request> requests = new ArrayList<>(Arrays.asList(BROWSE.requests(members)));
+                requests.add(LoadGenerator.Request.post("/api/v1/members",
+                        "{\"name\":\"Load Test Member\",\"membershipStatus\":\"active\",\"handicap\":18}", 12));
+                requests.add(LoadGenerator.Request.post("/api/v1/golfcourses",
+                        "{\"name\":\"Load Test Course\",\"location\":\"Esslingen\",\"holes\":[]}", 1));
+                requests.add(LoadGenerator.Request.post("/api/v1/tournaments",
+                        "{\"name\":\"Load Test Open\",\"date\":\"" + BenchmarkFixtures.FIRST_TOURNAMENT_DAY + "\"}", 1));
+                return requests.toArray(new LoadGenerator.Request[0]);
+            }
+        };
+
+        private final String scenarioName;
+
+        Scenario(String scenarioName) {
+            this.scenarioName = scenarioName;
+        }
+
+        String getScenarioName() {
+            return scenarioName;
+        }
+
+        /**
+         * Builds the request mix of the scenario.
+         *
+         * @param members the number of seeded members
+         * @return the weighted requests
+         */
+        abstract LoadGenerator.Request[] requests(int members);
+
+        static Scenario byName(String name) {
+            for (Scenario scenario : values()) {
+                if (scenario.scenarioName.equals(name)) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of "
+                    + Arrays.toString(Arrays.stream(values()).map(Scenario::getScenarioName).toArray()));
+        }
+
+        private static int golfCourses(int members) {
+            return Math.max(1, members / 100);
+        }
+
+        private static int tournaments(int members) {
+            return Math.max(1, members / 10);
+        }
+
+        private static String encode(String name) {
+            return name.replace(" ", "%20");
+        }
+    }
+
+    /**
+     * Runs the suite.
+     *
+     * @param args not used, the suite is configured with system properties
+     * @throws InterruptedException if interrupted while waiting for the clients
+     * @throws IOException if the baseline or the results cannot be read or written
+     * @throws IllegalStateException if a scenario regresses past the margins or a request fails
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        Set<Scenario> scenarios = scenarios(System.getProperty("loadtest.scenarios", ""));
+        int concurrency = Integer.parseInt(System.getProperty("loadtest.concurrency", "32"));
+        long durationMillis = Long.parseLong(System.getProperty("loadtest.duration", "10")) * 1000;
+        int rounds = Integer.parseInt(System.getProperty("loadtest.rounds", "3"));
+        long warmupMillis = Long.parseLong(System.getProperty("loadtest.warmup", "10")) * 1000;
+        int members = Integer.parseInt(System.getProperty("loadtest.members", "10000"));
+        Path baselineFile = Paths.get(System.getProperty("loadtest.baseline", "load-test-baseline.json"));
+        Path resultFile = Paths.get(System.getProperty("loadtest.results", "target/load-test-results.json"));
+        double throughputMargin = Double.parseDouble(System.getProperty("loadtest.throughput-margin", "0.15"));
+        double latencyMargin = Double.parseDouble(System.getProperty("loadtest.latency-margin", "0.5"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("loadtest.update-baseline", "false"));
+        if (concurrency < 1 || durationMillis < 1000 || rounds < 1) {
+            throw new IllegalArgumentException("loadtest.concurrency, loadtest.duration and loadtest.rounds must be at least 1");
+        }
+
+        ObjectNode results = MAPPER.createObjectNode();
+        results.put("java", System.getProperty("java.version"));
+        results.put("processors", Runtime.getRuntime().availableProcessors());
+        ObjectNode scenarioResults = results.putObject("scenarios");
+        for (Scenario scenario : scenarios) {
+            LoadGenerator.LoadResult result = run(scenario, concurrency, warmupMillis, durationMillis, rounds, members);
+            ObjectNode scenarioResult = scenarioResults.putObject(scenario.getScenarioName());
+            scenarioResult.put("concurrency", concurrency);
+            scenarioResult.put("durationSeconds", durationMillis / 1000);
+            scenarioResult.put("rounds", rounds);
+            scenarioResult.put("members", members);
+            scenarioResult.put("requests", result.getRequests());
+            scenarioResult.put("errors", result.getErrors());
+            scenarioResult.put("throughput", round(result.getThroughput()));
+            scenarioResult.put("p50Millis", round(result.getLatencyMillis(50)));
+            scenarioResult.put("p95Millis", round(result.getLatencyMillis(95)));
+            scenarioResult.put("p99Millis", round(result.getLatencyMillis(99)));
+        }
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        MAPPER.writeValue(resultFile.toFile(), results);
+
+        JsonNode baseline = Files.exists(baselineFile) ? MAPPER.readTree(baselineFile.toFile()) : null;
+        // throughput and latency of another machine or runtime say nothing about a regression
+        boolean comparable = baseline != null && environment(baseline).equals(environment(results));
+        List<String> failures = new ArrayList<>();
+        System.out.println();
+        if (baseline != null && !comparable) {
+            System.out.println("WARNING: the baseline was recorded with " + environment(baseline) + ", this run with "
+                    + environment(results) + "; throughput and latency are not compared");
+        }
+        System.out.println("Load test (" + concurrency + " clients, median of " + rounds + " rounds of "
+                + durationMillis / 1000 + "s, " + members + " members, Java " + System.getProperty("java.version") + ")");
+        System.out.println(String.format("%-12s %10s %10s %9s %9s %9s %8s   %s", "scenario", "requests", "req/s",
+                "p50 ms", "p95 ms", "p99 ms", "errors", "baseline"));
+        scenarioResults.fields().forEachRemaining(entry -> {
+            JsonNode result = entry.getValue();
+            JsonNode expected = baseline == null ? null : baseline.path("scenarios").get(entry.getKey());
+            System.out.println(String.format("%-12s %10d %10.1f %9.2f %9.2f %9.2f %8d   %s", entry.getKey(),
+                    result.get("requests").asLong(), result.get("throughput").asDouble(),
+                    result.get("p50Millis").asDouble(), result.get("p95Millis").asDouble(),
+                    result.get("p99Millis").asDouble(), result.get("errors").asLong(),
+                    comparable ? compare(entry.getKey(), result, expected, throughputMargin, latencyMargin, failures)
+                            : expected == null ? "none" : "not compared"));
+            if (result.get("errors").asLong() > 0) {
+                failures.add(entry.getKey() + ": " + result.get("errors").asLong() + " requests failed");
+            }
+        });
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+
+        if (updateBaseline) {
+            ObjectNode newBaseline = baseline instanceof ObjectNode ? (ObjectNode) baseline : MAPPER.createObjectNode();
+            newBaseline.set("java", results.get("java"));
+            newBaseline.set("processors", results.get("processors"));
+            ObjectNode baselineScenarios = newBaseline.with("scenarios");
+            scenarioResults.fields().forEachRemaining(entry -> baselineScenarios.set(entry.getKey(), entry.getValue()));
+            MAPPER.writeValue(baselineFile.toFile(), newBaseline);
+            System.out.println("Baseline updated: " + baselineFile.toAbsolutePath());
+            return;
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(System.out::println);
+            throw new IllegalStateException("Load test failed: " + String.join("; ", failures));
+        }
+        System.out.println(comparable ? "No regression against the baseline" : "No failed requests");
+    }
+
+    private static LoadGenerator.LoadResult run(Scenario scenario, int concurrency, long warmupMillis, long durationMillis,
+                                                int rounds, int members) throws InterruptedException {
+        ConfigurableApplicationContext context = BenchmarkFixtures.startWebApplication("load-test-" + scenario.getScenarioName());
+        try {
+            BenchmarkFixtures.seed(context, members);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadGenerator generator = new LoadGenerator(baseUrl, scenario.requests(members));
+            if (warmupMillis > 0) {
+                generator.run(concurrency, warmupMillis);
+            }
+            List<LoadGenerator.LoadResult> results = new ArrayList<>(rounds);
+            for (int round = 0; round < rounds; round++) {
+                results.add(generator.run(concurrency, durationMillis));
+            }
+            results.sort(Comparator.comparingDouble(LoadGenerator.LoadResult::getThroughput));
+            return results.get(rounds / 2);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Compares a scenario result with its baseline and records the regressions past the margins.
+     *
+     * @return a short description of the comparison for the report
+     */
+    private static String compare(String scenario, JsonNode result, JsonNode expected, double throughputMargin,
+                                  double latencyMargin, List<String> failures) {
+        if (expected == null) {
+            return "none";
+        }
+        for (String setting : new String[] {"concurrency", "durationSeconds", "rounds", "members"}) {
+            if (expected.path(setting).asLong() != result.path(setting).asLong()) {
+                return "not compared, recorded with " + setting + "=" + expected.path(setting).asLong();
+            }
+        }
+        double throughputChange = result.get("throughput").asDouble() / expected.get("throughput").asDouble() - 1;
+        double latencyChange = result.get("p99Millis").asDouble() / expected.get("p99Millis").asDouble() - 1;
+        if (throughputChange < -throughputMargin) {
+            failures.add(String.format("%s: throughput %.1f req/s is %.0f%% below the baseline of %.1f req/s (margin %.0f%%)",
+                    scenario, result.get("throughput").asDouble(), -throughputChange * 100,
+                    expected.get("throughput").asDouble(), throughputMargin * 100));
+        }
+        if (latencyChange > latencyMargin) {
+            failures.add(String.format("%s: p99 latency %.2f ms is %.0f%% above the baseline of %.2f ms (margin %.0f%%)",
+                    scenario, result.get("p99Millis").asDouble(), latencyChange * 100,
+                    expected.get("p99Millis").asDouble(), latencyMargin * 100));
+        }
+        return String.format("%+.0f%% req/s, %+.0f%% p99", throughputChange * 100, latencyChange * 100);
+    }
+
+    /**
+     * Describes the machine a result or baseline was recorded on.
+     */
+    private static String environment(JsonNode results) {
+        return "Java " + results.path("java").asText("unknown") + ", processors=" + results.path("processors").asInt();
+    }
+
+    private static Set<Scenario> scenarios(String names) {
+        Set<Scenario> scenarios = new LinkedHashSet<>();
+        for (String name : names.split(",")) {
+            if (!name.trim().isEmpty()) {
+                scenarios.add(Scenario.byName(name.trim()));
+            }
+        }
+        return scenarios.isEmpty() ? new LinkedHashSet<>(Arrays.asList(Scenario.values())) : scenarios;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,112 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the notification-service, used to exercise the notification outbox
+ * of golfclub-management without the Python service. Accepts POST /notifications,
+ * optionally with an artificial latency and a share of failing requests, and prints
+ * the number of received notifications every second.
+ * <p>
+ * Run with: mvn compile exec:java@notification-stub -Dexec.args="[port] [failureRate] [latencyMillis]"
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public final class NotificationStubServer {
+
+    private NotificationStubServer() {
+    }
+
+    /**
+     * Starts the stub server.
+     *
+     * @param args optional port (default 8082), share of requests answered with 503 (default 0.0)
+     *             and latency per request in milliseconds (default 0)
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8082;
+        double failureRate = args.length > 1 ? Double.parseDouble(args[1]) : 0.0;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        AtomicLong received = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/notifications", exchange -> {
+            try {
+                drain(exchange.getRequestBody());
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                    return;
+                }
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                    failed.incrementAndGet();
+                    respond(exchange, 503, "{\"error\":\"Failed to create notification\"}");
+                    return;
+                }
+                long id = received.incrementAndGet();
+                respond(exchange, 201, "{\"id\":" + id + ",\"message\":\"Notification created\"}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        System.out.println("Notification stub listening on http://localhost:" + port + "/notifications");
+
+        Thread reporter = new Thread(() -> {
+            long last = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long total = received.get();
+                System.out.printf("received %d (+%d/s), failed %d%n", total, total - last, failed.get());
+                last = total;
+            }
+        }, "notification-stub-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (body.read(buffer) >= 0) {
+            // discard the notification
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+}
@@ -0,0 +1,130 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the response formats JSON, CBOR and Smile when encoding and decoding
+ * the golf course list (with holes) and the member roster.
+ * The payload size of every format is printed during the setup, e.g.
+ * {@code payload: format=cbor entities=1000 golfCourses=569723 bytes members=61467 bytes}.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "1000", "10000"})
+    private int entities;
+
+    private ObjectMapper objectMapper;
+
+    private List<GolfCourse> golfCourses;
+
+    private List<Member> members;
+
+    private byte[] golfCoursesPayload;
+
+    private byte[] membersPayload;
+
+    /**
+     * Creates the entities and their encoded form.
+     *
+     * @throws JsonProcessingException if the entities cannot be encoded
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        golfCourses = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            GolfCourse golfCourse = BenchmarkFixtures.golfCourse(i);
+            golfCourse.setId((long) i);
+            golfCourses.add(golfCourse);
+        }
+        members = new ArrayList<>(entities);
+        Iterator<Member> generated = BenchmarkFixtures.members(entities);
+        for (long id = 0; generated.hasNext(); id++) {
+            Member member = generated.next();
+            member.setId(id);
+            members.add(member);
+        }
+        golfCoursesPayload = objectMapper.writeValueAsBytes(golfCourses);
+        membersPayload = objectMapper.writeValueAsBytes(members);
+        System.out.printf("%npayload: format=%s entities=%d golfCourses=%d bytes members=%d bytes%n",
+                format, entities, golfCoursesPayload.length, membersPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeGolfCourses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(golfCourses);
+    }
+
+    @Benchmark
+    public GolfCourse[] decodeGolfCourses() throws IOException {
+        return objectMapper.readValue(golfCoursesPayload, GolfCourse[].class);
+    }
+
+    @Benchmark
+    public byte[] encodeMembers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(members);
+    }
+
+    @Benchmark
+    public Member[] decodeMembers() throws IOException {
+        return objectMapper.readValue(membersPayload, Member[].class);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
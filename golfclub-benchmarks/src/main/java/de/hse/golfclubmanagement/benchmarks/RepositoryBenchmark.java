@@ -0,0 +1,136 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.NameView;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import de.hse.golfclubmanagement.services.GolfCourseService;
+import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.TournamentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the repository lookups at several data sizes.
+ * The repositories are called directly, bypassing the service caches,
+ * to measure the cost of the queries themselves.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private MemberRepository memberRepository;
+
+    private GolfCourseRepository golfCourseRepository;
+
+    private TournamentRepository tournamentRepository;
+
+    private String memberName;
+
+    private String golfCourseName;
+
+    private String tournamentName;
+
+    private long middleMemberId;
+
+    /**
+     * Starts the application and imports the test data.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("repository-benchmark-" + size);
+        memberRepository = context.getBean(MemberRepository.class);
+        golfCourseRepository = context.getBean(GolfCourseRepository.class);
+        tournamentRepository = context.getBean(TournamentRepository.class);
+
+        int golfCourses = Math.max(1, size / 10);
+        context.getBean(MemberService.class).importMembers(BenchmarkFixtures.members(size));
+        context.getBean(GolfCourseService.class).importGolfCourses(BenchmarkFixtures.golfCourses(golfCourses));
+        context.getBean(TournamentService.class).importTournaments(BenchmarkFixtures.tournaments(size));
+
+        memberName = BenchmarkFixtures.memberName(size / 2);
+        golfCourseName = BenchmarkFixtures.golfCourseName(golfCourses / 2);
+        tournamentName = BenchmarkFixtures.tournamentName(size / 2);
+        middleMemberId = memberRepository.findByName(memberName).getId();
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Member findMemberByName() {
+        return memberRepository.findByName(memberName);
+    }
+
+    @Benchmark
+    public List<Member> findMembersPageInTheMiddle() {
+        return memberRepository.findByIdGreaterThanOrderByIdAsc(middleMemberId, PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public List<NameView> findAllMemberNames() {
+        return memberRepository.findAllNames();
+    }
+
+    @Benchmark
+    public GolfCourse findGolfCourseByName() {
+        return golfCourseRepository.findByName(golfCourseName);
+    }
+
+    @Benchmark
+    public List<GolfCourse> findAllGolfCoursesWithHoles() {
+        return golfCourseRepository.findAllWithHoles();
+    }
+
+    @Benchmark
+    public Tournament findTournamentByName() {
+        return tournamentRepository.findByName(tournamentName);
+    }
+}
@@ -0,0 +1,85 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the Jackson (de)serialization of golf courses with their holes,
+ * using an ObjectMapper configured like the one of the application.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int golfCourses;
+
+    private ObjectMapper objectMapper;
+
+    private List<GolfCourse> golfCourseList;
+
+    private byte[] golfCourseListJson;
+
+    /**
+     * Creates the golf courses and their serialized form.
+     *
+     * @throws JsonProcessingException if the golf courses cannot be serialized
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        golfCourseList = new ArrayList<>(golfCourses);
+        for (int i = 0; i < golfCourses; i++) {
+            GolfCourse golfCourse = BenchmarkFixtures.golfCourse(i);
+            golfCourse.setId((long) i);
+            golfCourseList.add(golfCourse);
+        }
+        golfCourseListJson = objectMapper.writeValueAsBytes(golfCourseList);
+    }
+
+    @Benchmark
+    public byte[] serializeGolfCourses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(golfCourseList);
+    }
+
+    @Benchmark
+    public GolfCourse[] deserializeGolfCourses() throws IOException {
+        return objectMapper.readValue(golfCourseListJson, GolfCourse[].class);
+    }
+}
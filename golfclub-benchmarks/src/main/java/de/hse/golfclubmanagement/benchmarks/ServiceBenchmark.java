@@ -0,0 +1,149 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.benchmarks;
+
+import de.hse.golfclubmanagement.dto.NameMatch;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.services.GolfCourseService;
+import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.TournamentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the service methods backing the REST endpoints,
+ * including the caches and in-memory indexes in front of the database.
+ * The database holds size members and tournaments and size / 10 golf courses
+ * with 18 holes each.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private MemberService memberService;
+
+    private GolfCourseService golfCourseService;
+
+    private TournamentService tournamentService;
+
+    private String memberName;
+
+    private String misspelledMemberName;
+
+    private String golfCourseName;
+
+    private String tournamentName;
+
+    /**
+     * Starts the application and imports the test data.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("service-benchmark-" + size);
+        memberService = context.getBean(MemberService.class);
+        golfCourseService = context.getBean(GolfCourseService.class);
+        tournamentService = context.getBean(TournamentService.class);
+
+        int golfCourses = Math.max(1, size / 10);
+        memberService.importMembers(BenchmarkFixtures.members(size));
+        golfCourseService.importGolfCourses(BenchmarkFixtures.golfCourses(golfCourses));
+        tournamentService.importTournaments(BenchmarkFixtures.tournaments(size));
+
+        memberName = BenchmarkFixtures.memberName(size / 2);
+        misspelledMemberName = memberName.replace("Member", "Membr");
+        golfCourseName = BenchmarkFixtures.golfCourseName(golfCourses / 2);
+        tournamentName = BenchmarkFixtures.tournamentName(size / 2);
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> getAllMembers() {
+        return memberService.getAllMembers();
+    }
+
+    @Benchmark
+    public List<Member> getMembersFirstPage() {
+        return memberService.getMembersAfter(null, 100);
+    }
+
+    @Benchmark
+    public Member findMemberByName() {
+        return memberService.findByName(memberName);
+    }
+
+    @Benchmark
+    public List<NameSuggestion> autocompleteMembers() {
+        return memberService.autocomplete("member 000", 10);
+    }
+
+    @Benchmark
+    public List<NameMatch> searchMembers() {
+        return memberService.search(misspelledMemberName, 0.2, 10);
+    }
+
+    @Benchmark
+    public List<GolfCourse> getAllGolfCourses() {
+        return golfCourseService.getAllGolfCourses();
+    }
+
+    @Benchmark
+    public GolfCourse findGolfCourseByName() {
+        return golfCourseService.findByName(golfCourseName);
+    }
+
+    @Benchmark
+    public List<Tournament> getAllTournaments() {
+        return tournamentService.getAllTournaments();
+    }
+
+    @Benchmark
+    public Tournament findTournamentByName() {
+        return tournamentService.findByName(tournamentName);
+    }
+}
@@ -2,6 +2,7 @@ package de.hse.golfclubmanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 /**
  * Main entry point for the Golfclub Management Spring Boot application.
@@ -9,12 +10,20 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 @SpringBootApplication
 public class GolfclubManagementApplication {
 
+    /**
+     * The maximum number of startup steps recorded for /actuator/startup.
+     */
+    private static final int STARTUP_STEPS_CAPACITY = 10000;
+
     /**
      * The main method that starts the Spring Boot application.
+     * The startup steps are recorded (see StartupConfiguration).
      * 
      * @param args command line arguments (if any)
      */
     public static void main(String[] args) {
-        SpringApplication.run(GolfclubManagementApplication.class, args);
+        SpringApplication application = new SpringApplication(GolfclubManagementApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 }
@@ -0,0 +1,80 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configures the admission control of the API (golfclub.admission.*).
+ * Every endpoint belongs to an {@link EndpointClass}; each class limits the request rate
+ * of every client with striped token buckets and the number of concurrently executing
+ * requests over all clients. Heavy endpoints (full lists, streams, bulk imports) get a much
+ * smaller budget than lookups, so a client hammering GET /api/v1/members is rejected quickly
+ * with 429 or 503 instead of occupying the database connection pool.
+ * Rejections and queued requests are exported as golfclub.admission.* metrics.
+ * Disabled unless golfclub.admission.enabled is set, as the limits depend on the deployment.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@ConditionalOnProperty(name = "golfclub.admission.enabled", havingValue = "true")
+public class AdmissionControlConfiguration implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor interceptor;
+
+    /**
+     * Creates the configuration and the budgets of the endpoint classes.
+     *
+     * @param environment        the environment, providing the budgets of the endpoint classes
+     * @param registry           the meter registry
+     * @param stripes            the number of token buckets per endpoint class
+     * @param queueTimeoutMillis how long a request waits for a permit before it is rejected
+     * @param clientHeader       the header identifying the client, or empty to use the remote address
+     */
+    public AdmissionControlConfiguration(Environment environment, MeterRegistry registry,
+                                         @Value("${golfclub.admission.stripes:1024}") int stripes,
+                                         @Value("${golfclub.admission.queue-timeout-ms:200}") long queueTimeoutMillis,
+                                         @Value("${golfclub.admission.client-header:}") String clientHeader) {
+        Map<EndpointClass, AdmissionControlInterceptor.Budget> budgets = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "golfclub.admission." + endpointClass.key() + ".";
+            double ratePerSecond = environment.getProperty(prefix + "rate-per-second", Double.class,
+                    endpointClass.getDefaultRatePerSecond());
+            int burst = environment.getProperty(prefix + "burst", Integer.class, endpointClass.getDefaultBurst());
+            int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class,
+                    endpointClass.getDefaultMaxConcurrent());
+            budgets.put(endpointClass, new AdmissionControlInterceptor.Budget(endpointClass,
+                    new StripedTokenBuckets(stripes, ratePerSecond, burst), maxConcurrent, registry));
+        }
+        this.interceptor = new AdmissionControlInterceptor(budgets, queueTimeoutMillis, clientHeader);
+    }
+
+    /**
+     * Registers the admission control for the API endpoints.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,197 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits API requests by client rate and by endpoint concurrency.
+ * A request first takes a token from the bucket of its client for the class of the endpoint
+ * (429 Too Many Requests if there is none), then a permit of the endpoint class. If all
+ * permits are in use, the request queues for at most the queue timeout and is then rejected
+ * with 503 Service Unavailable. Both rejections carry a Retry-After header and happen before
+ * the controller runs, so rejected requests never touch the database.
+ * The permit is held until the request completes; for streaming responses that is after the
+ * asynchronous dispatch, so a running export keeps its permit. Handlers returning an emitter
+ * only push events produced elsewhere, so their permit is released as soon as the handler has
+ * returned; so is the permit of the change feed, which completes its requests itself.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final Map<EndpointClass, Budget> budgets = new EnumMap<>(EndpointClass.class);
+
+    private final long queueTimeoutMillis;
+
+    private final String clientHeader;
+
+    /**
+     * Creates the interceptor.
+     *
+     * @param budgets            the rate and concurrency budget of each endpoint class
+     * @param queueTimeoutMillis how long a request waits for a permit before it is rejected
+     * @param clientHeader       the header identifying the client (e.g. X-Forwarded-For), whose last
+     *                           entry is used, or empty to use the remote address
+     */
+    AdmissionControlInterceptor(Map<EndpointClass, Budget> budgets, long queueTimeoutMillis, String clientHeader) {
+        this.budgets.putAll(budgets);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Budget budget = budgets.get(classify(request, (HandlerMethod) handler));
+        long nanosUntilToken = budget.tokens.tryAcquire(clientOf(request));
+        if (nanosUntilToken > 0) {
+            budget.rateLimited.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanosUntilToken + TimeUnit.SECONDS.toNanos(1) - 1))));
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Request rate exceeded for " + budget.endpointClass.key() + " endpoints");
+        }
+        if (!budget.tryEnter(queueTimeoutMillis)) {
+            budget.overloaded.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent requests to " + budget.endpointClass.key() + " endpoints");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, budget);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (handler instanceof HandlerMethod && ResponseBodyEmitter.class.isAssignableFrom(
+                ((HandlerMethod) handler).getReturnType().getParameterType())) {
+            afterCompletion(request, response, handler, null);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object budget = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (budget != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ((Budget) budget).permits.release();
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request, HandlerMethod handler) {
+        if (handler.hasMethodAnnotation(HeavyEndpoint.class)) {
+            return EndpointClass.HEAVY;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                ? EndpointClass.LOOKUP
+                : EndpointClass.WRITE;
+    }
+
+    /**
+     * Gets the key of the client a request is admitted for. Of a list of addresses (X-Forwarded-For) the
+     * last one is used, which the proxy in front of the application has appended; the entries before it
+     * are sent by the client and could be changed with every request to get a fresh budget.
+     */
+    private String clientOf(HttpServletRequest request) {
+        if (StringUtils.hasText(clientHeader)) {
+            String value = request.getHeader(clientHeader);
+            if (StringUtils.hasText(value)) {
+                return value.substring(value.lastIndexOf(',') + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * The rate and concurrency budget of an endpoint class, with its metrics.
+     */
+    static final class Budget {
+
+        private final EndpointClass endpointClass;
+
+        private final StripedTokenBuckets tokens;
+
+        private final Semaphore permits;
+
+        private final Counter rateLimited;
+
+        private final Counter overloaded;
+
+        /**
+         * Creates the budget and registers its metrics.
+         *
+         * @param endpointClass the endpoint class
+         * @param tokens        the token buckets of the clients
+         * @param maxConcurrent the number of requests executing at the same time
+         * @param registry      the meter registry
+         */
+        Budget(EndpointClass endpointClass, StripedTokenBuckets tokens, int maxConcurrent, MeterRegistry registry) {
+            this.endpointClass = endpointClass;
+            this.tokens = tokens;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.rateLimited = rejectedCounter(registry, "rate_limited");
+            this.overloaded = rejectedCounter(registry, "overloaded");
+            Gauge.builder("golfclub.admission.active", permits, p -> maxConcurrent - p.availablePermits())
+                    .description("Admitted requests currently executing")
+                    .tag("class", endpointClass.key())
+                    .register(registry);
+            Gauge.builder("golfclub.admission.queued", permits, Semaphore::getQueueLength)
+                    .description("Requests waiting for a permit")
+                    .tag("class", endpointClass.key())
+                    .register(registry);
+        }
+
+        private Counter rejectedCounter(MeterRegistry registry, String reason) {
+            return Counter.builder("golfclub.admission.rejected")
+                    .description("Requests rejected by the admission control")
+                    .tag("class", endpointClass.key())
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+
+        private boolean tryEnter(long timeoutMillis) {
+            try {
+                return permits.tryAcquire(0, TimeUnit.MILLISECONDS)
+                        || permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * Configures the binary response formats CBOR and Smile next to JSON.
+ * Clients select a format with the Accept header (application/cbor or application/x-jackson-smile)
+ * and may send request bodies in these formats as well. Both are encodings of the JSON data model,
+ * so the entities are serialized exactly as with JSON, using the settings of the application's
+ * ObjectMapper. JSON stays the default for requests accepting any format.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+public class BinaryFormatConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Media type of Smile encoded documents.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Media type of a sequence of CBOR encoded documents (RFC 8742), used by the stream endpoints.
+     */
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    /**
+     * Media type of Smile encoded documents.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    /**
+     * Media type of a sequence of CBOR encoded documents.
+     */
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.valueOf(APPLICATION_CBOR_SEQ_VALUE);
+
+    private final Jackson2ObjectMapperBuilder cborMapperBuilder;
+
+    private final Jackson2ObjectMapperBuilder smileMapperBuilder;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param cborMapperBuilder  the builder of the application's ObjectMapper, used for the CBOR mapper
+     * @param smileMapperBuilder the builder of the application's ObjectMapper, used for the Smile mapper
+     */
+    public BinaryFormatConfiguration(Jackson2ObjectMapperBuilder cborMapperBuilder,
+                                     Jackson2ObjectMapperBuilder smileMapperBuilder) {
+        this.cborMapperBuilder = cborMapperBuilder;
+        this.smileMapperBuilder = smileMapperBuilder;
+    }
+
+    /**
+     * Appends the CBOR and Smile converters after the default converters,
+     * so JSON is still chosen if the client accepts any format.
+     *
+     * @param converters the configured converters
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapperBuilder.factory(new SmileFactory()).build()));
+    }
+
+    /**
+     * Marks all API responses as depending on the Accept header, so caches (and the ETags of
+     * the list endpoints) do not mix up the representations of the same resource.
+     *
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,126 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Configures the read-through caches in front of the findByName lookups and the tournament calendar.
+ * The caches are bounded in size and evict entries after a time to live.
+ * Misses are cached as well (negative caching), but expire after a shorter
+ * time to live than found entities.
+ * <p>
+ * The caches are transaction-aware: within a transaction, puts and evictions (e.g. {@code @CacheEvict}
+ * on a {@code @Transactional} write) are applied after commit. An eviction before commit would let a
+ * concurrent lookup cache the old row again, which would then be served for the whole time to live.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    /**
+     * Cache of Member entities by name.
+     */
+    public static final String MEMBERS_BY_NAME = "membersByName";
+
+    /**
+     * Cache of GolfCourse entities (including holes) by name.
+     */
+    public static final String GOLF_COURSES_BY_NAME = "golfCoursesByName";
+
+    /**
+     * Cache of Tournament entities by name.
+     */
+    public static final String TOURNAMENTS_BY_NAME = "tournamentsByName";
+
+    /**
+     * Cache of the Tournament entities of past months by month (see TournamentCalendarService).
+     */
+    public static final String TOURNAMENTS_BY_MONTH = "tournamentsByMonth";
+
+    /**
+     * Creates the cache manager providing the name lookup caches, applying puts and evictions after commit.
+     *
+     * @param maximumSize        the maximum number of entries per cache
+     * @param timeToLive         the time to live of cached entities
+     * @param negativeTimeToLive the time to live of cached misses
+     * @param monthsMaximumSize  the maximum number of months in the calendar cache
+     * @param monthsTimeToLive   the time to live of cached months, bounds the staleness after writes of other instances
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${golfclub.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${golfclub.cache.time-to-live:10m}") Duration timeToLive,
+                                     @Value("${golfclub.cache.negative-time-to-live:30s}") Duration negativeTimeToLive,
+                                     @Value("${golfclub.cache.calendar.maximum-size:600}") long monthsMaximumSize,
+                                     @Value("${golfclub.cache.calendar.time-to-live:24h}") Duration monthsTimeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TimeToLiveExpiry(timeToLive.toNanos(), negativeTimeToLive.toNanos()))
+                .recordStats());
+        cacheManager.setCacheNames(Arrays.asList(MEMBERS_BY_NAME, GOLF_COURSES_BY_NAME, TOURNAMENTS_BY_NAME));
+        // past months do not change unless a tournament is written, which evicts the cache
+        cacheManager.registerCustomCache(TOURNAMENTS_BY_MONTH, Caffeine.newBuilder()
+                .maximumSize(monthsMaximumSize)
+                .expireAfterWrite(monthsTimeToLive)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Expires entries a fixed time after they were written, using
+     * a shorter time for cached misses (stored as {@link NullValue}).
+     */
+    private static final class TimeToLiveExpiry implements Expiry<Object, Object> {
+
+        private final long timeToLiveNanos;
+
+        private final long negativeTimeToLiveNanos;
+
+        private TimeToLiveExpiry(long timeToLiveNanos, long negativeTimeToLiveNanos) {
+            this.timeToLiveNanos = timeToLiveNanos;
+            this.negativeTimeToLiveNanos = negativeTimeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof NullValue ? negativeTimeToLiveNanos : timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+/**
+ * The classes of API endpoints which are admitted with separate budgets.
+ * Each class has a request rate per client and a limit of concurrently executing requests
+ * over all clients; the defaults can be overridden with the properties
+ * golfclub.admission.&lt;class&gt;.rate-per-second, .burst and .max-concurrent.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public enum EndpointClass {
+
+    /**
+     * Endpoints annotated with {@link HeavyEndpoint}, e.g. full lists, streams and bulk imports.
+     */
+    HEAVY(2, 5, 4),
+
+    /**
+     * All other GET endpoints, e.g. lookups by name, pages and autocomplete.
+     */
+    LOOKUP(50, 100, 32),
+
+    /**
+     * All other endpoints, e.g. creating entities, recording scores and booking tee times.
+     */
+    WRITE(20, 40, 16);
+
+    private final double defaultRatePerSecond;
+
+    private final int defaultBurst;
+
+    private final int defaultMaxConcurrent;
+
+    EndpointClass(double defaultRatePerSecond, int defaultBurst, int defaultMaxConcurrent) {
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.defaultBurst = defaultBurst;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+    }
+
+    /**
+     * Gets the name used in the properties and the metric tags, e.g. heavy.
+     *
+     * @return the lower case name of the class
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Gets the default number of requests per second a single client may send.
+     *
+     * @return the default rate
+     */
+    public double getDefaultRatePerSecond() {
+        return defaultRatePerSecond;
+    }
+
+    /**
+     * Gets the default number of requests a single client may send at once after being idle.
+     *
+     * @return the default burst
+     */
+    public int getDefaultBurst() {
+        return defaultBurst;
+    }
+
+    /**
+     * Gets the default number of requests executing at the same time over all clients.
+     *
+     * @return the default concurrency limit
+     */
+    public int getDefaultMaxConcurrent() {
+        return defaultMaxConcurrent;
+    }
+}
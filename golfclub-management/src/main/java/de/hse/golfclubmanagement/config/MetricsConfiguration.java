@@ -0,0 +1,67 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Configures the application specific metrics.
+ * Request latencies are recorded by Spring Boot as http.server.requests,
+ * tagged with uri, method, status and outcome; this configuration adds the
+ * controller method serving the request as endpoint tag.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * The tag value used for requests not served by a controller method.
+     */
+    private static final Tag UNKNOWN_ENDPOINT = Tag.of("endpoint", "none");
+
+    /**
+     * Adds the endpoint tag (e.g. MemberController.getAllMembers) to the request metrics.
+     *
+     * @return the tags contributor
+     */
+    @Bean
+    public WebMvcTagsContributor endpointTagsContributor() {
+        return new WebMvcTagsContributor() {
+
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Throwable exception) {
+                if (handler instanceof HandlerMethod) {
+                    HandlerMethod handlerMethod = (HandlerMethod) handler;
+                    return Tags.of("endpoint", handlerMethod.getBeanType().getSimpleName()
+                            + "." + handlerMethod.getMethod().getName());
+                }
+                return Tags.of(UNKNOWN_ENDPOINT);
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+}
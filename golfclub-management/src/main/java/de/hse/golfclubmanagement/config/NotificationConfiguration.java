@@ -0,0 +1,53 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Configures the delivery of notifications to the notification-service.
+ * Enables scheduling for the NotificationDispatcher and provides the HTTP client
+ * used to post the notifications, with short timeouts so that an unresponsive
+ * notification-service only delays the background delivery.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@EnableScheduling
+public class NotificationConfiguration {
+
+    /**
+     * Creates the HTTP client for the notification-service.
+     *
+     * @param builder              the builder preconfigured by Spring Boot
+     * @param connectTimeoutMillis the connect timeout in milliseconds
+     * @param readTimeoutMillis    the read timeout in milliseconds
+     * @return the HTTP client
+     */
+    @Bean
+    public RestTemplate notificationRestTemplate(RestTemplateBuilder builder,
+                                                 @Value("${golfclub.notifications.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                                                 @Value("${golfclub.notifications.read-timeout-ms:5000}") long readTimeoutMillis) {
+        return builder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMillis))
+                .build();
+    }
+}
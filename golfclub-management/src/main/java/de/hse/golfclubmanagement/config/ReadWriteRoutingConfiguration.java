@@ -0,0 +1,165 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to replica databases (golfclub.datasource.routing.enabled=true).
+ * <p>
+ * The primary is configured with the usual spring.datasource.* properties, the replicas with
+ * golfclub.datasource.replicas[n].url/username/password (plus .hikari.* pool settings).
+ * Service methods annotated with {@code @Transactional(readOnly = true)} read from a replica whose
+ * replication lag is within golfclub.datasource.routing.lag-tolerance-ms, chosen round-robin or by
+ * the fewest connections in use (golfclub.datasource.routing.selection); everything else uses the primary.
+ * <p>
+ * Hibernate is switched to release its connection after every transaction, so that one request
+ * (with open session in view) can read from a replica and write to the primary afterwards.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@ConditionalOnProperty(name = "golfclub.datasource.routing.enabled", havingValue = "true")
+public class ReadWriteRoutingConfiguration {
+
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    /**
+     * Creates the routing DataSource with the connection pools of the primary and the replicas.
+     *
+     * @param properties         the spring.datasource properties of the primary
+     * @param environment        the environment holding the replica properties
+     * @param lagToleranceMillis the maximum replication lag of a replica still used for reads
+     * @param selection          the replica selection strategy
+     * @return the routing DataSource
+     */
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            DataSourceProperties properties, Environment environment,
+            @Value("${golfclub.datasource.routing.lag-tolerance-ms:5000}") long lagToleranceMillis,
+            @Value("${golfclub.datasource.routing.selection:ROUND_ROBIN}") ReadWriteRoutingDataSource.Selection selection) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        setPoolName(primary, "primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; binder.bind("golfclub.datasource.replicas[" + i + "]", DataSourceProperties.class).isBound(); i++) {
+            String prefix = "golfclub.datasource.replicas[" + i + "]";
+            DataSourceProperties replicaProperties = binder.bind(prefix, DataSourceProperties.class).get();
+            HikariDataSource replica = replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind(prefix + ".hikari", Bindable.ofInstance(replica));
+            setPoolName(replica, "replica-" + i);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, lagToleranceMillis, selection,
+                replica -> ((HikariDataSource) replica).getHikariPoolMXBean() != null
+                        ? ((HikariDataSource) replica).getHikariPoolMXBean().getActiveConnections() : 0);
+    }
+
+    private static void setPoolName(HikariDataSource pool, String name) {
+        if (pool.getPoolName() == null) {
+            pool.setPoolName(name);
+        }
+    }
+
+    /**
+     * Exposes the routing DataSource to JPA and JDBC. The connection is obtained lazily on the
+     * first statement, after the transaction has been marked read-only.
+     *
+     * @param routingDataSource the routing DataSource
+     * @return the DataSource used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Releases the JDBC connection of a Hibernate session after every transaction instead of
+     * holding it until the session is closed, so each transaction is routed on its own.
+     *
+     * @return the customizer of the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Exposes the connection pool metrics (hikaricp.*) of the primary and the replicas, which are
+     * not DataSource beans themselves, and the measured replication lag of every replica as
+     * golfclub.datasource.replica.lag.
+     *
+     * @param routingDataSource the routing DataSource
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder replicaLagMetrics(ReadWriteRoutingDataSource routingDataSource) {
+        return registry -> {
+            List<DataSource> pools = new ArrayList<>(routingDataSource.getReplicas());
+            pools.add(routingDataSource.getPrimary());
+            for (DataSource pool : pools) {
+                if (pool instanceof HikariDataSource) {
+                    ((HikariDataSource) pool).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+            List<String> names = routingDataSource.getReplicaNames();
+            for (int i = 0; i < names.size(); i++) {
+                int replica = i;
+                Gauge.builder("golfclub.datasource.replica.lag", routingDataSource,
+                                routing -> routing.getReplicaLagMillis(replica) == Long.MAX_VALUE
+                                        ? Double.NaN : routing.getReplicaLagMillis(replica) / 1000.0)
+                        .tag("replica", names.get(i))
+                        .baseUnit("seconds")
+                        .description("Replication lag of the replica, NaN if unknown")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Measures the replication lag of the replicas periodically.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${golfclub.datasource.routing.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        routingDataSource.getObject().checkReplicaLag();
+    }
+}
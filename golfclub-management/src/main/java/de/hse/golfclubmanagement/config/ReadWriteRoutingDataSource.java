@@ -0,0 +1,288 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * DataSource routing read-only transactions to replica databases and everything else to the primary.
+ * <p>
+ * A replica is only used while its replication lag is within the configured tolerance, otherwise
+ * the read goes to the primary. The lag is measured with a heartbeat row: {@link #checkReplicaLag()}
+ * writes the current time to the table replication_heartbeat of the primary and reads the value
+ * that has arrived on every replica, so the measured lag includes up to one check interval.
+ * Until the first check, and whenever a replica cannot be queried, its lag counts as unknown.
+ * <p>
+ * The routing decision is made when the connection is obtained, so the DataSource must be
+ * wrapped in a LazyConnectionDataSourceProxy to see the read-only flag of the transaction.
+ * <p>
+ * Reads whose result is kept beyond the transaction, e.g. in-memory snapshots and caches, are
+ * wrapped in {@link #readFromPrimary(Supplier)}: a replica within the lag tolerance may still miss
+ * the latest writes, and a cached copy would keep missing them long after the replica has caught up.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    /**
+     * The replica selection strategy.
+     */
+    public enum Selection {
+        /** Use the replicas in turn. */
+        ROUND_ROBIN,
+        /** Use the replica with the fewest connections in use. */
+        LEAST_LOADED
+    }
+
+    static final String PRIMARY = "primary";
+
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = new ThreadLocal<>();
+
+    private static final String CREATE_HEARTBEAT_SQL =
+            "CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    private static final String UPDATE_HEARTBEAT_SQL = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+
+    private static final String INSERT_HEARTBEAT_SQL = "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)";
+
+    private static final String SELECT_HEARTBEAT_SQL = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final List<String> replicaNames;
+
+    private final long lagToleranceMillis;
+
+    private final Selection selection;
+
+    private final ToIntFunction<DataSource> activeConnections;
+
+    private final AtomicLongArray lagMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Creates a new routing DataSource.
+     *
+     * @param primary            the primary database receiving all writes
+     * @param replicas           the replica databases, in the order of their names
+     * @param lagToleranceMillis the maximum replication lag of a replica still used for reads
+     * @param selection          the replica selection strategy
+     * @param activeConnections  the number of connections in use of a replica, for {@link Selection#LEAST_LOADED}
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, long lagToleranceMillis,
+                                      Selection selection, ToIntFunction<DataSource> activeConnections) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.lagToleranceMillis = lagToleranceMillis;
+        this.selection = selection;
+        this.activeConnections = activeConnections;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        List<String> names = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            names.add("replica-" + i);
+            targets.put(names.get(i), replicas.get(i));
+            lagMillis.set(i, UNKNOWN_LAG);
+        }
+        targets.put(PRIMARY, primary);
+        this.replicaNames = Collections.unmodifiableList(names);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs an action whose reads go to the primary, also within read-only transactions.
+     * The transactions must start within the action or must not have used their connection yet,
+     * since the connection is routed once on its first statement.
+     *
+     * @param action the action to run
+     * @param <T>    the type of the result
+     * @return the result of the action
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        if (READ_FROM_PRIMARY.get() != null) {
+            return action.get();
+        }
+        READ_FROM_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            READ_FROM_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || READ_FROM_PRIMARY.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int replica = selection == Selection.LEAST_LOADED ? leastLoadedReplica() : nextRoundRobinReplica();
+        return replica >= 0 ? replicaNames.get(replica) : PRIMARY;
+    }
+
+    private int nextRoundRobinReplica() {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (isUsable(candidate)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private int leastLoadedReplica() {
+        int best = -1;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (isUsable(i)) {
+                int load = activeConnections.applyAsInt(replicas.get(i));
+                if (load < bestLoad) {
+                    best = i;
+                    bestLoad = load;
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean isUsable(int replica) {
+        return lagMillis.get(replica) <= lagToleranceMillis;
+    }
+
+    /**
+     * Measures the replication lag of every replica by means of the heartbeat row
+     * and writes a new heartbeat to the primary.
+     */
+    public void checkReplicaLag() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMillis.set(i, readHeartbeatLag(replicas.get(i), now));
+        }
+        writeHeartbeat(now);
+    }
+
+    private long readHeartbeatLag(DataSource replica, long now) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_HEARTBEAT_SQL)) {
+            return resultSet.next() ? Math.max(0, now - resultSet.getLong(1)) : UNKNOWN_LAG;
+        } catch (SQLException e) {
+            logger.debug("Could not read the replication heartbeat of a replica", e);
+            return UNKNOWN_LAG;
+        }
+    }
+
+    private void writeHeartbeat(long now) {
+        try (Connection connection = primary.getConnection()) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_HEARTBEAT_SQL);
+            }
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_HEARTBEAT_SQL)) {
+                update.setLong(1, now);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(INSERT_HEARTBEAT_SQL)) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not write the replication heartbeat to the primary", e);
+        }
+    }
+
+    /**
+     * Gets the primary database.
+     *
+     * @return the primary DataSource
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Gets the replica databases.
+     *
+     * @return the replica DataSources, in the order of their names
+     */
+    public List<DataSource> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /**
+     * Gets the names of the replicas (replica-0, replica-1, ...).
+     *
+     * @return the names of the replicas
+     */
+    public List<String> getReplicaNames() {
+        return replicaNames;
+    }
+
+    /**
+     * Gets the last measured replication lag of a replica.
+     *
+     * @param replica the index of the replica
+     * @return the lag in milliseconds, or {@link Long#MAX_VALUE} if unknown
+     */
+    public long getReplicaLagMillis(int replica) {
+        return lagMillis.get(replica);
+    }
+
+    /**
+     * Closes the connection pools of the primary and the replicas.
+     *
+     * @throws IOException if a pool cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            closeIfPossible(replica);
+        }
+        closeIfPossible(primary);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
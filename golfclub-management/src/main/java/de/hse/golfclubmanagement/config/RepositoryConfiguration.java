@@ -0,0 +1,30 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import de.hse.golfclubmanagement.repositories.SparseFieldsJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Configures the Spring Data JPA repositories.
+ * All repositories are based on {@link SparseFieldsJpaRepository}, so the repositories
+ * extending SparseFieldsRepository can select single fields without loading entities.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@EnableJpaRepositories(basePackages = "de.hse.golfclubmanagement.repositories",
+        repositoryBaseClass = SparseFieldsJpaRepository.class)
+public class RepositoryConfiguration {
+}
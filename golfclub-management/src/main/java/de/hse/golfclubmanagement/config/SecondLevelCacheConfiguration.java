@@ -0,0 +1,127 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configures the second level cache and the query cache of Hibernate for the golf course reference data.
+ * The regions are bounded on-heap Caffeine caches (via JCache) local to every instance: GolfCourse and
+ * Hole entities, the holes of every GolfCourse and the results of GolfCourseRepository#findByName.
+ * Writes of this instance update the regions within the transaction; writes of other instances are
+ * propagated by CacheInvalidation, which evicts the regions once it notices them. All regions except
+ * the update timestamps of the query cache expire after a time to live, which bounds the staleness
+ * caused by writes bypassing the application.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+    /**
+     * The region of the query cache holding the last modification time of every table.
+     * Its entries must not expire before the cached query results, otherwise results read
+     * before a write could be considered current again.
+     */
+    private static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * The default region of cacheable queries without a region of their own.
+     */
+    private static final String DEFAULT_QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * The number of update timestamps kept, one per table.
+     */
+    private static final long MAXIMUM_UPDATE_TIMESTAMPS = 1000;
+
+    /**
+     * The number of cache managers created, distinguishing the cache managers of several
+     * application contexts within one JVM.
+     */
+    private static final AtomicInteger CACHE_MANAGERS = new AtomicInteger();
+
+    /**
+     * Creates the JCache manager holding the regions of the second level cache.
+     * Every application context gets a cache manager of its own; the default one of the provider is shared
+     * within the JVM, so the regions of a second instance started in the same JVM (e.g. in tests) would
+     * replace those of the first.
+     *
+     * @param maximumSize  the maximum number of entries of the golf course, collection and query regions
+     * @param maximumHoles the maximum number of entries of the hole region
+     * @param timeToLive   the time after which cached entries expire
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${golfclub.cache.second-level.maximum-size:10000}") long maximumSize,
+                                                @Value("${golfclub.cache.second-level.maximum-holes:200000}") long maximumHoles,
+                                                @Value("${golfclub.cache.second-level.time-to-live:1h}") Duration timeToLive) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        URI uri = URI.create(provider.getDefaultURI() + "-" + CACHE_MANAGERS.incrementAndGet());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+        createRegion(cacheManager, GolfCourse.CACHE_REGION, maximumSize, timeToLive);
+        createRegion(cacheManager, GolfCourse.HOLES_CACHE_REGION, maximumSize, timeToLive);
+        createRegion(cacheManager, Hole.CACHE_REGION, maximumHoles, timeToLive);
+        createRegion(cacheManager, GolfCourseRepository.QUERY_CACHE_REGION, maximumSize, timeToLive);
+        createRegion(cacheManager, DEFAULT_QUERY_RESULTS_REGION, maximumSize, timeToLive);
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, MAXIMUM_UPDATE_TIMESTAMPS, null);
+        return cacheManager;
+    }
+
+    /**
+     * Lets Hibernate keep the second level cache and the query cache in the regions of the given
+     * cache manager. Regions that have not been created above are treated as an error, so every
+     * region is bounded.
+     *
+     * @param secondLevelCacheManager the cache manager holding the regions
+     * @return the customizer of the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maximumSize, Duration timeToLive) {
+        if (cacheManager.getCache(name) != null) {
+            cacheManager.destroyCache(name);
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (timeToLive != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,121 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import de.hse.golfclubmanagement.services.ChangeFeed;
+import de.hse.golfclubmanagement.services.EntityVersions;
+import de.hse.golfclubmanagement.services.NotificationDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Configures the startup of the application.
+ * The startup steps (per phase and per bean) are recorded by the {@link BufferingApplicationStartup}
+ * set in the main class and exposed on /actuator/startup; once the application is ready, the slowest
+ * bean instantiations are logged as well, so the startup time can be compared between releases.
+ * With the faststart profile, beans are initialized lazily except the ones that have to run
+ * in the background from the start (see {@link #eagerBackgroundBeans()}).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+public class StartupConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupConfiguration.class);
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private final int slowestBeansLogged;
+
+    private final boolean exitWhenReady;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param slowestBeansLogged the number of slowest bean instantiations logged on startup, 0 disables the log
+     * @param exitWhenReady      whether to shut down once started, e.g. for a class data sharing training run
+     */
+    public StartupConfiguration(@Value("${golfclub.startup.slowest-beans-logged:10}") int slowestBeansLogged,
+                                @Value("${golfclub.startup.exit-when-ready:false}") boolean exitWhenReady) {
+        this.slowestBeansLogged = slowestBeansLogged;
+        this.exitWhenReady = exitWhenReady;
+    }
+
+    /**
+     * Excludes the beans with scheduled background work from lazy initialization,
+     * as they would otherwise not run before something else requests them.
+     *
+     * @return the exclude filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(NotificationDispatcher.class,
+                ReadWriteRoutingConfiguration.class, EntityVersions.class, ChangeFeed.class);
+    }
+
+    /**
+     * Logs the startup time and the slowest bean instantiations once the application is ready,
+     * and shuts the application down if requested.
+     *
+     * @param event the ready event
+     */
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        ApplicationStartup applicationStartup = context.getApplicationStartup();
+        if (slowestBeansLogged > 0 && applicationStartup instanceof BufferingApplicationStartup) {
+            logSlowestBeans(((BufferingApplicationStartup) applicationStartup).getBufferedTimeline());
+        }
+        if (exitWhenReady) {
+            LOG.info("Shutting down after startup (golfclub.startup.exit-when-ready)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void logSlowestBeans(StartupTimeline timeline) {
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION_STEP.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration, Comparator.reverseOrder()))
+                .limit(slowestBeansLogged)
+                .collect(Collectors.toList());
+        LOG.info("Recorded {} startup steps, slowest bean instantiations (including their dependencies):{}",
+                timeline.getEvents().size(), slowest.stream()
+                        .map(event -> String.format("%n  %6d ms  %s", event.getDuration().toMillis(), beanName(event.getStartupStep())))
+                        .collect(Collectors.joining()));
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
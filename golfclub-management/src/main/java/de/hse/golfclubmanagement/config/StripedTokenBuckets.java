@@ -0,0 +1,86 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+/**
+ * Token buckets limiting the request rate per client.
+ * Instead of one bucket per client, the clients are hashed onto a fixed number of stripes,
+ * so the memory is bounded no matter how many clients (or spoofed addresses) show up and
+ * the buckets never need to be evicted. Clients sharing a stripe share its budget; with
+ * enough stripes for the expected number of concurrently active clients this is rare.
+ * Every bucket is guarded by its own lock, so concurrent clients rarely contend.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class StripedTokenBuckets {
+
+    private final Bucket[] buckets;
+
+    private final int mask;
+
+    private final double tokensPerNano;
+
+    private final double capacity;
+
+    /**
+     * Creates the token buckets, all of them full.
+     *
+     * @param stripes       the number of buckets, rounded up to a power of two
+     * @param ratePerSecond the number of tokens added to each bucket per second
+     * @param burst         the maximum number of tokens of each bucket
+     */
+    StripedTokenBuckets(int stripes, double ratePerSecond, int burst) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit((stripes - 1) << 1);
+        this.buckets = new Bucket[size];
+        this.mask = size - 1;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1, burst);
+        long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket(capacity, now);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the given client.
+     *
+     * @param client the key of the client, e.g. its address
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    long tryAcquire(String client) {
+        int hash = client.hashCode();
+        Bucket bucket = buckets[(hash ^ (hash >>> 16)) & mask];
+        synchronized (bucket) {
+            long now = System.nanoTime();
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+            bucket.refilledAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano)) : Long.MAX_VALUE;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
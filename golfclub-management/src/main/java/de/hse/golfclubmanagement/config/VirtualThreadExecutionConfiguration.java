@@ -0,0 +1,140 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in execution mode running request handling on virtual threads
+ * (golfclub.execution.mode=virtual). Tomcat and the asynchronous MVC requests
+ * then use one virtual thread per task instead of the bounded platform thread
+ * pool, and the database concurrency is limited by a semaphore around the
+ * DataSource (see {@link ConcurrencyLimitedDataSource}) rather than by the
+ * number of request threads.
+ * Virtual threads require Java 21 or newer: on older runtimes, such as the
+ * Java 17 image of the Dockerfile, the application fails to start in this mode.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+@ConditionalOnProperty(name = "golfclub.execution.mode", havingValue = "virtual")
+public class VirtualThreadExecutionConfiguration {
+
+    /**
+     * The name of the DataSource bean used by JPA and JDBC. Only this bean is limited: with read/write
+     * routing it is the proxy around the routing DataSource, and wrapping the pools behind it as well
+     * would take two permits per connection.
+     */
+    static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    /**
+     * Creates the executor running one virtual thread per task.
+     *
+     * @return the virtual thread executor
+     * @throws IllegalStateException if the Java runtime does not support virtual threads
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("golfclub.execution.mode=virtual requires Java 21 or newer, but runs on Java "
+                    + System.getProperty("java.version") + "; use golfclub.execution.mode=platform", e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Lets Tomcat handle every request on its own virtual thread.
+     *
+     * @param virtualThreadExecutor the virtual thread executor
+     * @return the protocol handler customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Runs asynchronous MVC requests (e.g. the NDJSON streams) on virtual threads.
+     * Replaces the default applicationTaskExecutor of Spring Boot.
+     *
+     * @param virtualThreadExecutor the virtual thread executor
+     * @return the task executor for asynchronous requests
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    /**
+     * Wraps the primary DataSource bean ({@value #DATA_SOURCE_BEAN_NAME}) so that at most
+     * maxConcurrency connections are in use at once. Other DataSource beans, such as the
+     * routing DataSource injected by ReadWriteRoutingConfiguration, keep their type.
+     *
+     * @param maxConcurrency       the maximum number of concurrently used connections
+     * @param acquireTimeoutMillis how long a request waits for a connection before failing
+     * @return the post processor wrapping the DataSource
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${golfclub.execution.max-db-concurrency:10}") int maxConcurrency,
+            @Value("${golfclub.execution.db-acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource)
+                        || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                return new ConcurrencyLimitedDataSource((DataSource) bean, maxConcurrency, acquireTimeoutMillis);
+            }
+        };
+    }
+
+    /**
+     * Exposes the number of active and waiting database permits as metrics.
+     *
+     * @param dataSource the (wrapped) DataSource
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder databaseConcurrencyMetrics(ObjectProvider<DataSource> dataSource) {
+        return registry -> dataSource.forEach(candidate -> {
+            if (candidate instanceof ConcurrencyLimitedDataSource) {
+                ConcurrencyLimitedDataSource limited = (ConcurrencyLimitedDataSource) candidate;
+                Gauge.builder("golfclub.db.concurrency.active", limited,
+                        ConcurrencyLimitedDataSource::getActiveConnections).register(registry);
+                Gauge.builder("golfclub.db.concurrency.waiting", limited,
+                        ConcurrencyLimitedDataSource::getWaitingThreads).register(registry);
+            }
+        });
+    }
+}
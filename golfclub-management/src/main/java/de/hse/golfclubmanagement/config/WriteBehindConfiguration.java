@@ -0,0 +1,92 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.TournamentService;
+import de.hse.golfclubmanagement.services.WriteBehindWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configures the asynchronous write mode of the member and tournament creation
+ * (POST with Prefer: respond-async, see WriteBehindWriter).
+ * Each entity type has its own queue and writer thread; the batches are written
+ * through the services, so the outbox notifications, name indexes, caches and ETags
+ * are maintained as for synchronous writes.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Configuration
+public class WriteBehindConfiguration {
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    private final Duration statusRetention;
+
+    private final long statusMaximumSize;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param queueCapacity     the maximum number of queued entities per type
+     * @param batchSize         the maximum number of entities written per transaction
+     * @param statusRetention   how long the state of a write request is kept
+     * @param statusMaximumSize the maximum number of kept states per type
+     */
+    public WriteBehindConfiguration(@Value("${golfclub.write-behind.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${golfclub.write-behind.batch-size:500}") int batchSize,
+                                    @Value("${golfclub.write-behind.status-retention:1h}") Duration statusRetention,
+                                    @Value("${golfclub.write-behind.status-maximum-size:100000}") long statusMaximumSize) {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.statusRetention = statusRetention;
+        this.statusMaximumSize = statusMaximumSize;
+    }
+
+    /**
+     * Creates the writer of new members.
+     *
+     * @param memberService the service saving the batches
+     * @param meterRegistry the registry of the writer metrics
+     * @return the writer
+     */
+    @Bean
+    public WriteBehindWriter<Member> memberWriteBehindWriter(MemberService memberService, MeterRegistry meterRegistry) {
+        return new WriteBehindWriter<>("members", memberService::validateNewMember, memberService::addNewMembers,
+                Member::getId, queueCapacity, batchSize, statusRetention, statusMaximumSize, meterRegistry);
+    }
+
+    /**
+     * Creates the writer of new tournaments.
+     *
+     * @param tournamentService the service saving the batches
+     * @param meterRegistry     the registry of the writer metrics
+     * @return the writer
+     */
+    @Bean
+    public WriteBehindWriter<Tournament> tournamentWriteBehindWriter(TournamentService tournamentService,
+                                                                     MeterRegistry meterRegistry) {
+        return new WriteBehindWriter<>("tournaments", tournamentService::validateNewTournament,
+                tournamentService::addNewTournaments, Tournament::getId, queueCapacity, batchSize, statusRetention,
+                statusMaximumSize, meterRegistry);
+    }
+}
@@ -0,0 +1,266 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lazily reads entities for the bulk import endpoints from a request body,
+ * either as JSON array or as CSV with a header line. Ids contained in the
+ * input are ignored, imported entities are always created as new rows.
+ * Malformed input is reported as 400 Bad Request.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class BulkImportReaders {
+
+    /**
+     * The media type accepted by the CSV import endpoints.
+     */
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private BulkImportReaders() {
+    }
+
+    /**
+     * Reads Member entities from a JSON array.
+     *
+     * @param objectMapper the mapper used to read the entities
+     * @param body         the request body
+     * @return an iterator reading one Member at a time
+     * @throws IOException if the body cannot be read
+     */
+    static Iterator<Member> membersFromJson(ObjectMapper objectMapper, InputStream body) throws IOException {
+        return json(objectMapper, body, Member.class, member -> {
+            member.setId(null);
+            return member;
+        });
+    }
+
+    /**
+     * Reads Member entities from CSV with the columns name, membershipStatus and handicap.
+     *
+     * @param body the request body
+     * @return an iterator reading one Member at a time
+     */
+    static Iterator<Member> membersFromCsv(InputStream body) {
+        return map(csv(body), record -> {
+            Member member = new Member();
+            member.setName(required(record, "name"));
+            member.setMembershipStatus(record.get("membershipStatus"));
+            member.setHandicap(parseInt(record, "handicap", 0));
+            return member;
+        });
+    }
+
+    /**
+     * Reads Tournament entities from a JSON array.
+     *
+     * @param objectMapper the mapper used to read the entities
+     * @param body         the request body
+     * @return an iterator reading one Tournament at a time
+     * @throws IOException if the body cannot be read
+     */
+    static Iterator<Tournament> tournamentsFromJson(ObjectMapper objectMapper, InputStream body) throws IOException {
+        return json(objectMapper, body, Tournament.class, tournament -> {
+            tournament.setId(null);
+            return tournament;
+        });
+    }
+
+    /**
+     * Reads Tournament entities from CSV with the columns name and date (yyyy-MM-dd).
+     *
+     * @param body the request body
+     * @return an iterator reading one Tournament at a time
+     */
+    static Iterator<Tournament> tournamentsFromCsv(InputStream body) {
+        return map(csv(body), record -> {
+            Tournament tournament = new Tournament();
+            tournament.setName(required(record, "name"));
+            String date = required(record, "date");
+            try {
+                tournament.setDate(java.sql.Date.valueOf(LocalDate.parse(date)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("invalid date '" + date + "'", e);
+            }
+            return tournament;
+        });
+    }
+
+    /**
+     * Reads GolfCourse entities including their holes from a JSON array.
+     *
+     * @param objectMapper the mapper used to read the entities
+     * @param body         the request body
+     * @return an iterator reading one GolfCourse at a time
+     * @throws IOException if the body cannot be read
+     */
+    static Iterator<GolfCourse> golfCoursesFromJson(ObjectMapper objectMapper, InputStream body) throws IOException {
+        return json(objectMapper, body, GolfCourse.class, golfCourse -> {
+            golfCourse.setId(null);
+            if (golfCourse.getHoles() != null) {
+                for (Hole hole : golfCourse.getHoles()) {
+                    hole.setId(null);
+                    hole.setGolfCourse(golfCourse);
+                }
+            }
+            return golfCourse;
+        });
+    }
+
+    /**
+     * Reads GolfCourse entities from CSV with one line per hole and the columns
+     * name, location, number, length and par. Consecutive lines with the same
+     * course name form one GolfCourse.
+     *
+     * @param body the request body
+     * @return an iterator reading one GolfCourse at a time
+     */
+    static Iterator<GolfCourse> golfCoursesFromCsv(InputStream body) {
+        Iterator<Map<String, String>> records = csv(body);
+        return guard(new Iterator<GolfCourse>() {
+
+            private Map<String, String> pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || records.hasNext();
+            }
+
+            @Override
+            public GolfCourse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map<String, String> record = pending != null ? pending : records.next();
+                GolfCourse golfCourse = new GolfCourse();
+                golfCourse.setName(required(record, "name"));
+                golfCourse.setLocation(record.get("location"));
+                List<Hole> holes = new ArrayList<>(18);
+                golfCourse.setHoles(holes);
+                do {
+                    Hole hole = new Hole();
+                    hole.setNummer(parseInt(record, "number", holes.size() + 1));
+                    hole.setLength(parseInt(record, "length", 0));
+                    hole.setPar(parseInt(record, "par", 0));
+                    hole.setGolfCourse(golfCourse);
+                    holes.add(hole);
+                    record = records.hasNext() ? records.next() : null;
+                } while (record != null && golfCourse.getName().equals(record.get("name")));
+                pending = record;
+                return golfCourse;
+            }
+        });
+    }
+
+    private static <T> Iterator<T> json(ObjectMapper objectMapper, InputStream body, Class<T> type,
+                                        Function<T, T> prepare) throws IOException {
+        Iterator<T> values = objectMapper.readerFor(type).readValues(body);
+        return map(values, prepare);
+    }
+
+    private static Iterator<Map<String, String>> csv(InputStream body) {
+        try {
+            return new CsvRecordIterator(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private static <S, T> Iterator<T> map(Iterator<S> source, Function<S, T> mapper) {
+        return guard(new Iterator<T>() {
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return mapper.apply(source.next());
+            }
+        });
+    }
+
+    /**
+     * Translates parsing errors of the given iterator into 400 Bad Request.
+     */
+    private static <T> Iterator<T> guard(Iterator<T> source) {
+        return new Iterator<T>() {
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return source.hasNext();
+                } catch (IllegalArgumentException | RuntimeJsonMappingException e) {
+                    throw badRequest(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return source.next();
+                } catch (IllegalArgumentException | RuntimeJsonMappingException e) {
+                    throw badRequest(e);
+                }
+            }
+        };
+    }
+
+    private static ResponseStatusException badRequest(RuntimeException e) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid import data: " + e.getMessage(), e);
+    }
+
+    private static String required(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("missing value for column '" + column + "'");
+        }
+        return value;
+    }
+
+    private static int parseInt(Map<String, String> record, String column, int defaultValue) {
+        String value = record.get(column);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number '" + value + "' in column '" + column + "'", e);
+        }
+    }
+}
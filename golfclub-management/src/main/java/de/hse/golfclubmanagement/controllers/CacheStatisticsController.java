@@ -0,0 +1,97 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import de.hse.golfclubmanagement.dto.CacheStatistics;
+import de.hse.golfclubmanagement.dto.SecondLevelCacheStatistics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * REST controller exposing the hit, miss and eviction counters
+ * of the application caches and of the Hibernate second level cache.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@RestController
+@RequestMapping("/api/v1/caches")
+public class CacheStatisticsController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private javax.cache.CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Retrieves the statistics of all caches.
+     *
+     * @return a list with the statistics of every cache
+     */
+    @GetMapping
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(name);
+            // the caches are wrapped to defer evictions until commit, their native cache is the Caffeine cache
+            if (cache != null && cache.getNativeCache() instanceof Cache) {
+                Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+                statistics.add(new CacheStatistics(name, nativeCache.estimatedSize(), nativeCache.stats()));
+            }
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Retrieves the statistics of all regions of the Hibernate second level cache and query cache,
+     * counted since the application has been started.
+     *
+     * @return a list with the statistics of every region, ordered by name
+     */
+    @GetMapping("/second-level")
+    public ResponseEntity<List<SecondLevelCacheStatistics>> getSecondLevelCacheStatistics() {
+        Statistics hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String[] regions = hibernateStatistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        List<SecondLevelCacheStatistics> statistics = new ArrayList<>();
+        for (String region : regions) {
+            CacheRegionStatistics regionStatistics = hibernateStatistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                statistics.add(new SecondLevelCacheStatistics(region, estimatedSize(region),
+                        regionStatistics.getHitCount(), regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+            }
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    private long estimatedSize(String region) {
+        javax.cache.Cache<Object, Object> cache = secondLevelCacheManager.getCache(region);
+        return cache != null ? cache.unwrap(Cache.class).estimatedSize() : 0;
+    }
+}
@@ -0,0 +1,63 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import de.hse.golfclubmanagement.services.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * REST controller streaming the changes of members, golf courses and tournaments
+ * as server-sent events, so clients can update their lists instead of polling them.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@RestController
+@RequestMapping("/api/v1/changes")
+public class ChangeFeedController {
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    /**
+     * Subscribes to the change feed. Every committed change is sent as event "change" with a JSON body;
+     * the event "reset" tells the client that it has missed changes and should reload its lists.
+     * EventSource clients reconnect with the Last-Event-ID header automatically, other clients may pass
+     * the id of the last received event as lastEventId parameter.
+     *
+     * The events are written to the response asynchronously by the change feed.
+     *
+     * @param lastEventIdHeader the id of the last received event, sent by reconnecting EventSource clients
+     * @param lastEventId       the id of the last received event, used if the header is missing
+     * @param request           the request, completed by the change feed
+     * @param response          the response the events are written to
+     * @throws IOException if the response cannot be written; 503 if the maximum number of subscriptions is reached
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void subscribe(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventIdHeader,
+                          @RequestParam(required = false) String lastEventId,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        changeFeed.subscribe(request, response, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
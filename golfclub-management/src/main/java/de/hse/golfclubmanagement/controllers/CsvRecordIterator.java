@@ -0,0 +1,132 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Minimal streaming CSV reader (RFC 4180) that reads one record at a time.
+ * The first record is treated as header; each following record is returned
+ * as a map from column name to value. Quoted fields may contain commas,
+ * escaped quotes ("") and line breaks.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class CsvRecordIterator implements Iterator<Map<String, String>> {
+
+    private final BufferedReader reader;
+
+    private final List<String> header;
+
+    private List<String> next;
+
+    private long recordNumber;
+
+    /**
+     * Creates a new iterator and reads the header record.
+     *
+     * @param reader the reader providing the CSV content
+     * @throws IllegalArgumentException if the content has no header
+     */
+    CsvRecordIterator(BufferedReader reader) {
+        this.reader = reader;
+        this.header = readRecord();
+        if (this.header == null) {
+            throw new IllegalArgumentException("CSV content must start with a header line");
+        }
+        this.next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        recordNumber++;
+        if (next.size() != header.size()) {
+            throw new IllegalArgumentException("CSV record " + recordNumber + " has " + next.size()
+                    + " fields, expected " + header.size());
+        }
+        Map<String, String> record = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), next.get(i));
+        }
+        next = readRecord();
+        return record;
+    }
+
+    private List<String> readRecord() {
+        try {
+            String line = reader.readLine();
+            while (line != null && line.isEmpty()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    line = reader.readLine();
+                    if (line == null) {
+                        throw new IllegalArgumentException("CSV content ends within a quoted field");
+                    }
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString().trim());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
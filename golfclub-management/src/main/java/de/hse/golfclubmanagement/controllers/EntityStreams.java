@@ -0,0 +1,121 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import de.hse.golfclubmanagement.config.BinaryFormatConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Helper for streaming entities as a sequence of documents.
+ * Depending on the Accept header, the rows are written as newline delimited JSON (NDJSON),
+ * as CBOR sequence (application/cbor-seq) or as Smile stream (application/x-jackson-smile).
+ * Each row is written and flushed as soon as the service hands it over,
+ * so the response never holds the complete result list in memory.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+class EntityStreams {
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    /**
+     * The row writers by media type, the first one is the default.
+     */
+    private final Map<MediaType, ObjectWriter> writers = new LinkedHashMap<>();
+
+    /**
+     * Creates the helper.
+     *
+     * @param contentNegotiationManager resolves the media types accepted by the client
+     * @param objectMapper              the mapper used for NDJSON
+     * @param cborMapperBuilder         the builder of the application's ObjectMapper, used for CBOR
+     * @param smileMapperBuilder        the builder of the application's ObjectMapper, used for Smile
+     */
+    EntityStreams(ContentNegotiationManager contentNegotiationManager, ObjectMapper objectMapper,
+                  Jackson2ObjectMapperBuilder cborMapperBuilder, Jackson2ObjectMapperBuilder smileMapperBuilder) {
+        this.contentNegotiationManager = contentNegotiationManager;
+        writers.put(MediaType.APPLICATION_NDJSON, objectMapper.writer().withRootValueSeparator("\n"));
+        writers.put(BinaryFormatConfiguration.APPLICATION_CBOR_SEQ,
+                cborMapperBuilder.factory(new CBORFactory()).build().writer());
+        writers.put(BinaryFormatConfiguration.APPLICATION_SMILE,
+                smileMapperBuilder.factory(new SmileFactory()).build().writer());
+    }
+
+    /**
+     * Creates a streaming response fed by the given source, encoded in the format accepted by the client.
+     *
+     * @param request the current request
+     * @param source  callback that pushes every row into the given consumer
+     * @param <T>     the type of the streamed rows
+     * @return a response streaming one document per row
+     * @throws HttpMediaTypeNotAcceptableException if the Accept header cannot be parsed
+     */
+    <T> ResponseEntity<StreamingResponseBody> of(NativeWebRequest request, Consumer<Consumer<T>> source)
+            throws HttpMediaTypeNotAcceptableException {
+        Map.Entry<MediaType, ObjectWriter> format = select(contentNegotiationManager.resolveMediaTypes(request));
+        ObjectWriter rowWriter = format.getValue();
+        boolean ndjson = MediaType.APPLICATION_NDJSON.equals(format.getKey());
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = rowWriter.writeValues(outputStream)) {
+                source.accept(row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                if (ndjson) {
+                    outputStream.write('\n');
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getKey())
+                .body(body);
+    }
+
+    private Map.Entry<MediaType, ObjectWriter> select(List<MediaType> acceptedTypes) {
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            for (Map.Entry<MediaType, ObjectWriter> writer : writers.entrySet()) {
+                if (acceptedType.isCompatibleWith(writer.getKey())) {
+                    return writer;
+                }
+            }
+        }
+        return writers.entrySet().iterator().next();
+    }
+}
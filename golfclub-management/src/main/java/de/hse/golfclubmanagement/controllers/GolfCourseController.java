@@ -12,13 +12,36 @@
  */
 package de.hse.golfclubmanagement.controllers;
 
+import de.hse.golfclubmanagement.config.BinaryFormatConfiguration;
+import de.hse.golfclubmanagement.config.HeavyEndpoint;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.GolfCourseSummary;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
+import de.hse.golfclubmanagement.dto.TeeTime;
+import de.hse.golfclubmanagement.dto.TeeTimeRequest;
 import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.services.EntityVersions;
 import de.hse.golfclubmanagement.services.GolfCourseService;
+import de.hse.golfclubmanagement.services.TeeTimeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing GolfCourse entities.
@@ -30,9 +53,23 @@ import java.util.List;
 @RequestMapping("/api/v1/golfcourses")
 public class GolfCourseController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private GolfCourseService golfCourseService;
 
+    @Autowired
+    private TeeTimeService teeTimeService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private EntityStreams entityStreams;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Adds a new GolfCourse entity to the system.
      *
@@ -45,26 +82,235 @@ public class GolfCourseController {
         return ResponseEntity.ok(savedGolfCourse);
     }
 
+    /**
+     * Imports golf courses with their holes from a JSON array using batched inserts.
+     *
+     * @param body the request body containing the JSON array
+     * @return the number of imported rows and the achieved throughput
+     * @throws IOException if the request body cannot be read
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importGolfCoursesFromJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(golfCourseService.importGolfCourses(BulkImportReaders.golfCoursesFromJson(objectMapper, body)));
+    }
+
+    /**
+     * Imports golf courses with their holes from CSV using batched inserts.
+     * The CSV requires a header line with the columns name, location, number, length and par (one line per hole).
+     *
+     * @param body the request body containing the CSV content
+     * @return the number of imported rows and the achieved throughput
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = BulkImportReaders.TEXT_CSV_VALUE)
+    public ResponseEntity<BulkImportResult> importGolfCoursesFromCsv(InputStream body) {
+        return ResponseEntity.ok(golfCourseService.importGolfCourses(BulkImportReaders.golfCoursesFromCsv(body)));
+    }
+
     /**
      * Retrieves a list of all GolfCourse entities.
+     * The response carries an ETag of the current version of the GolfCourse entities;
+     * if it matches the If-None-Match header, 304 is returned without reading the database.
      *
-     * @return a list of all GolfCourse entities
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return a list of all GolfCourse entities, or 304 if it has not changed
      */
+    @HeavyEndpoint
     @GetMapping
-    public ResponseEntity<List<GolfCourse>> getAllGolfCourses() {
+    public ResponseEntity<List<GolfCourse>> getAllGolfCourses(WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.GOLF_COURSES))) {
+            return null;
+        }
         List<GolfCourse> golfCourses = golfCourseService.getAllGolfCourses();
-        return ResponseEntity.ok(golfCourses);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(golfCourses);
+    }
+
+    /**
+     * Retrieves only the given fields of all GolfCourse entities (sparse fieldset), e.g. ?fields=id,name.
+     * The id is always included.
+     *
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields of all GolfCourse entities ordered by id, or 304 if they have not changed
+     */
+    @HeavyEndpoint
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllGolfCoursesFields(@RequestParam List<String> fields,
+                                                                             WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.GOLF_COURSES))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(golfCourseService.getAllGolfCourseFields(fields));
+    }
+
+    /**
+     * Retrieves the number of holes, the total par and the total length of all GolfCourse entities.
+     * The summaries are read without loading any holes and are tagged like the list of GolfCourse entities.
+     *
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the summaries of all GolfCourse entities ordered by id, or 304 if they have not changed
+     */
+    @HeavyEndpoint
+    @GetMapping("/summaries")
+    public ResponseEntity<List<GolfCourseSummary>> getAllSummaries(WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.GOLF_COURSES))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(golfCourseService.getAllSummaries());
     }
 
     /**
      * Finds a GolfCourse by its name.
+     * Like the list, the result is tagged with the version of the GolfCourse entities and
+     * 304 is returned without a lookup if the If-None-Match header matches.
      *
-     * @param name the name of the GolfCourse to find
-     * @return the GolfCourse entity if found, or a 404 response if not
+     * @param name    the name of the GolfCourse to find
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the GolfCourse entity if found, a 404 response if not, or 304 if the result has not changed
      */
     @GetMapping("/findByName")
-    public ResponseEntity<GolfCourse> findByName(@RequestParam String name) {
+    public ResponseEntity<GolfCourse> findByName(@RequestParam String name, WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.GOLF_COURSES))) {
+            return null;
+        }
         GolfCourse golfCourse = golfCourseService.findByName(name);
-        return golfCourse != null ? ResponseEntity.ok(golfCourse) : ResponseEntity.notFound().build();
+        return golfCourse != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(golfCourse)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Finds a GolfCourse by name and returns only the given fields (sparse fieldset).
+     *
+     * @param name    the name of the GolfCourse to find
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields if found, a 404 response if not, or 304 if the result has not changed
+     */
+    @GetMapping(value = "/findByName", params = "fields")
+    public ResponseEntity<Map<String, Object>> findFieldsByName(@RequestParam String name, @RequestParam List<String> fields,
+                                                                WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.GOLF_COURSES))) {
+            return null;
+        }
+        Map<String, Object> row = golfCourseService.findFieldsByName(name, fields);
+        return row != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(row)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Retrieves a page of GolfCourse entities using keyset pagination on the id.
+     * The id of the last returned entity is sent in the X-Next-Cursor header
+     * and can be passed as the after parameter to fetch the next page.
+     *
+     * @param after the id of the last GolfCourse of the previous page (optional)
+     * @param limit the maximum number of entities to return
+     * @return a page of GolfCourse entities ordered by id
+     */
+    @GetMapping("/page")
+    public ResponseEntity<List<GolfCourse>> getGolfCoursesPage(@RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        List<GolfCourse> golfCourses = golfCourseService.getGolfCoursesAfter(after, limit);
+        if (golfCourses.isEmpty()) {
+            return ResponseEntity.ok(golfCourses);
+        }
+        Long nextCursor = golfCourses.get(golfCourses.size() - 1).getId();
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(golfCourses);
+    }
+
+    /**
+     * Retrieves only the given fields of a page of GolfCourse entities using keyset pagination on the id.
+     *
+     * @param after  the id of the last GolfCourse of the previous page (optional)
+     * @param limit  the maximum number of rows to return
+     * @param fields the comma separated names of the fields to return, the id is always included
+     * @return the requested fields of a page of GolfCourse entities ordered by id
+     */
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getGolfCoursesFieldsPage(@RequestParam(required = false) Long after,
+                                                                              @RequestParam(defaultValue = "100") int limit,
+                                                                              @RequestParam List<String> fields) {
+        List<Map<String, Object>> rows = golfCourseService.getGolfCourseFieldsAfter(after, limit, fields);
+        if (rows.isEmpty()) {
+            return ResponseEntity.ok(rows);
+        }
+        Object nextCursor = rows.get(rows.size() - 1).get("id");
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(rows);
+    }
+
+    /**
+     * Streams all GolfCourse entities as newline delimited JSON (NDJSON),
+     * or as CBOR sequence or Smile stream if requested by the Accept header.
+     *
+     * @param request the current request, used to select the format
+     * @return a streaming response writing one GolfCourse per line or document
+     * @throws HttpMediaTypeNotAcceptableException if the Accept header cannot be parsed
+     */
+    @HeavyEndpoint
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatConfiguration.APPLICATION_CBOR_SEQ_VALUE, BinaryFormatConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllGolfCourses(NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        return entityStreams.of(request, golfCourseService::streamAllGolfCourses);
+    }
+
+    /**
+     * Suggests GolfCourse entities whose name starts with the given prefix (type-ahead).
+     *
+     * @param prefix the prefix of the name to search for
+     * @param limit  the maximum number of suggestions to return
+     * @return the id and name of the matching GolfCourse entities ordered by name
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<NameSuggestion>> autocomplete(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(golfCourseService.autocomplete(prefix, limit));
+    }
+
+    /**
+     * Retrieves all tee times of the golf course on a day, booked and free.
+     *
+     * @param id   the id of the golf course
+     * @param date the day (yyyy-MM-dd)
+     * @return the tee times of the day ordered by time
+     */
+    @GetMapping("/{id}/teetimes")
+    public ResponseEntity<List<TeeTime>> getTeeTimes(@PathVariable Long id,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(teeTimeService.getTeeTimes(id, date));
+    }
+
+    /**
+     * Books a tee time on the golf course.
+     * Without a time in the request, the earliest free tee time of the day is booked.
+     *
+     * @param id      the id of the golf course
+     * @param request the member, day and optional time to book
+     * @return the booked tee time once it has been saved, 409 if it is already taken,
+     *         or 503 if too many bookings are waiting to be saved
+     */
+    @PostMapping("/{id}/teetimes")
+    public ResponseEntity<TeeTime> bookTeeTime(@PathVariable Long id, @RequestBody TeeTimeRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(teeTimeService.book(id, request));
+    }
+
+    /**
+     * Cancels a booked tee time on the golf course.
+     *
+     * @param id       the id of the golf course
+     * @param date     the day (yyyy-MM-dd)
+     * @param time     the start time (HH:mm)
+     * @param memberId the id of the member who booked the tee time
+     * @return 204 if the tee time has been cancelled, or 404 if it is not booked by the member
+     */
+    @DeleteMapping("/{id}/teetimes")
+    public ResponseEntity<Void> cancelTeeTime(@PathVariable Long id,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                              @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime time,
+                                              @RequestParam Long memberId) {
+        teeTimeService.cancel(id, date, time, memberId);
+        return ResponseEntity.noContent().build();
     }
 }
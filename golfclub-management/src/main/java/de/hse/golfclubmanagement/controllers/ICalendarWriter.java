@@ -0,0 +1,160 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import de.hse.golfclubmanagement.repositories.TournamentCalendarView;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal streaming iCalendar writer (RFC 5545) that writes one all-day event per tournament.
+ * Every event is written to a small buffer as soon as it is handed over, so the calendar is never
+ * held in memory as a whole. Lines are folded after 75 octets and end with CRLF as required by the RFC.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class ICalendarWriter {
+
+    /**
+     * The media type of iCalendar files.
+     */
+    static final String TEXT_CALENDAR_VALUE = "text/calendar";
+
+    private static final String CRLF = "\r\n";
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final Writer writer;
+
+    private final String timestamp;
+
+    private final String uidDomain;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param outputStream the stream to write the UTF-8 encoded calendar to
+     * @param uidDomain    the domain part of the unique ids of the events
+     */
+    ICalendarWriter(OutputStream outputStream, String uidDomain) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.timestamp = DATE_TIME.format(Instant.now());
+        this.uidDomain = uidDomain;
+    }
+
+    /**
+     * Writes the start of the calendar.
+     *
+     * @param name the name of the calendar shown by calendar applications
+     * @throws IOException if the calendar cannot be written
+     */
+    void begin(String name) throws IOException {
+        writeLine("BEGIN:VCALENDAR");
+        writeLine("VERSION:2.0");
+        writeLine("PRODID:-//HSE//Golfclub Management//EN");
+        writeLine("CALSCALE:GREGORIAN");
+        writeLine("METHOD:PUBLISH");
+        writeLine("X-WR-CALNAME:" + escape(name));
+    }
+
+    /**
+     * Writes a tournament as all-day event.
+     *
+     * @param entry the tournament to write
+     * @throws IOException if the event cannot be written
+     */
+    void write(TournamentCalendarView entry) throws IOException {
+        LocalDate date = new java.sql.Date(entry.getDate().getTime()).toLocalDate();
+        writeLine("BEGIN:VEVENT");
+        writeLine("UID:tournament-" + entry.getId() + "@" + uidDomain);
+        writeLine("DTSTAMP:" + timestamp);
+        writeLine("DTSTART;VALUE=DATE:" + DATE.format(date));
+        writeLine("DTEND;VALUE=DATE:" + DATE.format(date.plusDays(1)));
+        writeLine("SUMMARY:" + escape(entry.getName() != null ? entry.getName() : "Tournament " + entry.getId()));
+        if (entry.getGolfCourseName() != null) {
+            writeLine("LOCATION:" + escape(entry.getGolfCourseName()));
+        }
+        writeLine("TRANSP:TRANSPARENT");
+        writeLine("END:VEVENT");
+    }
+
+    /**
+     * Writes the end of the calendar and flushes the writer.
+     *
+     * @throws IOException if the calendar cannot be written
+     */
+    void end() throws IOException {
+        writeLine("END:VCALENDAR");
+        writer.flush();
+    }
+
+    /**
+     * Writes a content line, folded into lines of at most 75 octets (without CRLF) that
+     * continue with a single space. Characters are never split across lines.
+     */
+    private void writeLine(String line) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            boolean pair = Character.isHighSurrogate(c) && i + 1 < line.length();
+            int length = pair ? 4 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (octets + length > MAX_LINE_OCTETS) {
+                writer.write(CRLF);
+                writer.write(' ');
+                octets = 1;
+            }
+            writer.write(c);
+            if (pair) {
+                writer.write(line.charAt(++i));
+            }
+            octets += length;
+        }
+        writer.write(CRLF);
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                case ';':
+                case ',':
+                    escaped.append('\\').append(c);
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -12,13 +12,35 @@
  */
 package de.hse.golfclubmanagement.controllers;
 
+import de.hse.golfclubmanagement.config.BinaryFormatConfiguration;
+import de.hse.golfclubmanagement.config.HeavyEndpoint;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.HandicapRecalculationStatus;
+import de.hse.golfclubmanagement.dto.NameMatch;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
+import de.hse.golfclubmanagement.dto.WriteRequestStatus;
 import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.services.HandicapRecalculationService;
+import de.hse.golfclubmanagement.services.EntityVersions;
 import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.WriteBehindWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing Member entities.
@@ -30,9 +52,30 @@ import java.util.List;
 @RequestMapping("/api/v1/members")
 public class MemberController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+
+    private static final String RESPOND_ASYNC = "respond-async";
+
     @Autowired
     private MemberService memberService;
 
+    @Autowired
+    private WriteBehindWriter<Member> memberWriteBehindWriter;
+
+    @Autowired
+    private HandicapRecalculationService handicapRecalculationService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private EntityStreams entityStreams;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Adds a new Member entity to the system.
      *
@@ -45,26 +88,240 @@ public class MemberController {
         return ResponseEntity.ok(savedMember);
     }
 
+    /**
+     * Accepts a new Member for asynchronous writing, if requested with the header Prefer: respond-async.
+     * The Member is validated and queued; it is written together with other queued members shortly after.
+     * The state of the write, including the id of the written Member, can be polled at the URL of the
+     * Location header.
+     *
+     * @param member the new Member, without id
+     * @return 202 with the tracking id, 400 if the Member is invalid, or 503 if too many members are queued
+     */
+    @PostMapping(headers = "Prefer=" + RESPOND_ASYNC)
+    public ResponseEntity<WriteRequestStatus> addMemberAsync(@RequestBody Member member) {
+        WriteRequestStatus status = memberWriteBehindWriter.submit(member);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/members/writes/" + status.getId()))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(status);
+    }
+
+    /**
+     * Retrieves the state of an asynchronous write of a Member.
+     *
+     * @param id the tracking id returned when the Member has been accepted
+     * @return the state of the write, or 404 if the id is unknown or has expired
+     */
+    @GetMapping("/writes/{id}")
+    public ResponseEntity<WriteRequestStatus> getWriteStatus(@PathVariable String id) {
+        WriteRequestStatus status = memberWriteBehindWriter.getStatus(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Imports members from a JSON array using batched inserts.
+     *
+     * @param body the request body containing the JSON array
+     * @return the number of imported rows and the achieved throughput
+     * @throws IOException if the request body cannot be read
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importMembersFromJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(memberService.importMembers(BulkImportReaders.membersFromJson(objectMapper, body)));
+    }
+
+    /**
+     * Imports members from CSV using batched inserts.
+     * The CSV requires a header line with the columns name, membershipStatus and handicap.
+     *
+     * @param body the request body containing the CSV content
+     * @return the number of imported rows and the achieved throughput
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = BulkImportReaders.TEXT_CSV_VALUE)
+    public ResponseEntity<BulkImportResult> importMembersFromCsv(InputStream body) {
+        return ResponseEntity.ok(memberService.importMembers(BulkImportReaders.membersFromCsv(body)));
+    }
+
     /**
      * Retrieves a list of all Member entities.
+     * The response carries an ETag of the current version of the Member entities;
+     * if it matches the If-None-Match header, 304 is returned without reading the database.
      *
-     * @return a list of all Member entities
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return a list of all Member entities, or 304 if it has not changed
      */
+    @HeavyEndpoint
     @GetMapping
-    public ResponseEntity<List<Member>> getAllMembers() {
+    public ResponseEntity<List<Member>> getAllMembers(WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.MEMBERS))) {
+            return null;
+        }
         List<Member> members = memberService.getAllMembers();
-        return ResponseEntity.ok(members);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(members);
+    }
+
+    /**
+     * Retrieves only the given fields of all Member entities (sparse fieldset), e.g. ?fields=id,name.
+     * The id is always included.
+     *
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields of all Member entities ordered by id, or 304 if they have not changed
+     */
+    @HeavyEndpoint
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllMembersFields(@RequestParam List<String> fields,
+                                                                         WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.MEMBERS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(memberService.getAllMemberFields(fields));
     }
 
     /**
      * Finds a Member by their name.
+     * Like the list, the result is tagged with the version of the Member entities and
+     * 304 is returned without a lookup if the If-None-Match header matches.
      *
-     * @param name the name of the Member to find
-     * @return the Member entity if found, or a 404 response if not
+     * @param name    the name of the Member to find
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the Member entity if found, a 404 response if not, or 304 if the result has not changed
      */
     @GetMapping("/findByName")
-    public ResponseEntity<Member> findByName(@RequestParam String name) {
+    public ResponseEntity<Member> findByName(@RequestParam String name, WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.MEMBERS))) {
+            return null;
+        }
         Member member = memberService.findByName(name);
-        return member != null ? ResponseEntity.ok(member) : ResponseEntity.notFound().build();
+        return member != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(member)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Finds a Member by name and returns only the given fields (sparse fieldset).
+     *
+     * @param name    the name of the Member to find
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields if found, a 404 response if not, or 304 if the result has not changed
+     */
+    @GetMapping(value = "/findByName", params = "fields")
+    public ResponseEntity<Map<String, Object>> findFieldsByName(@RequestParam String name, @RequestParam List<String> fields,
+                                                                WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.MEMBERS))) {
+            return null;
+        }
+        Map<String, Object> row = memberService.findFieldsByName(name, fields);
+        return row != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(row)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Retrieves a page of Member entities using keyset pagination on the id.
+     * The id of the last returned entity is sent in the X-Next-Cursor header
+     * and can be passed as the after parameter to fetch the next page.
+     *
+     * @param after the id of the last Member of the previous page (optional)
+     * @param limit the maximum number of entities to return
+     * @return a page of Member entities ordered by id
+     */
+    @GetMapping("/page")
+    public ResponseEntity<List<Member>> getMembersPage(@RequestParam(required = false) Long after,
+                                                       @RequestParam(defaultValue = "100") int limit) {
+        List<Member> members = memberService.getMembersAfter(after, limit);
+        if (members.isEmpty()) {
+            return ResponseEntity.ok(members);
+        }
+        Long nextCursor = members.get(members.size() - 1).getId();
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(members);
+    }
+
+    /**
+     * Retrieves only the given fields of a page of Member entities using keyset pagination on the id.
+     *
+     * @param after  the id of the last Member of the previous page (optional)
+     * @param limit  the maximum number of rows to return
+     * @param fields the comma separated names of the fields to return, the id is always included
+     * @return the requested fields of a page of Member entities ordered by id
+     */
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getMembersFieldsPage(@RequestParam(required = false) Long after,
+                                                                          @RequestParam(defaultValue = "100") int limit,
+                                                                          @RequestParam List<String> fields) {
+        List<Map<String, Object>> rows = memberService.getMemberFieldsAfter(after, limit, fields);
+        if (rows.isEmpty()) {
+            return ResponseEntity.ok(rows);
+        }
+        Object nextCursor = rows.get(rows.size() - 1).get("id");
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(rows);
+    }
+
+    /**
+     * Streams all Member entities as newline delimited JSON (NDJSON),
+     * or as CBOR sequence or Smile stream if requested by the Accept header.
+     *
+     * @param request the current request, used to select the format
+     * @return a streaming response writing one Member per line or document
+     * @throws HttpMediaTypeNotAcceptableException if the Accept header cannot be parsed
+     */
+    @HeavyEndpoint
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatConfiguration.APPLICATION_CBOR_SEQ_VALUE, BinaryFormatConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllMembers(NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        return entityStreams.of(request, memberService::streamAllMembers);
+    }
+
+    /**
+     * Suggests Member entities whose name starts with the given prefix (type-ahead).
+     *
+     * @param prefix the prefix of the name to search for
+     * @param limit  the maximum number of suggestions to return
+     * @return the id and name of the matching Member entities ordered by name
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<NameSuggestion>> autocomplete(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(memberService.autocomplete(prefix, limit));
+    }
+
+    /**
+     * Searches Member entities by name, tolerating typos (fuzzy search).
+     *
+     * @param name          the name to search for, may be misspelled
+     * @param minSimilarity the minimum similarity of a name to be returned, between 0 (exclusive) and 1
+     * @param limit         the maximum number of matches to return
+     * @return the id, name and similarity of the matching Member entities, best matches first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<NameMatch>> search(@RequestParam String name,
+                                                  @RequestParam(defaultValue = "0.2") double minSimilarity,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(memberService.search(name, minSimilarity, limit));
+    }
+
+    /**
+     * Starts the recalculation of the handicaps of all members from their tournament rounds.
+     * The job runs in the background; its progress is available through the GET endpoint.
+     *
+     * @return the status of the started job, or 409 if a recalculation is already running
+     */
+    @PostMapping("/handicaps/recalculate")
+    public ResponseEntity<HandicapRecalculationStatus> startHandicapRecalculation() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(handicapRecalculationService.startRecalculation());
+    }
+
+    /**
+     * Retrieves the progress and throughput of the latest handicap recalculation.
+     *
+     * @return the status of the latest job, or 404 if none has been started
+     */
+    @GetMapping("/handicaps/recalculate")
+    public ResponseEntity<HandicapRecalculationStatus> getHandicapRecalculationStatus() {
+        return ResponseEntity.ok(handicapRecalculationService.getStatus());
     }
 }
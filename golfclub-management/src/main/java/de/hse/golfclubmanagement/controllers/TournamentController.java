@@ -12,13 +12,41 @@
  */
 package de.hse.golfclubmanagement.controllers;
 
+import de.hse.golfclubmanagement.config.BinaryFormatConfiguration;
+import de.hse.golfclubmanagement.config.HeavyEndpoint;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.LeaderboardEntry;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
+import de.hse.golfclubmanagement.dto.WriteRequestStatus;
+import de.hse.golfclubmanagement.models.Score;
 import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.services.EntityVersions;
+import de.hse.golfclubmanagement.services.LeaderboardService;
+import de.hse.golfclubmanagement.services.TournamentCalendarService;
 import de.hse.golfclubmanagement.services.TournamentService;
+import de.hse.golfclubmanagement.services.WriteBehindWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for managing Tournament entities.
@@ -30,9 +58,37 @@ import java.util.List;
 @RequestMapping("/api/v1/tournaments")
 public class TournamentController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private static final String CALENDAR_NAME = "Golf Club Tournaments";
+
+    private static final String CALENDAR_UID_DOMAIN = "golfclub-management";
+
     @Autowired
     private TournamentService tournamentService;
 
+    @Autowired
+    private WriteBehindWriter<Tournament> tournamentWriteBehindWriter;
+
+    @Autowired
+    private TournamentCalendarService tournamentCalendarService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private EntityStreams entityStreams;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Adds a new Tournament entity to the system.
      *
@@ -45,26 +101,312 @@ public class TournamentController {
         return ResponseEntity.ok(savedTournament);
     }
 
+    /**
+     * Accepts a new Tournament for asynchronous writing, if requested with the header Prefer: respond-async.
+     * The Tournament is validated and queued; it is written together with other queued tournaments shortly after.
+     * The state of the write, including the id of the written Tournament, can be polled at the URL of the
+     * Location header.
+     *
+     * @param tournament the new Tournament, without id
+     * @return 202 with the tracking id, 400 if the Tournament is invalid, or 503 if too many tournaments are queued
+     */
+    @PostMapping(headers = "Prefer=" + RESPOND_ASYNC)
+    public ResponseEntity<WriteRequestStatus> addTournamentAsync(@RequestBody Tournament tournament) {
+        WriteRequestStatus status = tournamentWriteBehindWriter.submit(tournament);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/tournaments/writes/" + status.getId()))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+                .body(status);
+    }
+
+    /**
+     * Retrieves the state of an asynchronous write of a Tournament.
+     *
+     * @param id the tracking id returned when the Tournament has been accepted
+     * @return the state of the write, or 404 if the id is unknown or has expired
+     */
+    @GetMapping("/writes/{id}")
+    public ResponseEntity<WriteRequestStatus> getWriteStatus(@PathVariable String id) {
+        WriteRequestStatus status = tournamentWriteBehindWriter.getStatus(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Imports tournaments from a JSON array using batched inserts.
+     *
+     * @param body the request body containing the JSON array
+     * @return the number of imported rows and the achieved throughput
+     * @throws IOException if the request body cannot be read
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportResult> importTournamentsFromJson(InputStream body) throws IOException {
+        return ResponseEntity.ok(tournamentService.importTournaments(BulkImportReaders.tournamentsFromJson(objectMapper, body)));
+    }
+
+    /**
+     * Imports tournaments from CSV using batched inserts.
+     * The CSV requires a header line with the columns name and date (yyyy-MM-dd).
+     *
+     * @param body the request body containing the CSV content
+     * @return the number of imported rows and the achieved throughput
+     */
+    @HeavyEndpoint
+    @PostMapping(value = "/bulk", consumes = BulkImportReaders.TEXT_CSV_VALUE)
+    public ResponseEntity<BulkImportResult> importTournamentsFromCsv(InputStream body) {
+        return ResponseEntity.ok(tournamentService.importTournaments(BulkImportReaders.tournamentsFromCsv(body)));
+    }
+
     /**
      * Retrieves a list of all Tournament entities.
+     * The response carries an ETag of the current version of the Tournament entities;
+     * if it matches the If-None-Match header, 304 is returned without reading the database.
      *
-     * @return a list of all Tournament entities
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return a list of all Tournament entities, or 304 if it has not changed
      */
+    @HeavyEndpoint
     @GetMapping
-    public ResponseEntity<List<Tournament>> getAllTournaments() {
+    public ResponseEntity<List<Tournament>> getAllTournaments(WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
         List<Tournament> tournaments = tournamentService.getAllTournaments();
-        return ResponseEntity.ok(tournaments);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(tournaments);
+    }
+
+    /**
+     * Retrieves only the given fields of all Tournament entities (sparse fieldset), e.g. ?fields=id,name.
+     * The id is always included.
+     *
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields of all Tournament entities ordered by id, or 304 if they have not changed
+     */
+    @HeavyEndpoint
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllTournamentsFields(@RequestParam List<String> fields,
+                                                                             WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(tournamentService.getAllTournamentFields(fields));
     }
 
     /**
      * Finds a Tournament by its name.
+     * Like the list, the result is tagged with the version of the Tournament entities and
+     * 304 is returned without a lookup if the If-None-Match header matches.
      *
-     * @param name the name of the Tournament to find
-     * @return the Tournament entity if found, or a 404 response if not
+     * @param name    the name of the Tournament to find
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the Tournament entity if found, a 404 response if not, or 304 if the result has not changed
      */
     @GetMapping("/findByName")
-    public ResponseEntity<Tournament> findByName(@RequestParam String name) {
+    public ResponseEntity<Tournament> findByName(@RequestParam String name, WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
         Tournament tournament = tournamentService.findByName(name);
-        return tournament != null ? ResponseEntity.ok(tournament) : ResponseEntity.notFound().build();
+        return tournament != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(tournament)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Finds a Tournament by name and returns only the given fields (sparse fieldset).
+     *
+     * @param name    the name of the Tournament to find
+     * @param fields  the comma separated names of the fields to return
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the requested fields if found, a 404 response if not, or 304 if the result has not changed
+     */
+    @GetMapping(value = "/findByName", params = "fields")
+    public ResponseEntity<Map<String, Object>> findFieldsByName(@RequestParam String name, @RequestParam List<String> fields,
+                                                                WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
+        Map<String, Object> row = tournamentService.findFieldsByName(name, fields);
+        return row != null
+                ? ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(row)
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Retrieves a page of Tournament entities using keyset pagination on the id.
+     * The id of the last returned entity is sent in the X-Next-Cursor header
+     * and can be passed as the after parameter to fetch the next page.
+     *
+     * @param after the id of the last Tournament of the previous page (optional)
+     * @param limit the maximum number of entities to return
+     * @return a page of Tournament entities ordered by id
+     */
+    @GetMapping("/page")
+    public ResponseEntity<List<Tournament>> getTournamentsPage(@RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        List<Tournament> tournaments = tournamentService.getTournamentsAfter(after, limit);
+        if (tournaments.isEmpty()) {
+            return ResponseEntity.ok(tournaments);
+        }
+        Long nextCursor = tournaments.get(tournaments.size() - 1).getId();
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(tournaments);
+    }
+
+    /**
+     * Retrieves only the given fields of a page of Tournament entities using keyset pagination on the id.
+     *
+     * @param after  the id of the last Tournament of the previous page (optional)
+     * @param limit  the maximum number of rows to return
+     * @param fields the comma separated names of the fields to return, the id is always included
+     * @return the requested fields of a page of Tournament entities ordered by id
+     */
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getTournamentsFieldsPage(@RequestParam(required = false) Long after,
+                                                                              @RequestParam(defaultValue = "100") int limit,
+                                                                              @RequestParam List<String> fields) {
+        List<Map<String, Object>> rows = tournamentService.getTournamentFieldsAfter(after, limit, fields);
+        if (rows.isEmpty()) {
+            return ResponseEntity.ok(rows);
+        }
+        Object nextCursor = rows.get(rows.size() - 1).get("id");
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor)).body(rows);
+    }
+
+    /**
+     * Streams all Tournament entities as newline delimited JSON (NDJSON),
+     * or as CBOR sequence or Smile stream if requested by the Accept header.
+     *
+     * @param request the current request, used to select the format
+     * @return a streaming response writing one Tournament per line or document
+     * @throws HttpMediaTypeNotAcceptableException if the Accept header cannot be parsed
+     */
+    @HeavyEndpoint
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatConfiguration.APPLICATION_CBOR_SEQ_VALUE, BinaryFormatConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllTournaments(NativeWebRequest request)
+            throws HttpMediaTypeNotAcceptableException {
+        return entityStreams.of(request, tournamentService::streamAllTournaments);
+    }
+
+    /**
+     * Retrieves the next tournaments of the club calendar, starting today.
+     *
+     * @param limit the maximum number of tournaments to return
+     * @return the upcoming Tournament entities ordered by date
+     */
+    @GetMapping("/calendar/upcoming")
+    public ResponseEntity<List<Tournament>> getUpcomingTournaments(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(tournamentCalendarService.getUpcomingTournaments(limit));
+    }
+
+    /**
+     * Retrieves the tournaments of a month of the club calendar.
+     * The result is tagged with the version of the Tournament entities like the list.
+     *
+     * @param year    the year
+     * @param month   the month of the year, from 1 to 12
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the Tournament entities of the month ordered by date, or 304 if they have not changed
+     */
+    @GetMapping("/calendar/{year}/{month}")
+    public ResponseEntity<List<Tournament>> getTournamentsInMonth(@PathVariable int year, @PathVariable int month,
+                                                                  WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(tournamentCalendarService.getTournamentsInMonth(year, month));
+    }
+
+    /**
+     * Retrieves the tournaments of the golf season starting in the given year.
+     *
+     * @param year    the year in which the season starts
+     * @param request the current request, used to evaluate the If-None-Match header
+     * @return the Tournament entities of the season ordered by date, or 304 if they have not changed
+     */
+    @GetMapping("/calendar/seasons/{year}")
+    public ResponseEntity<List<Tournament>> getTournamentsInSeason(@PathVariable int year, WebRequest request) {
+        if (request.checkNotModified(entityVersions.etag(EntityVersions.Type.TOURNAMENTS))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(tournamentCalendarService.getTournamentsInSeason(year));
+    }
+
+    /**
+     * Exports the club calendar as iCalendar file (text/calendar) with one all-day event per tournament,
+     * e.g. to subscribe to it in a calendar application. The events are streamed while they are read.
+     *
+     * @param from the first day to export (optional, defaults to golfclub.calendar.export-past-months ago)
+     * @param to   the last day to export (optional)
+     * @return a streaming response writing the calendar
+     * @throws ResponseStatusException 400 if to is before from
+     */
+    @HeavyEndpoint
+    @GetMapping(value = "/calendar.ics", produces = ICalendarWriter.TEXT_CALENDAR_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        StreamingResponseBody body = outputStream -> {
+            ICalendarWriter writer = new ICalendarWriter(outputStream, CALENDAR_UID_DOMAIN);
+            writer.begin(CALENDAR_NAME);
+            try {
+                tournamentCalendarService.streamCalendar(from, to, entry -> {
+                    try {
+                        writer.write(entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.end();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * Suggests Tournament entities whose name starts with the given prefix (type-ahead).
+     *
+     * @param prefix the prefix of the name to search for
+     * @param limit  the maximum number of suggestions to return
+     * @return the id and name of the matching Tournament entities ordered by name
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<NameSuggestion>> autocomplete(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tournamentService.autocomplete(prefix, limit));
+    }
+
+    /**
+     * Records the strokes of a participant on a hole of the tournament.
+     * Recording the same hole again replaces the previous number of strokes.
+     *
+     * @param id    the id of the tournament
+     * @param score the score containing memberId, holeNumber and strokes
+     * @return the saved Score entity
+     */
+    @PostMapping("/{id}/scores")
+    public ResponseEntity<Score> recordScore(@PathVariable Long id, @RequestBody Score score) {
+        return ResponseEntity.ok(leaderboardService.recordScore(id, score));
+    }
+
+    /**
+     * Retrieves the live leaderboard of the tournament ordered by strokes relative to par.
+     *
+     * @param id the id of the tournament
+     * @return the rows of the leaderboard
+     */
+    @GetMapping("/{id}/leaderboard")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@PathVariable Long id) {
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(id));
     }
 }
@@ -0,0 +1,70 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Summary of a bulk import, reporting the number of imported rows
+ * and the achieved throughput.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class BulkImportResult {
+
+    /**
+     * The number of imported rows.
+     */
+    private final long rows;
+
+    /**
+     * The duration of the import in milliseconds.
+     */
+    private final long durationMillis;
+
+    /**
+     * Creates a new import summary.
+     *
+     * @param rows           the number of imported rows
+     * @param durationMillis the duration of the import in milliseconds
+     */
+    public BulkImportResult(long rows, long durationMillis) {
+        this.rows = rows;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Gets the number of imported rows.
+     *
+     * @return the number of imported rows
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets the duration of the import in milliseconds.
+     *
+     * @return the duration of the import in milliseconds
+     */
+    public long getDurationMillis() {
+        return this.durationMillis;
+    }
+
+    /**
+     * Gets the import throughput in rows per second.
+     *
+     * @return the number of imported rows per second
+     */
+    public double getRowsPerSecond() {
+        return this.rows * 1000.0 / Math.max(1, this.durationMillis);
+    }
+}
@@ -0,0 +1,105 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Statistics of a single cache, used to size the caches.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class CacheStatistics {
+
+    /**
+     * The name of the cache.
+     */
+    private final String name;
+
+    /**
+     * The estimated number of entries in the cache.
+     */
+    private final long size;
+
+    /**
+     * The statistics recorded by the cache.
+     */
+    private final CacheStats stats;
+
+    /**
+     * Creates the statistics of a cache.
+     *
+     * @param name  the name of the cache
+     * @param size  the estimated number of entries in the cache
+     * @param stats the statistics recorded by the cache
+     */
+    public CacheStatistics(String name, long size, CacheStats stats) {
+        this.name = name;
+        this.size = size;
+        this.stats = stats;
+    }
+
+    /**
+     * Gets the name of the cache.
+     *
+     * @return the name of the cache
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the estimated number of entries in the cache.
+     *
+     * @return the estimated number of entries
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return this.stats.hitCount();
+    }
+
+    /**
+     * Gets the number of lookups not served from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return this.stats.missCount();
+    }
+
+    /**
+     * Gets the ratio of lookups served from the cache.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        return this.stats.hitRate();
+    }
+
+    /**
+     * Gets the number of entries evicted due to size or expiration.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return this.stats.evictionCount();
+    }
+}
@@ -0,0 +1,129 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+import java.util.Date;
+
+/**
+ * A committed change of a member, golf course or tournament, as published on the change feed.
+ * The event only identifies the changed entity; clients read the entity itself if needed.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class ChangeEvent {
+
+    /**
+     * The kind of change.
+     */
+    public enum Action {
+        CREATED, UPDATED, IMPORTED
+    }
+
+    private final String id;
+
+    private final String entity;
+
+    private final Action action;
+
+    private final Long entityId;
+
+    private final String name;
+
+    private final int count;
+
+    private final Date timestamp;
+
+    /**
+     * Creates a new change event.
+     *
+     * @param id        the id of the event, also sent as id of the server-sent event
+     * @param entity    the changed entity type, e.g. members
+     * @param action    the kind of change
+     * @param entityId  the id of the created or updated entity, null for imports
+     * @param name      the name of the created or updated entity, null for imports
+     * @param count     the number of changed entities, 1 unless imported
+     * @param timestamp the time the change has been committed
+     */
+    public ChangeEvent(String id, String entity, Action action, Long entityId, String name, int count, Date timestamp) {
+        this.id = id;
+        this.entity = entity;
+        this.action = action;
+        this.entityId = entityId;
+        this.name = name;
+        this.count = count;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the id of the event.
+     *
+     * @return the id of the event
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the changed entity type: members, golfcourses or tournaments.
+     *
+     * @return the changed entity type
+     */
+    public String getEntity() {
+        return this.entity;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the kind of change
+     */
+    public Action getAction() {
+        return this.action;
+    }
+
+    /**
+     * Gets the id of the created or updated entity.
+     *
+     * @return the id of the entity, or null for imports
+     */
+    public Long getEntityId() {
+        return this.entityId;
+    }
+
+    /**
+     * Gets the name of the created or updated entity.
+     *
+     * @return the name of the entity, or null for imports
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the number of changed entities.
+     *
+     * @return 1 for created and updated entities, the number of rows of an imported chunk otherwise
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the time the change has been committed.
+     *
+     * @return the time of the change
+     */
+    public Date getTimestamp() {
+        return this.timestamp;
+    }
+}
@@ -0,0 +1,107 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Summary of a golf course with the number of holes, the total par and the total length,
+ * read from the aggregate columns of the golf course without loading its holes.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class GolfCourseSummary {
+
+    private final Long id;
+
+    private final String name;
+
+    private final String location;
+
+    private final int holeCount;
+
+    private final int totalPar;
+
+    private final int totalLength;
+
+    /**
+     * Creates a new golf course summary.
+     *
+     * @param id          the id of the golf course
+     * @param name        the name of the golf course
+     * @param location    the location of the golf course
+     * @param holeCount   the number of holes
+     * @param totalPar    the sum of the par values of all holes
+     * @param totalLength the sum of the lengths of all holes in meters
+     */
+    public GolfCourseSummary(Long id, String name, String location, int holeCount, int totalPar, int totalLength) {
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.holeCount = holeCount;
+        this.totalPar = totalPar;
+        this.totalLength = totalLength;
+    }
+
+    /**
+     * Gets the id of the golf course.
+     *
+     * @return the id of the golf course
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the golf course.
+     *
+     * @return the name of the golf course
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the location of the golf course.
+     *
+     * @return the location of the golf course
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the number of holes.
+     *
+     * @return the number of holes
+     */
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    /**
+     * Gets the sum of the par values of all holes.
+     *
+     * @return the total par
+     */
+    public int getTotalPar() {
+        return totalPar;
+    }
+
+    /**
+     * Gets the sum of the lengths of all holes in meters.
+     *
+     * @return the total length
+     */
+    public int getTotalLength() {
+        return totalLength;
+    }
+}
@@ -0,0 +1,145 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Progress and result of a handicap recalculation job.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class HandicapRecalculationStatus {
+
+    /**
+     * The lifecycle state of a recalculation job.
+     */
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final long jobId;
+
+    private final State state;
+
+    private final long totalMembers;
+
+    private final long processedMembers;
+
+    private final long updatedMembers;
+
+    private final long durationMillis;
+
+    private final String error;
+
+    /**
+     * Creates a new status snapshot.
+     *
+     * @param jobId            the id of the job
+     * @param state            the state of the job
+     * @param totalMembers     the number of members to process
+     * @param processedMembers the number of members processed so far
+     * @param updatedMembers   the number of members whose handicap changed
+     * @param durationMillis   the time since the start of the job, or its total duration once finished
+     * @param error            the error message of a failed job, otherwise null
+     */
+    public HandicapRecalculationStatus(long jobId, State state, long totalMembers, long processedMembers,
+                                       long updatedMembers, long durationMillis, String error) {
+        this.jobId = jobId;
+        this.state = state;
+        this.totalMembers = totalMembers;
+        this.processedMembers = processedMembers;
+        this.updatedMembers = updatedMembers;
+        this.durationMillis = durationMillis;
+        this.error = error;
+    }
+
+    /**
+     * Gets the id of the job.
+     *
+     * @return the id of the job
+     */
+    public long getJobId() {
+        return jobId;
+    }
+
+    /**
+     * Gets the state of the job.
+     *
+     * @return the state of the job
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the number of members to process.
+     *
+     * @return the number of members
+     */
+    public long getTotalMembers() {
+        return totalMembers;
+    }
+
+    /**
+     * Gets the number of members processed so far.
+     *
+     * @return the number of processed members
+     */
+    public long getProcessedMembers() {
+        return processedMembers;
+    }
+
+    /**
+     * Gets the number of members whose handicap has been changed.
+     *
+     * @return the number of updated members
+     */
+    public long getUpdatedMembers() {
+        return updatedMembers;
+    }
+
+    /**
+     * Gets the time since the start of the job, or its total duration once finished.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Gets the error message of a failed job.
+     *
+     * @return the error message, or null if the job has not failed
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Gets the progress of the job as a fraction between 0 and 1.
+     *
+     * @return the progress of the job
+     */
+    public double getProgress() {
+        return totalMembers == 0 ? (state == State.RUNNING ? 0.0 : 1.0) : (double) processedMembers / totalMembers;
+    }
+
+    /**
+     * Gets the throughput of the job in members per second.
+     *
+     * @return the number of processed members per second
+     */
+    public double getMembersPerSecond() {
+        return processedMembers * 1000.0 / Math.max(1, durationMillis);
+    }
+}
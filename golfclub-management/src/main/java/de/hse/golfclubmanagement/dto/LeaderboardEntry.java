@@ -0,0 +1,108 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Represents a single row of a tournament leaderboard.
+ * Players with the same score relative to par share the same position.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class LeaderboardEntry {
+
+    private final int position;
+
+    private final Long memberId;
+
+    private final String name;
+
+    private final int toPar;
+
+    private final int strokes;
+
+    private final int holesPlayed;
+
+    /**
+     * Creates a new leaderboard row.
+     *
+     * @param position    the position of the player, starting at 1
+     * @param memberId    the id of the member
+     * @param name        the name of the member
+     * @param toPar       the strokes relative to the par of the holes played
+     * @param strokes     the total number of strokes
+     * @param holesPlayed the number of holes played so far
+     */
+    public LeaderboardEntry(int position, Long memberId, String name, int toPar, int strokes, int holesPlayed) {
+        this.position = position;
+        this.memberId = memberId;
+        this.name = name;
+        this.toPar = toPar;
+        this.strokes = strokes;
+        this.holesPlayed = holesPlayed;
+    }
+
+    /**
+     * Gets the position of the player, starting at 1.
+     *
+     * @return the position
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the id of the member.
+     *
+     * @return the id of the member
+     */
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Gets the name of the member.
+     *
+     * @return the name of the member
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the strokes relative to the par of the holes played so far.
+     * Negative values are under par.
+     *
+     * @return the strokes relative to par
+     */
+    public int getToPar() {
+        return toPar;
+    }
+
+    /**
+     * Gets the total number of strokes.
+     *
+     * @return the total number of strokes
+     */
+    public int getStrokes() {
+        return strokes;
+    }
+
+    /**
+     * Gets the number of holes played so far.
+     *
+     * @return the number of holes played
+     */
+    public int getHolesPlayed() {
+        return holesPlayed;
+    }
+}
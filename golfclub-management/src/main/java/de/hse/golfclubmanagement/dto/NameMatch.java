@@ -0,0 +1,77 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Represents a single result of a fuzzy name search consisting of the
+ * id and the name of the matching entity and the similarity of its name to the query.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class NameMatch {
+
+    /**
+     * The id of the matching entity.
+     */
+    private final Long id;
+
+    /**
+     * The name of the matching entity.
+     */
+    private final String name;
+
+    /**
+     * The trigram similarity of the name to the query, between 0 and 1 (identical).
+     */
+    private final double similarity;
+
+    /**
+     * Creates a new match.
+     *
+     * @param id         the id of the matching entity
+     * @param name       the name of the matching entity
+     * @param similarity the similarity of the name to the query, between 0 and 1
+     */
+    public NameMatch(Long id, String name, double similarity) {
+        this.id = id;
+        this.name = name;
+        this.similarity = similarity;
+    }
+
+    /**
+     * Gets the id of the matching entity.
+     *
+     * @return the id of the matching entity
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the name of the matching entity.
+     *
+     * @return the name of the matching entity
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the similarity of the name to the query.
+     *
+     * @return the similarity between 0 and 1 (identical)
+     */
+    public double getSimilarity() {
+        return this.similarity;
+    }
+}
@@ -0,0 +1,61 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Represents a single autocomplete suggestion consisting of the
+ * id and the name of the matching entity.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class NameSuggestion {
+
+    /**
+     * The id of the matching entity.
+     */
+    private final Long id;
+
+    /**
+     * The name of the matching entity.
+     */
+    private final String name;
+
+    /**
+     * Creates a new suggestion.
+     *
+     * @param id   the id of the matching entity
+     * @param name the name of the matching entity
+     */
+    public NameSuggestion(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Gets the id of the matching entity.
+     *
+     * @return the id of the matching entity
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the name of the matching entity.
+     *
+     * @return the name of the matching entity
+     */
+    public String getName() {
+        return this.name;
+    }
+}
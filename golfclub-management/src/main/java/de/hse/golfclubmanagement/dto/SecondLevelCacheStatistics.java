@@ -0,0 +1,118 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+/**
+ * Statistics of a single region of the Hibernate second level cache or query cache.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class SecondLevelCacheStatistics {
+
+    /**
+     * The name of the region.
+     */
+    private final String region;
+
+    /**
+     * The estimated number of entries in the region.
+     */
+    private final long size;
+
+    /**
+     * The number of lookups served from the region.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups not served from the region.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries put into the region.
+     */
+    private final long putCount;
+
+    /**
+     * Creates the statistics of a region.
+     *
+     * @param region    the name of the region
+     * @param size      the estimated number of entries in the region
+     * @param hitCount  the number of lookups served from the region
+     * @param missCount the number of lookups not served from the region
+     * @param putCount  the number of entries put into the region
+     */
+    public SecondLevelCacheStatistics(String region, long size, long hitCount, long missCount, long putCount) {
+        this.region = region;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+    }
+
+    /**
+     * Gets the name of the region.
+     *
+     * @return the name of the region
+     */
+    public String getRegion() {
+        return this.region;
+    }
+
+    /**
+     * Gets the estimated number of entries in the region.
+     *
+     * @return the estimated number of entries
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of lookups served from the region.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Gets the number of lookups not served from the region.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Gets the number of entries put into the region.
+     *
+     * @return the number of puts
+     */
+    public long getPutCount() {
+        return this.putCount;
+    }
+
+    /**
+     * Gets the ratio of lookups served from the region.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long requests = this.hitCount + this.missCount;
+        return requests == 0 ? 1.0 : (double) this.hitCount / requests;
+    }
+}
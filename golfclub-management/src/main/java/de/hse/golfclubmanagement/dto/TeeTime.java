@@ -0,0 +1,93 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Represents a tee time slot of a golf course on a day
+ * together with the member who booked it.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class TeeTime {
+
+    private final Long golfCourseId;
+
+    private final LocalDate date;
+
+    private final LocalTime time;
+
+    private final Long memberId;
+
+    /**
+     * Creates a new tee time.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day of the tee time
+     * @param time         the start time
+     * @param memberId     the id of the member who booked the tee time, or null if it is free
+     */
+    public TeeTime(Long golfCourseId, LocalDate date, LocalTime time, Long memberId) {
+        this.golfCourseId = golfCourseId;
+        this.date = date;
+        this.time = time;
+        this.memberId = memberId;
+    }
+
+    /**
+     * Gets the id of the golf course.
+     *
+     * @return the id of the golf course
+     */
+    public Long getGolfCourseId() {
+        return golfCourseId;
+    }
+
+    /**
+     * Gets the day of the tee time.
+     *
+     * @return the day of the tee time
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the start time.
+     *
+     * @return the start time
+     */
+    public LocalTime getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the id of the member who booked the tee time.
+     *
+     * @return the id of the member, or null if the tee time is free
+     */
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Checks whether the tee time can still be booked.
+     *
+     * @return true if nobody has booked the tee time
+     */
+    public boolean isAvailable() {
+        return memberId == null;
+    }
+}
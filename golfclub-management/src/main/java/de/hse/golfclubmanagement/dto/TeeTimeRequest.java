@@ -0,0 +1,84 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Request to book a tee time. Without a time, the earliest free tee time of the day is booked.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class TeeTimeRequest {
+
+    private Long memberId;
+
+    private LocalDate date;
+
+    private LocalTime time;
+
+    /**
+     * Gets the id of the member who books the tee time.
+     *
+     * @return the id of the member
+     */
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Sets the id of the member who books the tee time.
+     *
+     * @param memberId the id of the member
+     */
+    public void setMemberId(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    /**
+     * Gets the requested day.
+     *
+     * @return the requested day
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Sets the requested day.
+     *
+     * @param date the requested day
+     */
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    /**
+     * Gets the requested start time.
+     *
+     * @return the requested start time, or null for the earliest free tee time
+     */
+    public LocalTime getTime() {
+        return time;
+    }
+
+    /**
+     * Sets the requested start time.
+     *
+     * @param time the requested start time, or null for the earliest free tee time
+     */
+    public void setTime(LocalTime time) {
+        this.time = time;
+    }
+}
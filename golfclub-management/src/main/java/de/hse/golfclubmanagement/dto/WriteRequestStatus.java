@@ -0,0 +1,115 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.dto;
+
+import java.util.Date;
+
+/**
+ * State of an entity accepted for asynchronous writing (Prefer: respond-async), see WriteBehindWriter.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class WriteRequestStatus {
+
+    /**
+     * The lifecycle state of a write request.
+     */
+    public enum State {
+        QUEUED, WRITTEN, FAILED
+    }
+
+    private final String id;
+
+    private final State state;
+
+    private final Long entityId;
+
+    private final String error;
+
+    private final Date acceptedAt;
+
+    private final Date completedAt;
+
+    /**
+     * Creates a new status snapshot.
+     *
+     * @param id          the tracking id of the write request
+     * @param state       the state of the write request
+     * @param entityId    the id of the written entity, or null unless written
+     * @param error       the error message of a failed write, otherwise null
+     * @param acceptedAt  the time the entity has been queued
+     * @param completedAt the time the entity has been written or given up, or null while queued
+     */
+    public WriteRequestStatus(String id, State state, Long entityId, String error, Date acceptedAt, Date completedAt) {
+        this.id = id;
+        this.state = state;
+        this.entityId = entityId;
+        this.error = error;
+        this.acceptedAt = acceptedAt;
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Gets the tracking id of the write request.
+     *
+     * @return the tracking id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the state of the write request.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the id of the written entity.
+     *
+     * @return the entity id, or null unless written
+     */
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Gets the error message of a failed write.
+     *
+     * @return the error message, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Gets the time the entity has been queued.
+     *
+     * @return the time of acceptance
+     */
+    public Date getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    /**
+     * Gets the time the entity has been written or given up.
+     *
+     * @return the time of completion, or null while queued
+     */
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -0,0 +1,76 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.models;
+
+import javax.persistence.*;
+
+/**
+ * Represents the version of an entity type shared by all instances of the application.
+ * The version is incremented by every write to the entities and determines their ETags; an instance
+ * noticing a version it has not written itself evicts its local caches of the entities
+ * (see EntityVersions and CacheInvalidation).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Entity
+@Table(name = "cache_version")
+public class CacheVersion {
+
+    /**
+     * The name of the cached data, e.g. golf_courses.
+     */
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    /**
+     * The number of writes to the cached data.
+     */
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Creates an empty CacheVersion, required by JPA.
+     */
+    protected CacheVersion() {
+    }
+
+    /**
+     * Creates a CacheVersion.
+     *
+     * @param name    the name of the cached data
+     * @param version the initial version
+     */
+    public CacheVersion(String name, long version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    /**
+     * Gets the name of the cached data.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of writes to the cached data.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+}
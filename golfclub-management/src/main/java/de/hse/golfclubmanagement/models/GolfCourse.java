@@ -12,23 +12,46 @@
  */
 package de.hse.golfclubmanagement.models;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.List;
 
 /**
  * This class represents a DAO model for storing golf courts
  * in a data base including a list of lanes.
+ * Golf courses and their holes rarely change but are read on nearly every request,
+ * so they are kept in the second level cache (see SecondLevelCacheConfiguration).
  * @author  Dennis Grewe
  * @since   0.1
  */
 @Entity
+@Table(indexes = @Index(name = "idx_golf_course_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = GolfCourse.CACHE_REGION)
 public class GolfCourse {
 
+    /**
+     * The second level cache region of the GolfCourse entities.
+     */
+    public static final String CACHE_REGION = "golfCourses";
+
+    /**
+     * The second level cache region of the hole ids of every GolfCourse.
+     */
+    public static final String HOLES_CACHE_REGION = "golfCourseHoles";
+
     /**
      * Unique identifier for each golf course.
+     * Generated from a pooled sequence, which keeps inserts batchable.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "golf_course_seq")
+    @SequenceGenerator(name = "golf_course_seq", sequenceName = "golf_course_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -44,10 +67,37 @@ public class GolfCourse {
      /**
      * The list of holes (Bahnen) associated with this Golfplatz.
      * Each hole is an instance of the Hole class.
+     * Holes of several courses are initialized together in batches to avoid
+     * one extra query per course when they are accessed lazily.
+     * The ids of the holes are cached per course, the holes themselves in the region of Hole.
      */
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "golfcourse")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = GolfCourse.HOLES_CACHE_REGION)
+    @JsonManagedReference
     private List<Hole> holes;
 
+    /**
+     * The number of holes of the golf course.
+     * Like the totals below, it is maintained when the holes are written
+     * (see {@link #updateAggregates()} and GolfCourseService), so summaries
+     * do not need to load the holes.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int holeCount;
+
+    /**
+     * The sum of the par values of all holes.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int totalPar;
+
+    /**
+     * The sum of the lengths of all holes in meters.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int totalLength;
+
     // ####################
     // Getters and setters
 
@@ -122,4 +172,64 @@ public class GolfCourse {
     public void setHoles(List<Hole> holes) {
         this.holes = holes;
     }
+
+    /**
+     * Gets the number of holes of the golf course.
+     *
+     * @return the number of holes
+     */
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    /**
+     * Gets the sum of the par values of all holes.
+     *
+     * @return the total par of the golf course
+     */
+    public int getTotalPar() {
+        return totalPar;
+    }
+
+    /**
+     * Gets the sum of the lengths of all holes in meters.
+     *
+     * @return the total length of the golf course
+     */
+    public int getTotalLength() {
+        return totalLength;
+    }
+
+    /**
+     * Calculates the number of holes, the total par and the total length from the holes of this golf course.
+     * Called before a new golf course is inserted; updates of existing golf courses recalculate the
+     * values from the database instead, as it may contain holes that are not part of the list.
+     */
+    @PrePersist
+    public void updateAggregates() {
+        int count = 0;
+        int par = 0;
+        int length = 0;
+        if (holes != null) {
+            for (Hole hole : holes) {
+                count++;
+                par += hole.getPar();
+                length += hole.getLength();
+            }
+        }
+        setAggregates(count, par, length);
+    }
+
+    /**
+     * Sets the number of holes, the total par and the total length of this golf course.
+     *
+     * @param holeCount   the number of holes
+     * @param totalPar    the sum of the par values of all holes
+     * @param totalLength the sum of the lengths of all holes in meters
+     */
+    public void setAggregates(int holeCount, int totalPar, int totalLength) {
+        this.holeCount = holeCount;
+        this.totalPar = totalPar;
+        this.totalLength = totalLength;
+    }
 }
@@ -13,6 +13,10 @@
  */
 package de.hse.golfclubmanagement.models;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 /**
@@ -22,13 +26,21 @@ import javax.persistence.*;
  * @since   0.1
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Hole.CACHE_REGION)
 public class Hole {
 
+    /**
+     * The second level cache region of the Hole entities.
+     */
+    public static final String CACHE_REGION = "holes";
+
     /**
      * Unique identifier for each hole.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hole_seq")
+    @SequenceGenerator(name = "hole_seq", sequenceName = "hole_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -48,8 +60,11 @@ public class Hole {
 
     /**
      * The golf course (Golfplatz) to which this hole (Bahn) belongs.
+     * Not serialized to avoid the cycle GolfCourse -> Hole -> GolfCourse;
+     * it is set from the enclosing golf course on deserialization instead.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonBackReference
     @JoinColumn(name = "golfcourse_id")
     private GolfCourse golfcourse;
 
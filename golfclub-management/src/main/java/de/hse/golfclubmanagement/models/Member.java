@@ -21,13 +21,16 @@ import javax.persistence.*;
  * @since   0.1
  */
 @Entity
+@Table(indexes = @Index(name = "idx_member_name", columnList = "name"))
 public class Member {
 
     /**
      * Unique identifier for each Member.
+     * Taken from a pooled sequence, so that Hibernate can batch inserts.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
     private Long id;
 
     /**
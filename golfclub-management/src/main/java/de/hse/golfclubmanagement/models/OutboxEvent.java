@@ -0,0 +1,306 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.models;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Represents a notification waiting to be delivered to the notification-service (transactional outbox).
+ * An OutboxEvent is written in the same transaction as the entity it reports on and is delivered
+ * in the background afterwards, so the write does not wait for the notification-service.
+ * An event without user id is addressed to all members and is split into one event per member
+ * before delivery, page by page in separate transactions.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_due", columnList = "status, next_attempt_at"))
+public class OutboxEvent {
+
+    /**
+     * The delivery state of an OutboxEvent.
+     */
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+
+    /**
+     * Unique identifier for each OutboxEvent, also defining the delivery order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The kind of change that caused the notification (e.g., MEMBER_ADDED).
+     */
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    /**
+     * The id of the member to notify, or null to notify all members.
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * The id of the last member an event has been written for, while an event for all members is split up.
+     */
+    @Column(name = "fan_out_cursor")
+    private Long fanOutCursor;
+
+    /**
+     * The text of the notification.
+     */
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    /**
+     * The delivery state.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    /**
+     * The number of failed delivery attempts.
+     */
+    private int attempts;
+
+    /**
+     * The earliest time of the next delivery attempt.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "next_attempt_at", nullable = false)
+    private Date nextAttemptAt;
+
+    /**
+     * The time the event has been written.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    /**
+     * The time the event has been delivered.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "sent_at")
+    private Date sentAt;
+
+    /**
+     * The error of the last failed delivery attempt.
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * Gets the unique identifier for this OutboxEvent.
+     * 
+     * @return the id of the OutboxEvent
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier for this OutboxEvent.
+     * 
+     * @param id the id to set for the OutboxEvent
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the kind of change that caused the notification.
+     * 
+     * @return the event type
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Sets the kind of change that caused the notification.
+     * 
+     * @param eventType the event type
+     */
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    /**
+     * Gets the id of the member to notify.
+     * 
+     * @return the id of the member, or null to notify all members
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Sets the id of the member to notify.
+     * 
+     * @param userId the id of the member, or null to notify all members
+     */
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the id of the last member an event has been written for while splitting up this event.
+     * 
+     * @return the id of the member, or null if the split has not started
+     */
+    public Long getFanOutCursor() {
+        return fanOutCursor;
+    }
+
+    /**
+     * Sets the id of the last member an event has been written for while splitting up this event.
+     * 
+     * @param fanOutCursor the id of the member
+     */
+    public void setFanOutCursor(Long fanOutCursor) {
+        this.fanOutCursor = fanOutCursor;
+    }
+
+    /**
+     * Gets the text of the notification.
+     * 
+     * @return the text of the notification
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the text of the notification.
+     * 
+     * @param message the text of the notification
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the delivery state.
+     * 
+     * @return the delivery state
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the delivery state.
+     * 
+     * @param status the delivery state
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the number of failed delivery attempts.
+     * 
+     * @return the number of failed attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Sets the number of failed delivery attempts.
+     * 
+     * @param attempts the number of failed attempts
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Gets the earliest time of the next delivery attempt.
+     * 
+     * @return the time of the next attempt
+     */
+    public Date getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    /**
+     * Sets the earliest time of the next delivery attempt.
+     * 
+     * @param nextAttemptAt the time of the next attempt
+     */
+    public void setNextAttemptAt(Date nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    /**
+     * Gets the time the event has been written.
+     * 
+     * @return the creation time
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time the event has been written.
+     * 
+     * @param createdAt the creation time
+     */
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Gets the time the event has been delivered.
+     * 
+     * @return the delivery time, or null if not delivered yet
+     */
+    public Date getSentAt() {
+        return sentAt;
+    }
+
+    /**
+     * Sets the time the event has been delivered.
+     * 
+     * @param sentAt the delivery time
+     */
+    public void setSentAt(Date sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    /**
+     * Gets the error of the last failed delivery attempt.
+     * 
+     * @return the error, or null if no attempt has failed
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Sets the error of the last failed delivery attempt.
+     * 
+     * @param lastError the error
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,151 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.models;
+
+import javax.persistence.*;
+
+/**
+ * Represents the number of strokes a member (Member) needed on a single
+ * hole (Bahn) during a tournament (Tournament).
+ * There is at most one Score per tournament, member and hole; recording
+ * a hole again replaces the previous number of strokes.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_score_tournament_member_hole",
+        columnNames = {"tournament_id", "member_id", "hole_number"}),
+       indexes = @Index(name = "idx_score_member", columnList = "member_id"))
+public class Score {
+
+    /**
+     * Unique identifier for each Score.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "score_seq")
+    @SequenceGenerator(name = "score_seq", sequenceName = "score_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The id of the tournament in which the hole was played.
+     */
+    @Column(name = "tournament_id", nullable = false)
+    private Long tournamentId;
+
+    /**
+     * The id of the member who played the hole.
+     */
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    /**
+     * The number of the hole (Bahn) on the golf course of the tournament.
+     */
+    @Column(name = "hole_number", nullable = false)
+    private int holeNumber;
+
+    /**
+     * The number of strokes needed to complete the hole.
+     */
+    private int strokes;
+
+    /**
+     * Gets the unique identifier for this Score.
+     * 
+     * @return the id of the Score
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier for this Score.
+     * 
+     * @param id the id to set for the Score
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the id of the tournament in which the hole was played.
+     * 
+     * @return the id of the tournament
+     */
+    public Long getTournamentId() {
+        return tournamentId;
+    }
+
+    /**
+     * Sets the id of the tournament in which the hole was played.
+     * 
+     * @param tournamentId the id of the tournament
+     */
+    public void setTournamentId(Long tournamentId) {
+        this.tournamentId = tournamentId;
+    }
+
+    /**
+     * Gets the id of the member who played the hole.
+     * 
+     * @return the id of the member
+     */
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Sets the id of the member who played the hole.
+     * 
+     * @param memberId the id of the member
+     */
+    public void setMemberId(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    /**
+     * Gets the number of the played hole.
+     * 
+     * @return the number of the hole
+     */
+    public int getHoleNumber() {
+        return holeNumber;
+    }
+
+    /**
+     * Sets the number of the played hole.
+     * 
+     * @param holeNumber the number of the hole
+     */
+    public void setHoleNumber(int holeNumber) {
+        this.holeNumber = holeNumber;
+    }
+
+    /**
+     * Gets the number of strokes needed for the hole.
+     * 
+     * @return the number of strokes
+     */
+    public int getStrokes() {
+        return strokes;
+    }
+
+    /**
+     * Sets the number of strokes needed for the hole.
+     * 
+     * @param strokes the number of strokes
+     */
+    public void setStrokes(int strokes) {
+        this.strokes = strokes;
+    }
+}
@@ -0,0 +1,153 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.models;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Represents a booked tee time (Startzeit) of a member on a golf course.
+ * A day on a golf course is divided into fixed slots; each slot can be booked
+ * by exactly one member, which the unique constraint guarantees in the database.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Entity
+@Table(name = "tee_time_booking",
+       uniqueConstraints = @UniqueConstraint(name = "uk_tee_time_booking_slot",
+               columnNames = {"golfcourse_id", "date", "slot"}))
+public class TeeTimeBooking {
+
+    /**
+     * Unique identifier for each TeeTimeBooking.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tee_time_booking_seq")
+    @SequenceGenerator(name = "tee_time_booking_seq", sequenceName = "tee_time_booking_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The id of the booked golf course.
+     */
+    @Column(name = "golfcourse_id", nullable = false)
+    private Long golfCourseId;
+
+    /**
+     * The day of the tee time.
+     */
+    @Temporal(TemporalType.DATE)
+    @Column(nullable = false)
+    private Date date;
+
+    /**
+     * The index of the tee time slot within the day, starting at 0 for the first tee time.
+     */
+    @Column(nullable = false)
+    private int slot;
+
+    /**
+     * The id of the member who booked the tee time.
+     */
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    /**
+     * Gets the unique identifier for this TeeTimeBooking.
+     * 
+     * @return the id of the TeeTimeBooking
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier for this TeeTimeBooking.
+     * 
+     * @param id the id to set for the TeeTimeBooking
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the id of the booked golf course.
+     * 
+     * @return the id of the golf course
+     */
+    public Long getGolfCourseId() {
+        return golfCourseId;
+    }
+
+    /**
+     * Sets the id of the booked golf course.
+     * 
+     * @param golfCourseId the id of the golf course
+     */
+    public void setGolfCourseId(Long golfCourseId) {
+        this.golfCourseId = golfCourseId;
+    }
+
+    /**
+     * Gets the day of the tee time.
+     * 
+     * @return the day of the tee time
+     */
+    public Date getDate() {
+        return date;
+    }
+
+    /**
+     * Sets the day of the tee time.
+     * 
+     * @param date the day of the tee time
+     */
+    public void setDate(Date date) {
+        this.date = date;
+    }
+
+    /**
+     * Gets the index of the tee time slot within the day.
+     * 
+     * @return the index of the slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Sets the index of the tee time slot within the day.
+     * 
+     * @param slot the index of the slot
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Gets the id of the member who booked the tee time.
+     * 
+     * @return the id of the member
+     */
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    /**
+     * Sets the id of the member who booked the tee time.
+     * 
+     * @param memberId the id of the member
+     */
+    public void setMemberId(Long memberId) {
+        this.memberId = memberId;
+    }
+}
@@ -22,13 +22,18 @@ import java.util.Date;
  * @since   0.1
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_tournament_name", columnList = "name"),
+    @Index(name = "idx_tournament_date", columnList = "date")
+})
 public class Tournament {
 
     /**
      * Unique identifier for each Tournament.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tournament_seq")
+    @SequenceGenerator(name = "tournament_seq", sequenceName = "tournament_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -42,6 +47,13 @@ public class Tournament {
     @Temporal(TemporalType.DATE)
     private Date date;
 
+    /**
+     * The id of the golf course on which the tournament is played.
+     * Its holes define the par used for the leaderboard.
+     */
+    @Column(name = "golfcourse_id")
+    private Long golfCourseId;
+
     /**
      * Gets the unique identifier for this Tournament.
      * 
@@ -95,4 +107,22 @@ public class Tournament {
     public void setDate(Date date) {
         this.date = date;
     }
+
+    /**
+     * Gets the id of the golf course on which the Tournament is played.
+     * 
+     * @return the id of the golf course, or null if not assigned
+     */
+    public Long getGolfCourseId() {
+        return golfCourseId;
+    }
+
+    /**
+     * Sets the id of the golf course on which the Tournament is played.
+     * 
+     * @param golfCourseId the id of the golf course
+     */
+    public void setGolfCourseId(Long golfCourseId) {
+        this.golfCourseId = golfCourseId;
+    }
 }
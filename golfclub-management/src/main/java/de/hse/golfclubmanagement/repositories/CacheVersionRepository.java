@@ -0,0 +1,48 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import de.hse.golfclubmanagement.models.CacheVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for CacheVersion entity.
+ * Provides CRUD operations for CacheVersion and allows defining custom queries.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    /**
+     * Increments the version of the given cached data.
+     * The row stays locked until the end of the transaction, so concurrent writers are serialized.
+     *
+     * @param name the name of the cached data
+     * @return the number of updated rows, 0 if the version does not exist yet
+     */
+    @Modifying
+    @Query("update CacheVersion v set v.version = v.version + 1 where v.name = :name")
+    int increment(@Param("name") String name);
+
+    /**
+     * Retrieves the version of the given cached data.
+     *
+     * @param name the name of the cached data
+     * @return the version, or null if it does not exist yet
+     */
+    @Query("select v.version from CacheVersion v where v.name = :name")
+    Long findVersion(@Param("name") String name);
+}
@@ -12,8 +12,24 @@
  */
 package de.hse.golfclubmanagement.repositories;
 
+import de.hse.golfclubmanagement.dto.GolfCourseSummary;
 import de.hse.golfclubmanagement.models.GolfCourse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Repository interface for GolfCourse entity.
@@ -21,13 +37,99 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author  Dennis Grewe
  * @since   0.1
  */
-public interface GolfCourseRepository extends JpaRepository<GolfCourse, Long> {
+public interface GolfCourseRepository extends JpaRepository<GolfCourse, Long>, SparseFieldsRepository<GolfCourse> {
+
+    /**
+     * The query cache region of the findByName lookups.
+     */
+    String QUERY_CACHE_REGION = "golfCourseQueries";
 
     /**
      * Finds a GolfCourse by its name.
+     * The holes of the GolfCourse are fetched within the same query. The result is kept in the
+     * query cache: a repeated lookup resolves the id from the cache and loads the GolfCourse from
+     * the second level cache, without querying the database. Writes to the golf_course or hole
+     * tables invalidate the cached results.
      * 
      * @param name the name of the GolfCourse to find
      * @return the GolfCourse with the specified name, or null if none found
      */
+    @QueryHints({
+        @QueryHint(name = HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @EntityGraph(attributePaths = "holes")
     GolfCourse findByName(String name);
+
+    /**
+     * Retrieves all GolfCourse entities together with their holes in a single query.
+     *
+     * @return all GolfCourse entities with initialized holes, ordered by id
+     */
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @EntityGraph(attributePaths = "holes")
+    @Query("select distinct g from GolfCourse g order by g.id")
+    List<GolfCourse> findAllWithHoles();
+
+    /**
+     * Finds the next page of GolfCourse entities after the given id (keyset pagination).
+     * The lookup uses the primary key index, so the cost of a page does not grow
+     * with its position in the table as an OFFSET based page would.
+     *
+     * @param afterId  the id of the last GolfCourse of the previous page (exclusive)
+     * @param pageable the page size, always requested as page 0
+     * @return the GolfCourse entities with an id greater than afterId, ordered by id
+     */
+    List<GolfCourse> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Streams all GolfCourse entities ordered by id.
+     * The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @return a stream over all GolfCourse entities
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select g from GolfCourse g order by g.id")
+    Stream<GolfCourse> streamAll();
+
+    /**
+     * Retrieves the id and name of all GolfCourse entities without loading the entities.
+     *
+     * @return the id and name of every GolfCourse
+     */
+    @Query("select g.id as id, g.name as name from GolfCourse g")
+    List<NameView> findAllNames();
+
+    /**
+     * Retrieves the summaries of all GolfCourse entities from their aggregate columns, ordered by id.
+     * The holes are not loaded.
+     *
+     * @return the summaries of all GolfCourse entities
+     */
+    @Query("select new de.hse.golfclubmanagement.dto.GolfCourseSummary(g.id, g.name, g.location, g.holeCount, g.totalPar, g.totalLength) "
+            + "from GolfCourse g order by g.id")
+    List<GolfCourseSummary> findAllSummaries();
+
+    /**
+     * Calculates the number of holes, the total par and the total length of the given GolfCourse.
+     *
+     * @param golfCourseId the id of the GolfCourse
+     * @return the totals over the holes, or null if the GolfCourse has no holes
+     */
+    @Query("select h.golfcourse.id as golfCourseId, count(h) as holeCount, sum(h.par) as totalPar, sum(h.length) as totalLength "
+            + "from Hole h where h.golfcourse.id = :golfCourseId group by h.golfcourse.id")
+    HoleTotalsView findHoleTotals(@Param("golfCourseId") Long golfCourseId);
+
+    /**
+     * Calculates the totals over the holes of every GolfCourse that has holes but no hole count,
+     * e.g. rows written before the aggregate columns existed.
+     *
+     * @return the totals over the holes per GolfCourse with missing aggregates
+     */
+    @Query("select h.golfcourse.id as golfCourseId, count(h) as holeCount, sum(h.par) as totalPar, sum(h.length) as totalLength "
+            + "from Hole h where h.golfcourse.holeCount = 0 group by h.golfcourse.id")
+    List<HoleTotalsView> findMissingHoleTotals();
 }
@@ -0,0 +1,50 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+/**
+ * Projection of the totals over the holes of a golf course, calculated by the database.
+ * Used to maintain the aggregate columns of GolfCourse.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface HoleTotalsView {
+
+    /**
+     * Gets the id of the golf course.
+     *
+     * @return the id of the golf course
+     */
+    Long getGolfCourseId();
+
+    /**
+     * Gets the number of holes of the golf course.
+     *
+     * @return the number of holes
+     */
+    Long getHoleCount();
+
+    /**
+     * Gets the sum of the par values of all holes of the golf course.
+     *
+     * @return the total par
+     */
+    Long getTotalPar();
+
+    /**
+     * Gets the sum of the lengths of all holes of the golf course in meters.
+     *
+     * @return the total length
+     */
+    Long getTotalLength();
+}
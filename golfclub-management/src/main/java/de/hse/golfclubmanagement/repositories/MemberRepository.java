@@ -13,7 +13,18 @@
 package de.hse.golfclubmanagement.repositories;
 
 import de.hse.golfclubmanagement.models.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Repository interface for Member entity.
@@ -21,7 +32,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author  Dennis Grewe
  * @since   0.1
  */
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, SparseFieldsRepository<Member> {
 
     /**
      * Finds a Member by their name.
@@ -30,4 +41,54 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
      * @return the Member with the specified name, or null if none found
      */
     Member findByName(String name);
+
+    /**
+     * Finds the next page of Member entities after the given id (keyset pagination).
+     * The lookup uses the primary key index, so the cost of a page does not grow
+     * with its position in the table as an OFFSET based page would.
+     *
+     * @param afterId  the id of the last Member of the previous page (exclusive)
+     * @param pageable the page size, always requested as page 0
+     * @return the Member entities with an id greater than afterId, ordered by id
+     */
+    List<Member> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Streams all Member entities ordered by id.
+     * The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @return a stream over all Member entities
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select m from Member m order by m.id")
+    Stream<Member> streamAll();
+
+    /**
+     * Retrieves the id and name of all Member entities without loading the entities.
+     *
+     * @return the id and name of every Member
+     */
+    @Query("select m.id as id, m.name as name from Member m")
+    List<NameView> findAllNames();
+
+    /**
+     * Retrieves the id and handicap of all Member entities ordered by id.
+     *
+     * @return the id and handicap of every Member
+     */
+    @Query("select m.id as id, m.handicap as handicap from Member m order by m.id")
+    List<HandicapView> findAllHandicaps();
+
+    /**
+     * Retrieves the ids of the Member entities following the given id, ordered by id.
+     *
+     * @param after    the id after which the ids are retrieved
+     * @param pageable the maximum number of ids, always requested as page 0
+     * @return the ids of the following Member entities
+     */
+    @Query("select m.id from Member m where m.id > :after order by m.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
 }
@@ -0,0 +1,36 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+/**
+ * Projection selecting only the id and the name of an entity.
+ * Used to build in-memory name indexes without loading full entities.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface NameView {
+
+    /**
+     * Gets the id of the entity.
+     *
+     * @return the id of the entity
+     */
+    Long getId();
+
+    /**
+     * Gets the name of the entity.
+     *
+     * @return the name of the entity
+     */
+    String getName();
+}
@@ -0,0 +1,62 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import de.hse.golfclubmanagement.models.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity.
+ * Provides CRUD operations for OutboxEvent and allows defining custom queries.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds and locks the pending events that are due for delivery, oldest first.
+     * Rows locked by another instance are skipped (SKIP LOCKED where the database supports it),
+     * so several instances can dispatch concurrently without delivering an event twice.
+     *
+     * @param now      the current time
+     * @param pageable the maximum number of events, always requested as page 0
+     * @return the due events
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = de.hse.golfclubmanagement.models.OutboxEvent$Status.PENDING "
+            + "and e.nextAttemptAt <= :now order by e.id")
+    List<OutboxEvent> lockDueEvents(@Param("now") Date now, Pageable pageable);
+
+    /**
+     * Deletes delivered events sent before the given time.
+     *
+     * @param before the time before which delivered events are deleted
+     * @return the number of deleted events
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = de.hse.golfclubmanagement.models.OutboxEvent$Status.SENT "
+            + "and e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Date before);
+}
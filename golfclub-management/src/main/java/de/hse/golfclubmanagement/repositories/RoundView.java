@@ -0,0 +1,49 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+/**
+ * Projection summarizing the scores of one member in one tournament (a round).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface RoundView {
+
+    /**
+     * Gets the id of the member who played the round.
+     *
+     * @return the id of the member
+     */
+    Long getMemberId();
+
+    /**
+     * Gets the id of the tournament in which the round was played.
+     *
+     * @return the id of the tournament
+     */
+    Long getTournamentId();
+
+    /**
+     * Gets the total number of strokes of the recorded holes.
+     *
+     * @return the total number of strokes
+     */
+    Long getStrokes();
+
+    /**
+     * Gets the number of recorded holes.
+     *
+     * @return the number of recorded holes
+     */
+    Long getHoles();
+}
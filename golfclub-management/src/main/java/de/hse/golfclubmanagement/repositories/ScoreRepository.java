@@ -0,0 +1,58 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import de.hse.golfclubmanagement.models.Score;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository interface for Score entity.
+ * Provides CRUD operations for Score and allows defining custom queries.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface ScoreRepository extends JpaRepository<Score, Long> {
+
+    /**
+     * Finds the Score of a member on a hole in a tournament.
+     *
+     * @param tournamentId the id of the tournament
+     * @param memberId     the id of the member
+     * @param holeNumber   the number of the hole
+     * @return the Score, or null if the hole has not been recorded yet
+     */
+    Score findByTournamentIdAndMemberIdAndHoleNumber(Long tournamentId, Long memberId, int holeNumber);
+
+    /**
+     * Finds all Scores recorded in a tournament.
+     *
+     * @param tournamentId the id of the tournament
+     * @return the Scores of all participants of the tournament
+     */
+    List<Score> findByTournamentId(Long tournamentId);
+
+    /**
+     * Sums up the recorded holes per member and tournament for a range of member ids.
+     *
+     * @param fromId the lowest member id (inclusive)
+     * @param toId   the highest member id (inclusive)
+     * @return one round per member and tournament
+     */
+    @Query("select s.memberId as memberId, s.tournamentId as tournamentId, sum(s.strokes) as strokes, count(s) as holes "
+            + "from Score s where s.memberId between :fromId and :toId group by s.memberId, s.tournamentId")
+    List<RoundView> findRoundsByMemberIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
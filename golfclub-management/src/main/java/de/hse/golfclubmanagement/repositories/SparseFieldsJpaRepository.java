@@ -0,0 +1,227 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.Type;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+/**
+ * Base class of all repositories (see RepositoryConfiguration), implementing
+ * {@link SparseFieldsRepository} with criteria tuple queries built from the JPA metamodel.
+ *
+ * @param <T>  the entity type
+ * @param <ID> the id type
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class SparseFieldsJpaRepository<T, ID> extends SimpleJpaRepository<T, ID>
+        implements SparseFieldsRepository<T> {
+
+    /**
+     * The maximum number of owner ids per query loading the elements of a collection.
+     */
+    private static final int COLLECTION_CHUNK_SIZE = 1000;
+
+    private static final String NAME_ATTRIBUTE = "name";
+
+    private final EntityManager entityManager;
+
+    private final Class<T> domainClass;
+
+    private final String idAttribute;
+
+    /**
+     * The selectable basic attributes and collections of entities by name.
+     */
+    private final Map<String, Attribute<? super T, ?>> selectableAttributes = new HashMap<>();
+
+    /**
+     * Creates a new repository.
+     *
+     * @param entityInformation the information about the entity type
+     * @param entityManager     the entity manager
+     */
+    public SparseFieldsJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+        this.domainClass = entityInformation.getJavaType();
+        this.idAttribute = entityInformation.getIdAttribute() != null ? entityInformation.getIdAttribute().getName() : null;
+        EntityType<T> entityType = entityManager.getMetamodel().entity(domainClass);
+        for (Attribute<? super T, ?> attribute : entityType.getAttributes()) {
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+                    || isEntityCollection(attribute)) {
+                selectableAttributes.put(attribute.getName(), attribute);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getSelectableFields() {
+        return Collections.unmodifiableSet(new TreeSet<>(selectableAttributes.keySet()));
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllFields(List<String> fields) {
+        return select(fields, null, 0);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsByName(String name, List<String> fields) {
+        List<Map<String, Object>> rows = select(fields, (builder, root) -> builder.equal(root.get(NAME_ATTRIBUTE), name), 1);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Long afterId, int limit, List<String> fields) {
+        return select(fields, (builder, root) -> builder.greaterThan(root.get(idAttribute), afterId), limit);
+    }
+
+    private List<Map<String, Object>> select(List<String> fields,
+                                             BiFunction<CriteriaBuilder, Root<T>, Predicate> restriction,
+                                             int maxResults) {
+        List<String> columns = new ArrayList<>();
+        List<String> collections = new ArrayList<>();
+        columns.add(idAttribute);
+        for (String field : fields) {
+            Attribute<? super T, ?> attribute = selectableAttributes.get(field);
+            if (attribute == null) {
+                throw new IllegalArgumentException("Unknown field '" + field + "', expected one of " + getSelectableFields());
+            }
+            if (columns.contains(field) || collections.contains(field)) {
+                continue;
+            }
+            (isEntityCollection(attribute) ? collections : columns).add(field);
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(domainClass);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            selections.add(root.get(column).alias(column));
+        }
+        query.multiselect(selections).orderBy(builder.asc(root.get(idAttribute)));
+        if (restriction != null) {
+            query.where(restriction.apply(builder, root));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (maxResults > 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+
+        Map<Object, Map<String, Object>> rowsById = new LinkedHashMap<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) {
+                row.put(column, tuple.get(column));
+            }
+            rowsById.put(row.get(idAttribute), row);
+        }
+        for (String collection : collections) {
+            selectCollection(collection, rowsById);
+        }
+        return new ArrayList<>(rowsById.values());
+    }
+
+    /**
+     * Loads the basic attributes of the elements of the given collection for all rows.
+     */
+    private void selectCollection(String collection, Map<Object, Map<String, Object>> rowsById) {
+        for (Map<String, Object> row : rowsById.values()) {
+            row.put(collection, new ArrayList<Map<String, Object>>());
+        }
+        PluralAttribute<? super T, ?, ?> attribute = (PluralAttribute<? super T, ?, ?>) selectableAttributes.get(collection);
+        ManagedType<?> elementType = (ManagedType<?>) attribute.getElementType();
+        List<String> elementColumns = new ArrayList<>();
+        for (Attribute<?, ?> elementAttribute : elementType.getAttributes()) {
+            if (elementAttribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                elementColumns.add(elementAttribute.getName());
+            }
+        }
+        elementColumns.sort(Comparator.comparingInt(column -> declarationIndex(elementType.getJavaType(), column)));
+        String elementId = elementColumns.contains(idAttribute) ? idAttribute : elementColumns.get(0);
+        String ownerAlias = "owner";
+
+        List<Object> ids = new ArrayList<>(rowsById.keySet());
+        for (int from = 0; from < ids.size(); from += COLLECTION_CHUNK_SIZE) {
+            List<Object> chunk = ids.subList(from, Math.min(from + COLLECTION_CHUNK_SIZE, ids.size()));
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> query = builder.createTupleQuery();
+            Root<T> root = query.from(domainClass);
+            Join<T, ?> element = root.join(collection);
+            List<Selection<?>> selections = new ArrayList<>(elementColumns.size() + 1);
+            selections.add(root.get(idAttribute).alias(ownerAlias));
+            for (String column : elementColumns) {
+                selections.add(element.get(column).alias(column));
+            }
+            query.multiselect(selections)
+                    .where(root.get(idAttribute).in(chunk))
+                    .orderBy(builder.asc(root.get(idAttribute)), builder.asc(element.get(elementId)));
+            for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+                Map<String, Object> elementRow = new LinkedHashMap<>();
+                for (String column : elementColumns) {
+                    elementRow.put(column, tuple.get(column));
+                }
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> elements = (List<Map<String, Object>>) rowsById.get(tuple.get(ownerAlias)).get(collection);
+                elements.add(elementRow);
+            }
+        }
+    }
+
+    /**
+     * Gets the position of the field within the declaration of the class, so the
+     * elements are serialized with the properties in the same order as entities.
+     */
+    private static int declarationIndex(Class<?> type, String fieldName) {
+        Field[] fields = type.getDeclaredFields();
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].getName().equals(fieldName)) {
+                return i;
+            }
+        }
+        return fields.length;
+    }
+
+    private static boolean isEntityCollection(Attribute<?, ?> attribute) {
+        return attribute.isCollection()
+                && ((PluralAttribute<?, ?, ?>) attribute).getElementType().getPersistenceType() == Type.PersistenceType.ENTITY;
+    }
+}
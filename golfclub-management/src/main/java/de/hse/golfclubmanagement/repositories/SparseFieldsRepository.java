@@ -0,0 +1,74 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Repository fragment selecting only some fields of an entity (sparse fieldsets).
+ * The fields are read with tuple queries, so no entities are loaded into the persistence
+ * context; every row is returned as map from field name to value, starting with the id.
+ * Basic attributes are selected as columns, collections of entities (e.g. the holes of a
+ * golf course) with one additional query per 1000 rows.
+ * Implemented for all repositories by {@link SparseFieldsJpaRepository}.
+ *
+ * @param <T> the entity type
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@NoRepositoryBean
+public interface SparseFieldsRepository<T> {
+
+    /**
+     * Gets the names of the fields that can be selected.
+     *
+     * @return the names of the selectable fields, sorted by name
+     */
+    Set<String> getSelectableFields();
+
+    /**
+     * Retrieves the given fields of all entities.
+     *
+     * @param fields the names of the fields to select, the id is always selected
+     * @return one row per entity, ordered by id
+     * @throws IllegalArgumentException if a field cannot be selected
+     */
+    List<Map<String, Object>> findAllFields(List<String> fields);
+
+    /**
+     * Retrieves the given fields of the entity with the given name.
+     * If several entities have the same name, the one with the lowest id is returned.
+     *
+     * @param name   the name of the entity
+     * @param fields the names of the fields to select, the id is always selected
+     * @return the row of the entity, or empty if none has the name
+     * @throws IllegalArgumentException if a field cannot be selected
+     */
+    Optional<Map<String, Object>> findFieldsByName(String name, List<String> fields);
+
+    /**
+     * Retrieves the given fields of the next page of entities after the given id (keyset pagination).
+     *
+     * @param afterId the id of the last entity of the previous page (exclusive)
+     * @param limit   the maximum number of rows
+     * @param fields  the names of the fields to select, the id is always selected
+     * @return one row per entity with an id greater than afterId, ordered by id
+     * @throws IllegalArgumentException if a field cannot be selected
+     */
+    List<Map<String, Object>> findFieldsAfter(Long afterId, int limit, List<String> fields);
+}
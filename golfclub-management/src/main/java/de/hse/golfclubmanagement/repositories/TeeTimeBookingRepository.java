@@ -0,0 +1,55 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import de.hse.golfclubmanagement.models.TeeTimeBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository interface for TeeTimeBooking entity.
+ * Provides CRUD operations for TeeTimeBooking and allows defining custom queries.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface TeeTimeBookingRepository extends JpaRepository<TeeTimeBooking, Long> {
+
+    /**
+     * Finds all bookings of a golf course on a day.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @return the bookings of the day
+     */
+    List<TeeTimeBooking> findByGolfCourseIdAndDate(Long golfCourseId, Date date);
+
+    /**
+     * Deletes the booking of a tee time slot.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @param slot         the index of the slot
+     * @param memberId     the id of the member who booked the slot
+     * @return the number of deleted bookings
+     */
+    @Modifying
+    @Query("delete from TeeTimeBooking b where b.golfCourseId = :golfCourseId and b.date = :date "
+            + "and b.slot = :slot and b.memberId = :memberId")
+    int deleteBooking(@Param("golfCourseId") Long golfCourseId, @Param("date") Date date,
+                      @Param("slot") int slot, @Param("memberId") Long memberId);
+}
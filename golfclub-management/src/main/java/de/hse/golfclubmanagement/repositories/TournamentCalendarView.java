@@ -0,0 +1,51 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import java.util.Date;
+
+/**
+ * Projection of a tournament as entry of the club calendar, including the name of its golf course.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface TournamentCalendarView {
+
+    /**
+     * Gets the id of the tournament.
+     *
+     * @return the id of the tournament
+     */
+    Long getId();
+
+    /**
+     * Gets the name of the tournament.
+     *
+     * @return the name of the tournament
+     */
+    String getName();
+
+    /**
+     * Gets the date of the tournament.
+     *
+     * @return the date of the tournament
+     */
+    Date getDate();
+
+    /**
+     * Gets the name of the golf course on which the tournament is played.
+     *
+     * @return the name of the golf course, or null if no golf course is assigned
+     */
+    String getGolfCourseName();
+}
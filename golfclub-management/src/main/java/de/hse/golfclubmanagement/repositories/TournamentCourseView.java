@@ -0,0 +1,58 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import java.util.Date;
+
+/**
+ * Projection combining a tournament with the totals of the holes of its golf course.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public interface TournamentCourseView {
+
+    /**
+     * Gets the id of the tournament.
+     *
+     * @return the id of the tournament
+     */
+    Long getTournamentId();
+
+    /**
+     * Gets the date of the tournament.
+     *
+     * @return the date of the tournament
+     */
+    Date getDate();
+
+    /**
+     * Gets the sum of the par values of all holes of the golf course.
+     *
+     * @return the total par of the golf course
+     */
+    Long getPar();
+
+    /**
+     * Gets the sum of the lengths of all holes of the golf course in meters.
+     *
+     * @return the total length of the golf course
+     */
+    Long getLength();
+
+    /**
+     * Gets the number of holes of the golf course.
+     *
+     * @return the number of holes
+     */
+    Long getHoles();
+}
@@ -13,7 +13,19 @@
 package de.hse.golfclubmanagement.repositories;
 
 import de.hse.golfclubmanagement.models.Tournament;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Repository interface for Tournament entity.
@@ -21,7 +33,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * @author  Dennis Grewe
  * @since   0.1
  */
-public interface TournamentRepository extends JpaRepository<Tournament, Long> {
+public interface TournamentRepository extends JpaRepository<Tournament, Long>, SparseFieldsRepository<Tournament> {
 
     /**
      * Finds a Tournament by its name.
@@ -30,4 +42,84 @@ public interface TournamentRepository extends JpaRepository<Tournament, Long> {
      * @return the Tournament with the specified name, or null if none found
      */
     Tournament findByName(String name);
+
+    /**
+     * Finds the next page of Tournament entities after the given id (keyset pagination).
+     * The lookup uses the primary key index, so the cost of a page does not grow
+     * with its position in the table as an OFFSET based page would.
+     *
+     * @param afterId  the id of the last Tournament of the previous page (exclusive)
+     * @param pageable the page size, always requested as page 0
+     * @return the Tournament entities with an id greater than afterId, ordered by id
+     */
+    List<Tournament> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the Tournament entities taking place within the given date range.
+     * The range is looked up in the index on the date.
+     *
+     * @param from the first day of the range (inclusive)
+     * @param to   the end of the range (exclusive)
+     * @return the Tournament entities ordered by date and id
+     */
+    @Query("select t from Tournament t where t.date >= :from and t.date < :to order by t.date, t.id")
+    List<Tournament> findByDateRange(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Finds the next Tournament entities taking place on or after the given day.
+     *
+     * @param from     the first day (inclusive)
+     * @param pageable the number of Tournament entities to return, always requested as page 0
+     * @return the Tournament entities ordered by date and id
+     */
+    List<Tournament> findByDateGreaterThanEqualOrderByDateAscIdAsc(Date from, Pageable pageable);
+
+    /**
+     * Streams the Tournament entities within the given date range together with the name of their golf course,
+     * e.g. to export the club calendar. The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @param from the first day of the range (inclusive)
+     * @param to   the end of the range (exclusive)
+     * @return a stream over the calendar entries ordered by date and id
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t.id as id, t.name as name, t.date as date, g.name as golfCourseName "
+            + "from Tournament t left join GolfCourse g on g.id = t.golfCourseId "
+            + "where t.date >= :from and t.date < :to order by t.date, t.id")
+    Stream<TournamentCalendarView> streamCalendar(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Streams all Tournament entities ordered by id.
+     * The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @return a stream over all Tournament entities
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t from Tournament t order by t.id")
+    Stream<Tournament> streamAll();
+
+    /**
+     * Retrieves the id and name of all Tournament entities without loading the entities.
+     *
+     * @return the id and name of every Tournament
+     */
+    @Query("select t.id as id, t.name as name from Tournament t")
+    List<NameView> findAllNames();
+
+    /**
+     * Retrieves every Tournament that has a golf course with holes together with the
+     * total par, total length and number of holes of that golf course.
+     * The totals are read from the aggregate columns of the golf course.
+     *
+     * @return the golf course totals per Tournament
+     */
+    @Query("select t.id as tournamentId, t.date as date, g.totalPar as par, g.totalLength as length, g.holeCount as holes "
+            + "from Tournament t, GolfCourse g where g.id = t.golfCourseId and g.holeCount > 0")
+    List<TournamentCourseView> findCourseTotals();
 }
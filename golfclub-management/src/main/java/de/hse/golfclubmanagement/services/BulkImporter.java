@@ -0,0 +1,94 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Persists large amounts of entities in chunks.
+ * Every chunk is written in its own transaction and flushed as JDBC batch
+ * (see hibernate.jdbc.batch_size), after which the persistence context is
+ * cleared, so memory usage stays constant independent of the input size.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+public class BulkImporter {
+
+    /**
+     * The number of entities persisted within one transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates a new bulk importer.
+     *
+     * @param transactionManager the transaction manager used for the chunk transactions
+     */
+    public BulkImporter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Persists all entities provided by the given iterator.
+     * Entities are read lazily, so the iterator may be backed by a request stream.
+     *
+     * @param entities     the entities to persist
+     * @param onChunkSaved callback invoked with every committed chunk
+     * @param <T>          the entity type
+     * @return a summary with the number of persisted entities and the throughput
+     */
+    public <T> BulkImportResult importAll(Iterator<T> entities, Consumer<List<T>> onChunkSaved) {
+        long start = System.nanoTime();
+        long rows = 0;
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (entities.hasNext()) {
+            chunk.add(entities.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                rows += persistChunk(chunk, onChunkSaved);
+            }
+        }
+        rows += persistChunk(chunk, onChunkSaved);
+        return new BulkImportResult(rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private <T> int persistChunk(List<T> chunk, Consumer<List<T>> onChunkSaved) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        onChunkSaved.accept(chunk);
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+}
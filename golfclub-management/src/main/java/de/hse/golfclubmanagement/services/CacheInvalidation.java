@@ -0,0 +1,94 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Invalidates the local caches of an entity type when another instance of the application writes it.
+ * Every write increments the version of its entity type shared through the database (see EntityVersions).
+ * Once an instance notices that a version has been incremented by another instance, it evicts the caches
+ * of the type before the ETag of the type moves on: the membersByName cache for members, the
+ * tournamentsByName cache and the cached past months of the calendar (tournamentsByMonth) for tournaments
+ * and, for golf courses, the second level cache regions of golf courses and holes, the query cache of the
+ * name lookups and the golfCoursesByName cache.
+ * Writes of other instances are therefore visible after at most one poll interval
+ * (golfclub.versions.poll-interval-ms).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+public class CacheInvalidation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidation.class);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TournamentCalendarService tournamentCalendarService;
+
+    /**
+     * Evicts the local caches of an entity type after another instance has written it.
+     *
+     * @param event the write of another instance
+     */
+    @EventListener
+    public void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+        switch (event.getType()) {
+            case MEMBERS:
+                clear(CacheConfiguration.MEMBERS_BY_NAME);
+                break;
+            case TOURNAMENTS:
+                clear(CacheConfiguration.TOURNAMENTS_BY_NAME);
+                tournamentCalendarService.tournamentsChanged();
+                break;
+            case GOLF_COURSES:
+                evictGolfCourses();
+                break;
+        }
+        LOG.debug("Evicted the cached {} after a write of another instance", event.getType());
+    }
+
+    private void evictGolfCourses() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(GolfCourse.class);
+        cache.evictEntityData(Hole.class);
+        cache.evictCollectionData(GolfCourse.class.getName() + ".holes");
+        cache.evictQueryRegion(GolfCourseRepository.QUERY_CACHE_REGION);
+        clear(CacheConfiguration.GOLF_COURSES_BY_NAME);
+    }
+
+    private void clear(String cacheName) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,602 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.ChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the committed changes of members, golf courses and tournaments as server-sent events.
+ * The services publish an EntityChangedEvent with every write; it is received once the transaction
+ * has been committed, numbered and kept in a ring buffer of the last golfclub.changes.buffer-size events.
+ * A client reconnecting with a Last-Event-ID gets the events it has missed from the buffer, or a
+ * {@value #RESET_EVENT} event if they are no longer available (or the id stems from an earlier run of the
+ * application), after which it should reload its lists.
+ * <p>
+ * Subscribers are asynchronous requests that do not hold a thread while idle. A single thread numbers
+ * the events and adds them, in the order of their ids, to a queue per subscriber of at most
+ * golfclub.changes.subscriber-queue-size messages, which golfclub.changes.writer-threads threads write
+ * to the clients with non-blocking I/O: a writer only writes while the connection accepts data and
+ * continues once the client has read, so a slow client only delays itself. A client whose queue is full
+ * has fallen behind, and a client that has not accepted data for golfclub.changes.write-timeout-ms has
+ * stopped reading; both are disconnected and reconnect with their Last-Event-ID.
+ * A comment is sent to every subscriber every golfclub.changes.heartbeat-interval-ms to keep idle
+ * connections open and to detect closed ones.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+public class ChangeFeed implements SmartLifecycle {
+
+    /**
+     * The name of the event telling a client that it has missed events and should reload.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /**
+     * The name of the event carrying a change.
+     */
+    private static final String CHANGE_EVENT = "change";
+
+    private static final String CONTENT_TYPE = "text/event-stream;charset=UTF-8";
+
+    /**
+     * Stopped together with the graceful shutdown of the web server, which would otherwise wait for the
+     * open subscriptions until its timeout.
+     */
+    private static final int PHASE = Integer.MAX_VALUE;
+
+    /**
+     * Distinguishes the event ids of this run of the application from those of earlier runs.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final ChangeEvent[] buffer;
+
+    /**
+     * The sequence number of the latest event, guarded by this.
+     */
+    private long latestSequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final int maxSubscribers;
+
+    private final long timeoutMillis;
+
+    private final int subscriberQueueSize;
+
+    private final long writeTimeoutNanos;
+
+    /**
+     * Numbers the events and queues them for the subscribers, never blocks on a client.
+     */
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Writes the queued messages to the clients and disconnects the clients that stopped reading.
+     */
+    private final ScheduledExecutorService writers;
+
+    private final ObjectMapper objectMapper;
+
+    private final Counter published;
+
+    private final Counter dropped;
+
+    private volatile boolean running;
+
+    /**
+     * Creates the change feed.
+     *
+     * @param bufferSize          the number of events kept for reconnecting clients
+     * @param maxSubscribers      the maximum number of open subscriptions
+     * @param timeout             the time after which a subscription is closed; clients reconnect with their Last-Event-ID
+     * @param subscriberQueueSize the number of messages queued per subscriber before it is disconnected as too slow
+     * @param writeTimeoutMillis  the time a client may not accept data before it is disconnected
+     * @param writerThreads       the number of threads writing the messages to the clients
+     * @param objectMapper        the mapper used to serialize the events
+     * @param registry            the meter registry
+     */
+    public ChangeFeed(@Value("${golfclub.changes.buffer-size:1024}") int bufferSize,
+                      @Value("${golfclub.changes.max-subscribers:5000}") int maxSubscribers,
+                      @Value("${golfclub.changes.timeout:30m}") Duration timeout,
+                      @Value("${golfclub.changes.subscriber-queue-size:256}") int subscriberQueueSize,
+                      @Value("${golfclub.changes.write-timeout-ms:5000}") long writeTimeoutMillis,
+                      @Value("${golfclub.changes.writer-threads:4}") int writerThreads,
+                      ObjectMapper objectMapper, MeterRegistry registry) {
+        this.buffer = new ChangeEvent[Math.max(1, bufferSize)];
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.subscriberQueueSize = Math.max(1, subscriberQueueSize);
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        AtomicInteger writerNumber = new AtomicInteger();
+        this.writers = Executors.newScheduledThreadPool(Math.max(1, writerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-writer-" + writerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("golfclub.changes.published")
+                .description("Change events published to the subscribers")
+                .register(registry);
+        this.dropped = Counter.builder("golfclub.changes.dropped")
+                .description("Change feed subscriptions closed because the client fell behind or stopped reading")
+                .register(registry);
+        Gauge.builder("golfclub.changes.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open change feed subscriptions")
+                .register(registry);
+    }
+
+    /**
+     * Opens a subscription on the request, which is completed asynchronously. The events after lastEventId
+     * are sent first if they are still buffered, otherwise a reset event is sent; without lastEventId only
+     * new events are sent.
+     *
+     * @param request     the request subscribing
+     * @param response    the response the events are written to
+     * @param lastEventId the id of the last event the client has received, or null
+     * @throws IOException             if the response cannot be written
+     * @throws ResponseStatusException 503 if the maximum number of subscriptions is reached
+     */
+    public void subscribe(HttpServletRequest request, HttpServletResponse response, String lastEventId)
+            throws IOException {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The change feed is shutting down");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscriptions") {
+                @Override
+                public HttpHeaders getResponseHeaders() {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.set(HttpHeaders.RETRY_AFTER, "10");
+                    return headers;
+                }
+            };
+        }
+        Subscriber subscriber;
+        try {
+            response.setContentType(CONTENT_TYPE);
+            AsyncContext asyncContext = request.startAsync(request, response);
+            asyncContext.setTimeout(timeoutMillis);
+            subscriber = new Subscriber(asyncContext, response.getOutputStream());
+            asyncContext.addListener(subscriber);
+            // switches the response to non-blocking writes; the container calls onWritePossible once it accepts data
+            subscriber.output.setWriteListener(subscriber);
+        } catch (IOException | RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        try {
+            sender.execute(() -> open(subscriber, lastEventId));
+        } catch (RejectedExecutionException e) {
+            subscriber.close();
+            subscriber.complete();
+        }
+    }
+
+    /**
+     * Numbers a committed change, adds it to the buffer and sends it to all subscribers.
+     *
+     * @param change the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent change) {
+        synchronized (this) {
+            long sequence = ++latestSequence;
+            ChangeEvent event = new ChangeEvent(epoch + "-" + sequence,
+                    change.getType().name().replace("_", "").toLowerCase(Locale.ROOT), change.getAction(),
+                    change.getEntityId(), change.getName(), change.getCount(), new Date());
+            buffer[(int) (sequence % buffer.length)] = event;
+            // enqueued while holding the lock, so the events are sent in the order of their sequence numbers
+            try {
+                sender.execute(() -> broadcast(sequence, event));
+            } catch (RejectedExecutionException e) {
+                LOG.debug("Change feed stopped, event {} is not sent", event.getId());
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to all subscribers, which keeps idle connections open and removes closed ones.
+     */
+    @Scheduled(fixedDelayString = "${golfclub.changes.heartbeat-interval-ms:15000}")
+    public void sendHeartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                byte[] heartbeat = comment("heartbeat");
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.enqueue(heartbeat);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Change feed stopped, heartbeat is not sent");
+        }
+    }
+
+    /**
+     * Gets the number of open subscriptions.
+     *
+     * @return the number of open subscriptions
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        sender.shutdown();
+        writers.shutdown();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.complete();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Queues the missed events for a new subscriber and adds it to the subscribers.
+     * Runs on the sender thread, so no event is queued in between.
+     */
+    private void open(Subscriber subscriber, String lastEventId) {
+        List<ChangeEvent> missed = new ArrayList<>();
+        boolean reset;
+        long latest;
+        synchronized (this) {
+            latest = latestSequence;
+            long lastSequence = lastEventId != null ? parseSequence(lastEventId) : latest;
+            long oldestBuffered = Math.max(1, latest - buffer.length + 1);
+            // more missed events than fit into the queue of the subscriber are answered with a reset
+            reset = lastSequence < oldestBuffered - 1 || lastSequence > latest
+                    || latest - lastSequence >= subscriberQueueSize;
+            if (!reset) {
+                for (long sequence = lastSequence + 1; sequence <= latest; sequence++) {
+                    missed.add(buffer[(int) (sequence % buffer.length)]);
+                }
+            }
+        }
+        if (reset) {
+            subscriber.enqueue(event(RESET_EVENT, epoch + "-" + latest, "reload"));
+        } else if (missed.isEmpty()) {
+            // sends the response headers, so the client knows that it is connected
+            subscriber.enqueue(comment("subscribed"));
+        }
+        for (ChangeEvent event : missed) {
+            subscriber.enqueue(event(CHANGE_EVENT, event.getId(), toJson(event)));
+        }
+        subscriber.lastQueuedSequence = latest;
+        subscribers.add(subscriber);
+        if (subscriber.closed.get()) {
+            // closed while the missed events were sent
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void broadcast(long sequence, ChangeEvent event) {
+        published.increment();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        byte[] message = event(CHANGE_EVENT, event.getId(), toJson(event));
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastQueuedSequence < sequence) {
+                subscriber.lastQueuedSequence = sequence;
+                subscriber.enqueue(message);
+            }
+        }
+    }
+
+    /**
+     * Encodes a server-sent event; the data must not contain line breaks.
+     */
+    private static byte[] event(String name, String id, String data) {
+        return ("id:" + id + "\nevent:" + name + "\ndata:" + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a comment, which clients ignore.
+     */
+    private static byte[] comment(String text) {
+        return (":" + text + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes an event once for all subscribers.
+     */
+    private String toJson(ChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Change event " + event.getId() + " cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Gets the sequence number of an event id of this run of the application.
+     *
+     * @return the sequence number, or -1 if the id is invalid or stems from an earlier run
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * An open subscription. The messages are written by one writer at a time: every reason to write
+     * (a queued message, the connection accepting data again, the subscription being closed) counts as a
+     * signal, and the writer that takes the first signal writes until no signals are left.
+     */
+    private final class Subscriber implements AsyncListener, WriteListener {
+
+        private final AsyncContext asyncContext;
+
+        private final ServletOutputStream output;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+
+        /**
+         * The number of signals not yet handled by the writer.
+         */
+        private final AtomicInteger signals = new AtomicInteger();
+
+        /**
+         * Since when the connection does not accept data (System.nanoTime()), or 0; only accessed by the writer.
+         */
+        private long blockedSince;
+
+        /**
+         * Whether a check of the blocked connection is scheduled.
+         */
+        private final AtomicBoolean blockedCheckScheduled = new AtomicBoolean();
+
+        /**
+         * Whether messages have been written but not flushed; only accessed by the writer.
+         */
+        private boolean unflushed;
+
+        /**
+         * The sequence number of the last event queued, only accessed by the sender thread.
+         */
+        private long lastQueuedSequence;
+
+        private Subscriber(AsyncContext asyncContext, ServletOutputStream output) {
+            this.asyncContext = asyncContext;
+            this.output = output;
+        }
+
+        /**
+         * Queues a message for the client without blocking. A client with a full queue is disconnected.
+         */
+        private void enqueue(byte[] message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                LOG.debug("Change feed subscriber has fallen {} messages behind, disconnecting", subscriberQueueSize);
+                dropped.increment();
+                close();
+            }
+            signal();
+        }
+
+        private void signal() {
+            if (signals.getAndIncrement() == 0) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // stopped, the subscription is completed by stop()
+                }
+            }
+        }
+
+        /**
+         * Handles the signals on a writer thread.
+         */
+        private void drain() {
+            int handled = 1;
+            do {
+                write();
+                handled = signals.addAndGet(-handled);
+            } while (handled != 0);
+        }
+
+        /**
+         * Writes the queued messages as long as the connection accepts them; the container calls
+         * onWritePossible once it accepts data again.
+         */
+        private void write() {
+            if (!closed.get()) {
+                try {
+                    boolean ready = output.isReady();
+                    boolean progressed = ready;
+                    byte[] message;
+                    while (ready && (message = queue.poll()) != null) {
+                        output.write(message);
+                        unflushed = true;
+                        ready = output.isReady();
+                    }
+                    // a message written while the connection stopped accepting data is flushed once it accepts data again
+                    if (ready && unflushed) {
+                        output.flush();
+                        unflushed = false;
+                        ready = output.isReady();
+                    }
+                    if (ready) {
+                        blockedSince = 0;
+                    } else {
+                        checkBlocked(progressed);
+                    }
+                } catch (IOException | IllegalStateException | RejectedExecutionException e) {
+                    // the client has gone away or the feed is stopping
+                    close();
+                }
+            }
+            if (closed.get()) {
+                complete();
+            }
+        }
+
+        /**
+         * Disconnects the client if its connection has not accepted data for the write timeout, otherwise
+         * checks again once the timeout would expire. The time restarts whenever the client has read.
+         */
+        private void checkBlocked(boolean progressed) {
+            long now = System.nanoTime();
+            if (progressed || blockedSince == 0) {
+                blockedSince = now;
+            }
+            long remaining = writeTimeoutNanos - (now - blockedSince);
+            if (remaining <= 0) {
+                LOG.debug("Change feed subscriber has not read for {} ms, disconnecting",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                dropped.increment();
+                close();
+            } else if (blockedCheckScheduled.compareAndSet(false, true)) {
+                writers.schedule(() -> {
+                    blockedCheckScheduled.set(false);
+                    signal();
+                }, remaining, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                subscriberCount.decrementAndGet();
+                signal();
+            }
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                queue.clear();
+                try {
+                    asyncContext.complete();
+                } catch (IllegalStateException e) {
+                    // already completed by the container
+                }
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            signal();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            completed.set(true);
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // not restarted
+        }
+    }
+}
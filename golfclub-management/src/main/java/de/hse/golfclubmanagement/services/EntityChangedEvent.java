@@ -0,0 +1,105 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.ChangeEvent;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Application event published by the services for every write of members, golf courses and tournaments.
+ * The ChangeFeed and the name indexes of the services receive it once the transaction of the write
+ * has been committed.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class EntityChangedEvent {
+
+    private final EntityVersions.Type type;
+
+    private final ChangeEvent.Action action;
+
+    private final Long entityId;
+
+    private final String name;
+
+    private final int count;
+
+    private final Map<Long, String> names;
+
+    private EntityChangedEvent(EntityVersions.Type type, ChangeEvent.Action action, Long entityId, String name,
+                               int count, Map<Long, String> names) {
+        this.type = type;
+        this.action = action;
+        this.entityId = entityId;
+        this.name = name;
+        this.count = count;
+        this.names = names;
+    }
+
+    /**
+     * Creates the event of a created or updated entity.
+     *
+     * @param type     the entity type
+     * @param created  whether the entity is new
+     * @param entityId the id of the entity
+     * @param name     the name of the entity
+     * @return the event
+     */
+    static EntityChangedEvent saved(EntityVersions.Type type, boolean created, Long entityId, String name) {
+        return new EntityChangedEvent(type, created ? ChangeEvent.Action.CREATED : ChangeEvent.Action.UPDATED,
+                entityId, name, 1, Collections.singletonMap(entityId, name));
+    }
+
+    /**
+     * Creates the event of an imported chunk of entities.
+     *
+     * @param type  the entity type
+     * @param names the name of every imported entity by id
+     * @return the event
+     */
+    static EntityChangedEvent imported(EntityVersions.Type type, Map<Long, String> names) {
+        return new EntityChangedEvent(type, ChangeEvent.Action.IMPORTED, null, null, names.size(),
+                Collections.unmodifiableMap(names));
+    }
+
+    EntityVersions.Type getType() {
+        return type;
+    }
+
+    ChangeEvent.Action getAction() {
+        return action;
+    }
+
+    Long getEntityId() {
+        return entityId;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the names of all written entities by id, e.g. to update the name indexes.
+     *
+     * @return the names by id
+     */
+    Map<Long, String> getNames() {
+        return names;
+    }
+}
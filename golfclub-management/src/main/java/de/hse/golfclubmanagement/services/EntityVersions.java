@@ -0,0 +1,217 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.models.CacheVersion;
+import de.hse.golfclubmanagement.repositories.CacheVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes per entity type to derive cheap ETags for the list and findByName endpoints.
+ * The versions are shared by all instances of the application through the table cache_version
+ * (see CacheVersion): every write increments the version of its entity type within the writing
+ * transaction, and every instance polls the versions every golfclub.versions.poll-interval-ms.
+ * An unchanged version therefore guarantees unchanged data and a 304 response can be sent without
+ * querying the database; after a write of another instance, the ETag moves on within one poll interval.
+ * If another instance has written a type, a {@link WrittenElsewhere} event is published, e.g. to
+ * evict local caches (see CacheInvalidation).
+ * <p>
+ * The version row stays locked until the writing transaction ends, so writes of the same entity
+ * type are serialized across all instances. Writes bypassing this application (e.g. directly on
+ * the database) are not detected.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+public class EntityVersions {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityVersions.class);
+
+    /**
+     * The entity types with their own version.
+     */
+    public enum Type {
+        MEMBERS, GOLF_COURSES, TOURNAMENTS;
+
+        /**
+         * Gets the name of the version row of this type, e.g. golf_courses.
+         *
+         * @return the name in the table cache_version
+         */
+        String versionName() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Published once an instance notices that another instance has written entities of a type.
+     */
+    public static final class WrittenElsewhere {
+
+        private final Type type;
+
+        WrittenElsewhere(Type type) {
+            this.type = type;
+        }
+
+        /**
+         * Gets the written entity type.
+         *
+         * @return the entity type
+         */
+        public Type getType() {
+            return type;
+        }
+    }
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The latest known version per type, used for the ETags.
+     */
+    private final Map<Type, AtomicLong> versions = new EnumMap<>(Type.class);
+
+    /**
+     * The version per type including all writes of other instances noticed so far, -1 before the first poll.
+     */
+    private final Map<Type, AtomicLong> seenVersions = new EnumMap<>(Type.class);
+
+    /**
+     * Creates the version counters.
+     */
+    public EntityVersions() {
+        for (Type type : Type.values()) {
+            versions.put(type, new AtomicLong());
+            seenVersions.put(type, new AtomicLong(-1));
+        }
+    }
+
+    /**
+     * Increments the shared version of the given entity type.
+     * Joins the transaction of the write if there is one, so the version is only incremented
+     * if the write is committed; the local version moves on once the transaction has been
+     * committed, so a client can not receive the new ETag together with the old data.
+     *
+     * @param type the type of the written entities
+     */
+    @Transactional
+    public void increment(Type type) {
+        if (cacheVersionRepository.increment(type.versionName()) == 0) {
+            cacheVersionRepository.save(new CacheVersion(type.versionName(), 1));
+        }
+        long written = cacheVersionRepository.findVersion(type.versionName());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.get(type).accumulateAndGet(written, Math::max);
+                // skip the own write unless a write of another instance has not been seen yet
+                seenVersions.get(type).compareAndSet(written - 1, written);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the current version of the given entity type.
+     *
+     * @param type the entity type
+     * @return the latest version known to this instance
+     */
+    public long getVersion(Type type) {
+        return versions.get(type).get();
+    }
+
+    /**
+     * Builds the weak ETag of the current version of the given entity type.
+     * The ETag has to be determined before the data is read, so a concurrent write results in a
+     * newer version on the next request rather than in a stale response being considered current.
+     *
+     * @param type the entity type
+     * @return the ETag, e.g. W/"members-42"
+     */
+    public String etag(Type type) {
+        return "W/\"" + type.name().toLowerCase().replace('_', '-') + "-" + getVersion(type) + "\"";
+    }
+
+    /**
+     * Creates the shared versions once the application has started, unless another instance already has,
+     * and reads their current values.
+     * A new version starts at the current time, so a recreated database does not repeat the ETags of
+     * the previous one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createVersions() {
+        for (Type type : Type.values()) {
+            if (cacheVersionRepository.existsById(type.versionName())) {
+                continue;
+            }
+            try {
+                cacheVersionRepository.save(new CacheVersion(type.versionName(), System.currentTimeMillis()));
+            } catch (DataIntegrityViolationException e) {
+                LOG.debug("Version {} has been created by another instance", type.versionName());
+            }
+        }
+        poll();
+    }
+
+    /**
+     * Reads the shared versions and publishes a {@link WrittenElsewhere} event for every entity type
+     * that another instance has written since the last poll. The event is handled before the version
+     * of the type moves on.
+     */
+    @Scheduled(fixedDelayString = "${golfclub.versions.poll-interval-ms:1000}")
+    public void poll() {
+        Iterable<CacheVersion> shared;
+        try {
+            shared = ReadWriteRoutingDataSource.readFromPrimary(cacheVersionRepository::findAll);
+        } catch (DataAccessException e) {
+            LOG.warn("Cannot read the entity versions: {}", e.getMessage());
+            return;
+        }
+        for (CacheVersion version : shared) {
+            for (Type type : Type.values()) {
+                if (type.versionName().equals(version.getName())) {
+                    long seen = seenVersions.get(type).getAndAccumulate(version.getVersion(), Math::max);
+                    if (seen >= 0 && version.getVersion() > seen) {
+                        LOG.debug("Entities of type {} have been written by another instance (version {})",
+                                type, version.getVersion());
+                        // the local caches are evicted before the ETag moves on, so the new ETag is
+                        // never sent together with data cached before the write
+                        eventPublisher.publishEvent(new WrittenElsewhere(type));
+                    }
+                    versions.get(type).accumulateAndGet(version.getVersion(), Math::max);
+                }
+            }
+        }
+    }
+}
@@ -12,12 +12,38 @@
  */
 package de.hse.golfclubmanagement.services;
 
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.GolfCourseSummary;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
 import de.hse.golfclubmanagement.models.GolfCourse;
 import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import de.hse.golfclubmanagement.repositories.HoleTotalsView;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing GolfCourse entities.
@@ -28,35 +54,285 @@ import java.util.List;
 @Service
 public class GolfCourseService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(GolfCourseService.class);
+
+    /**
+     * The maximum number of GolfCourse entities returned in a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The number of streamed GolfCourse entities kept attached at once, so that
+     * their holes are initialized with one batch query (see GolfCourse#holes).
+     */
+    private static final int STREAM_CHUNK_SIZE = 100;
+
     @Autowired
     private GolfCourseRepository golfCourseRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * In-memory index over all names for autocomplete lookups.
+     */
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+
     /**
      * Saves a GolfCourse entity to the database.
+     * The number of holes, the total par and the total length are recalculated from the holes
+     * stored in the database within the same transaction.
      *
      * @param golfCourse the GolfCourse entity to save
      * @return the saved GolfCourse entity
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.GOLF_COURSES_BY_NAME, allEntries = true)
     public GolfCourse saveGolfCourse(GolfCourse golfCourse) {
-        return golfCourseRepository.save(golfCourse);
+        if (golfCourse.getHoles() != null) {
+            golfCourse.getHoles().forEach(hole -> hole.setGolfCourse(golfCourse));
+        }
+        boolean isNew = golfCourse.getId() == null || !golfCourseRepository.existsById(golfCourse.getId());
+        GolfCourse savedGolfCourse = golfCourseRepository.save(golfCourse);
+        golfCourseRepository.flush();
+        HoleTotalsView totals = golfCourseRepository.findHoleTotals(savedGolfCourse.getId());
+        if (totals != null) {
+            savedGolfCourse.setAggregates(totals.getHoleCount().intValue(), totals.getTotalPar().intValue(),
+                    totals.getTotalLength().intValue());
+        } else {
+            savedGolfCourse.setAggregates(0, 0, 0);
+        }
+        entityVersions.increment(EntityVersions.Type.GOLF_COURSES);
+        eventPublisher.publishEvent(EntityChangedEvent.saved(EntityVersions.Type.GOLF_COURSES, isNew,
+                savedGolfCourse.getId(), savedGolfCourse.getName()));
+        return savedGolfCourse;
     }
 
     /**
-     * Retrieves all GolfCourse entities from the database.
+     * Imports a large number of GolfCourse entities including their holes using batched inserts.
+     * The entities are persisted in chunks, each within its own transaction.
+     *
+     * @param golfCourses the GolfCourse entities to import, read lazily
+     * @return a summary with the number of imported entities and the throughput
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.GOLF_COURSES_BY_NAME, allEntries = true)
+    public BulkImportResult importGolfCourses(Iterator<GolfCourse> golfCourses) {
+        return bulkImporter.importAll(golfCourses, chunk -> {
+            Map<Long, String> names = new LinkedHashMap<>();
+            chunk.forEach(savedGolfCourse -> names.put(savedGolfCourse.getId(), savedGolfCourse.getName()));
+            entityVersions.increment(EntityVersions.Type.GOLF_COURSES);
+            eventPublisher.publishEvent(EntityChangedEvent.imported(EntityVersions.Type.GOLF_COURSES, names));
+        });
+    }
+
+    /**
+     * Retrieves all GolfCourse entities including their holes from the database.
+     * The holes are fetched within the same query to avoid one query per course.
      *
      * @return a list of all GolfCourse entities
      */
+    @Transactional(readOnly = true)
     public List<GolfCourse> getAllGolfCourses() {
-        return golfCourseRepository.findAll();
+        return golfCourseRepository.findAllWithHoles();
+    }
+
+    /**
+     * Retrieves the summaries of all GolfCourse entities (number of holes, total par and total length)
+     * from the aggregate columns, without loading any holes.
+     *
+     * @return the summaries of all GolfCourse entities ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<GolfCourseSummary> getAllSummaries() {
+        return golfCourseRepository.findAllSummaries();
     }
 
     /**
      * Finds a GolfCourse by its name.
+     * Results, including misses, are served from a bounded cache (see CacheConfiguration).
+     * The holes are initialized before the GolfCourse is cached, also if the lookup has been
+     * answered from the query cache, where they are loaded from the second level cache.
      *
      * @param name the name of the GolfCourse to find
      * @return the GolfCourse with the specified name, or null if not found
      */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfiguration.GOLF_COURSES_BY_NAME, key = "#name")
     public GolfCourse findByName(String name) {
-        return golfCourseRepository.findByName(name);
+        GolfCourse golfCourse = ReadWriteRoutingDataSource.readFromPrimary(() -> golfCourseRepository.findByName(name));
+        if (golfCourse != null) {
+            Hibernate.initialize(golfCourse.getHoles());
+        }
+        return golfCourse;
+    }
+
+    /**
+     * Retrieves the next page of GolfCourse entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last GolfCourse of the previous page, or null for the first page
+     * @param limit   the maximum number of entities to return, capped at {@link #MAX_PAGE_SIZE}
+     * @return the GolfCourse entities following afterId, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<GolfCourse> getGolfCoursesAfter(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return golfCourseRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the given fields of all GolfCourse entities (sparse fieldset).
+     * Only the requested columns are selected and no entities are loaded.
+     *
+     * @param fields the names of the fields to return, the id is always returned
+     * @return one row per GolfCourse, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllGolfCourseFields(List<String> fields) {
+        return golfCourseRepository.findAllFields(SparseFields.validate(fields, golfCourseRepository.getSelectableFields()));
+    }
+
+    /**
+     * Retrieves the given fields of the GolfCourse with the given name (sparse fieldset).
+     *
+     * @param name   the name of the GolfCourse to find
+     * @param fields the names of the fields to return, the id is always returned
+     * @return the requested fields of the GolfCourse, or null if not found
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findFieldsByName(String name, List<String> fields) {
+        return golfCourseRepository.findFieldsByName(name, SparseFields.validate(fields, golfCourseRepository.getSelectableFields()))
+                .orElse(null);
+    }
+
+    /**
+     * Retrieves the given fields of the next page of GolfCourse entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last GolfCourse of the previous page, or null for the first page
+     * @param limit   the maximum number of rows to return, capped at {@link #MAX_PAGE_SIZE}
+     * @param fields  the names of the fields to return, the id is always returned
+     * @return one row per GolfCourse following afterId, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getGolfCourseFieldsAfter(Long afterId, int limit, List<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return golfCourseRepository.findFieldsAfter(afterId != null ? afterId : 0L, pageSize,
+                SparseFields.validate(fields, golfCourseRepository.getSelectableFields()));
+    }
+
+    /**
+     * Streams all GolfCourse entities from the database to the given consumer.
+     * Courses are handed over in chunks, so the holes of a whole chunk are loaded
+     * with a single batch query. Each chunk is detached once it has been consumed,
+     * so the persistence context does not grow with the size of the table.
+     *
+     * @param consumer the consumer receiving the GolfCourse entities ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void streamAllGolfCourses(Consumer<GolfCourse> consumer) {
+        List<GolfCourse> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<GolfCourse> golfCourses = golfCourseRepository.streamAll()) {
+            golfCourses.forEach(golfCourse -> {
+                chunk.add(golfCourse);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    consumeChunk(chunk, consumer);
+                }
+            });
+        }
+        consumeChunk(chunk, consumer);
+    }
+
+    private void consumeChunk(List<GolfCourse> chunk, Consumer<GolfCourse> consumer) {
+        for (GolfCourse golfCourse : chunk) {
+            consumer.accept(golfCourse);
+            entityManager.detach(golfCourse);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Finds GolfCourse entities whose name starts with the given prefix.
+     * The lookup is served from the in-memory name index and does not touch the database.
+     *
+     * @param prefix the prefix to search for (case-insensitive)
+     * @param limit  the maximum number of suggestions to return
+     * @return the matching suggestions ordered by name
+     */
+    public List<NameSuggestion> autocomplete(String prefix, int limit) {
+        return nameIndex.findByPrefix(prefix, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Adds the names of a committed write to the in-memory name index. The index is only updated
+     * after commit, so a rolled back write leaves no entry behind.
+     *
+     * @param change the committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent change) {
+        if (change.getType() != EntityVersions.Type.GOLF_COURSES) {
+            return;
+        }
+        // waits for a running rebuild, which may have read the names before this write was committed
+        synchronized (nameIndex) {
+            change.getNames().forEach(nameIndex::put);
+        }
+    }
+
+    /**
+     * Reloads the in-memory name index after another instance has written golf courses.
+     *
+     * @param event the write of another instance
+     */
+    @EventListener
+    public void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+        if (event.getType() == EntityVersions.Type.GOLF_COURSES) {
+            rebuildNameIndex();
+        }
+    }
+
+    /**
+     * Loads the names of all GolfCourse entities into the in-memory name index
+     * once the application has started and after writes of other instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildNameIndex() {
+        synchronized (nameIndex) {
+            nameIndex.rebuild(ReadWriteRoutingDataSource.readFromPrimary(golfCourseRepository::findAllNames));
+        }
+    }
+
+    /**
+     * Calculates the missing aggregates of GolfCourse entities once the application has started,
+     * e.g. of golf courses stored before the aggregate columns were introduced.
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAggregates() {
+        Map<Long, HoleTotalsView> totalsById = new HashMap<>();
+        for (HoleTotalsView totals : golfCourseRepository.findMissingHoleTotals()) {
+            totalsById.put(totals.getGolfCourseId(), totals);
+        }
+        if (totalsById.isEmpty()) {
+            return;
+        }
+        for (GolfCourse golfCourse : golfCourseRepository.findAllById(totalsById.keySet())) {
+            HoleTotalsView totals = totalsById.get(golfCourse.getId());
+            golfCourse.setAggregates(totals.getHoleCount().intValue(), totals.getTotalPar().intValue(),
+                    totals.getTotalLength().intValue());
+        }
+        entityVersions.increment(EntityVersions.Type.GOLF_COURSES);
+        LOG.info("Calculated the missing aggregates of {} golf courses", totalsById.size());
     }
 }
@@ -0,0 +1,80 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import java.util.Arrays;
+
+/**
+ * Calculates a handicap from the rounds a member has played, following the
+ * scheme of the World Handicap System in a simplified form.
+ * The course difficulty is derived from the par and the length of the holes:
+ * each round yields a differential of strokes over par, scaled by how long the
+ * course is compared to a standard course with the same number of holes.
+ * The handicap is the average of the best 40% of the latest 20 differentials.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class HandicapCalculator {
+
+    /**
+     * The number of latest rounds taken into account.
+     */
+    static final int MAX_ROUNDS = 20;
+
+    /**
+     * The average length of a hole on a standard course in meters.
+     */
+    static final int STANDARD_HOLE_LENGTH = 340;
+
+    static final int MIN_HANDICAP = -10;
+
+    static final int MAX_HANDICAP = 54;
+
+    private HandicapCalculator() {
+    }
+
+    /**
+     * Calculates the differential of a single round.
+     * Rounds on longer courses count as played on a harder course,
+     * so the same strokes over par yield a smaller differential.
+     *
+     * @param strokes the total number of strokes of the round
+     * @param par     the total par of the golf course
+     * @param length  the total length of the golf course in meters
+     * @param holes   the number of holes of the golf course
+     * @return the differential of the round
+     */
+    static double differential(long strokes, long par, long length, long holes) {
+        double difficulty = length > 0 ? (double) holes * STANDARD_HOLE_LENGTH / length : 1.0;
+        return (strokes - par) * difficulty;
+    }
+
+    /**
+     * Calculates the handicap from the differentials of the latest rounds.
+     *
+     * @param differentials the differentials of at most {@link #MAX_ROUNDS} latest rounds;
+     *                      the array is sorted in place
+     * @param count         the number of valid entries in differentials, at least 1
+     * @return the handicap, rounded and limited to the allowed range
+     */
+    static int handicap(double[] differentials, int count) {
+        Arrays.sort(differentials, 0, count);
+        int best = Math.max(1, count * 2 / 5);
+        double sum = 0;
+        for (int i = 0; i < best; i++) {
+            sum += differentials[i];
+        }
+        long handicap = Math.round(sum / best);
+        return (int) Math.max(MIN_HANDICAP, Math.min(MAX_HANDICAP, handicap));
+    }
+}
@@ -0,0 +1,298 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.dto.HandicapRecalculationStatus;
+import de.hse.golfclubmanagement.dto.HandicapRecalculationStatus.State;
+import de.hse.golfclubmanagement.repositories.HandicapView;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.RoundView;
+import de.hse.golfclubmanagement.repositories.ScoreRepository;
+import de.hse.golfclubmanagement.repositories.TournamentCourseView;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class for recalculating the handicap of all members from their tournament rounds.
+ * The recalculation runs as a background job on a dedicated fork-join pool: the members are
+ * split into partitions by id, each partition loads the rounds of its members with a single
+ * aggregate query and writes the changed handicaps back with a batched JDBC update.
+ * Only rounds in which all holes of the golf course have been recorded are taken into account;
+ * members without such rounds keep their handicap.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Service
+public class HandicapRecalculationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HandicapRecalculationService.class);
+
+    private static final String UPDATE_HANDICAP_SQL = "update member set handicap = ? where id = ?";
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ScoreRepository scoreRepository;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ForkJoinPool pool;
+
+    private final int partitionSize;
+
+    private final AtomicLong jobIds = new AtomicLong();
+
+    private final AtomicReference<Job> currentJob = new AtomicReference<>();
+
+    /**
+     * Creates a new recalculation service.
+     *
+     * @param transactionManager the transaction manager used for the partition transactions
+     * @param parallelism        the number of partitions processed concurrently, 0 for the number of cores;
+     *                           each concurrent partition holds a database connection
+     * @param partitionSize      the maximum number of members per partition
+     */
+    public HandicapRecalculationService(PlatformTransactionManager transactionManager,
+                                        @Value("${golfclub.handicap.parallelism:0}") int parallelism,
+                                        @Value("${golfclub.handicap.partition-size:1000}") int partitionSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.partitionSize = Math.max(1, partitionSize);
+    }
+
+    /**
+     * Starts the recalculation of all handicaps in the background.
+     *
+     * @return the status of the started job
+     * @throws ResponseStatusException 409 if a recalculation is already running
+     */
+    public HandicapRecalculationStatus startRecalculation() {
+        Job job = new Job(jobIds.incrementAndGet());
+        Job previous = currentJob.get();
+        if ((previous != null && previous.state == State.RUNNING) || !currentJob.compareAndSet(previous, job)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A handicap recalculation is already running");
+        }
+        pool.execute(() -> run(job));
+        return job.status();
+    }
+
+    /**
+     * Gets the status of the latest recalculation job.
+     *
+     * @return the status of the latest job
+     * @throws ResponseStatusException 404 if no recalculation has been started yet
+     */
+    public HandicapRecalculationStatus getStatus() {
+        Job job = currentJob.get();
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No handicap recalculation has been started");
+        }
+        return job.status();
+    }
+
+    /**
+     * Stops the worker pool on shutdown; a running job is interrupted.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void run(Job job) {
+        try {
+            List<HandicapView> handicaps = memberRepository.findAllHandicaps();
+            long[] memberIds = new long[handicaps.size()];
+            int[] currentHandicaps = new int[handicaps.size()];
+            for (int i = 0; i < memberIds.length; i++) {
+                memberIds[i] = handicaps.get(i).getId();
+                currentHandicaps[i] = handicaps.get(i).getHandicap();
+            }
+            job.totalMembers = memberIds.length;
+
+            Map<Long, TournamentCourseView> courses = new HashMap<>();
+            for (TournamentCourseView course : tournamentRepository.findCourseTotals()) {
+                courses.put(course.getTournamentId(), course);
+            }
+
+            pool.invoke(new Partition(job, courses, memberIds, currentHandicaps, 0, memberIds.length));
+            job.finish(State.COMPLETED, null);
+            LOG.info("Recalculated the handicaps of {} members in {} ms, {} changed",
+                    job.processedMembers.get(), job.durationMillis, job.updatedMembers.get());
+        } catch (RuntimeException e) {
+            job.finish(State.FAILED, e.getMessage());
+            LOG.error("Handicap recalculation {} failed", job.id, e);
+        } finally {
+            Cache cache = cacheManager.getCache(CacheConfiguration.MEMBERS_BY_NAME);
+            if (cache != null) {
+                cache.clear();
+            }
+            if (job.updatedMembers.get() > 0) {
+                entityVersions.increment(EntityVersions.Type.MEMBERS);
+            }
+        }
+    }
+
+    /**
+     * A range of members, split in halves until it fits into a single partition.
+     */
+    private final class Partition extends RecursiveAction {
+
+        private final Job job;
+
+        private final Map<Long, TournamentCourseView> courses;
+
+        private final long[] memberIds;
+
+        private final int[] currentHandicaps;
+
+        private final int from;
+
+        private final int to;
+
+        Partition(Job job, Map<Long, TournamentCourseView> courses, long[] memberIds, int[] currentHandicaps,
+                  int from, int to) {
+            this.job = job;
+            this.courses = courses;
+            this.memberIds = memberIds;
+            this.currentHandicaps = currentHandicaps;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > partitionSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Partition(job, courses, memberIds, currentHandicaps, from, middle),
+                          new Partition(job, courses, memberIds, currentHandicaps, middle, to));
+                return;
+            }
+            if (from < to) {
+                transactionTemplate.executeWithoutResult(status -> recalculate());
+                job.processedMembers.addAndGet(to - from);
+            }
+        }
+
+        private void recalculate() {
+            // the latest rounds per member, as parallel arrays of date and differential
+            Map<Long, List<double[]>> roundsByMember = new HashMap<>();
+            for (RoundView round : scoreRepository.findRoundsByMemberIdBetween(memberIds[from], memberIds[to - 1])) {
+                TournamentCourseView course = courses.get(round.getTournamentId());
+                if (course == null || !course.getHoles().equals(round.getHoles())) {
+                    continue;
+                }
+                double date = course.getDate() != null ? course.getDate().getTime() : 0;
+                double differential = HandicapCalculator.differential(
+                        round.getStrokes(), course.getPar(), course.getLength(), course.getHoles());
+                roundsByMember.computeIfAbsent(round.getMemberId(), id -> new ArrayList<>())
+                        .add(new double[] {date, differential});
+            }
+
+            List<Object[]> updates = new ArrayList<>();
+            double[] differentials = new double[HandicapCalculator.MAX_ROUNDS];
+            for (int i = from; i < to; i++) {
+                List<double[]> rounds = roundsByMember.get(memberIds[i]);
+                if (rounds == null) {
+                    continue;
+                }
+                rounds.sort((a, b) -> Double.compare(b[0], a[0]));
+                int count = Math.min(rounds.size(), HandicapCalculator.MAX_ROUNDS);
+                for (int r = 0; r < count; r++) {
+                    differentials[r] = rounds.get(r)[1];
+                }
+                int handicap = HandicapCalculator.handicap(differentials, count);
+                if (handicap != currentHandicaps[i]) {
+                    updates.add(new Object[] {handicap, memberIds[i]});
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_HANDICAP_SQL, updates);
+                job.updatedMembers.addAndGet(updates.size());
+            }
+        }
+    }
+
+    /**
+     * Mutable progress of a single recalculation job.
+     */
+    private static final class Job {
+
+        private final long id;
+
+        private final long startedAt = System.currentTimeMillis();
+
+        private final AtomicLong processedMembers = new AtomicLong();
+
+        private final AtomicLong updatedMembers = new AtomicLong();
+
+        private volatile long totalMembers;
+
+        private volatile State state = State.RUNNING;
+
+        private volatile long durationMillis;
+
+        private volatile String error;
+
+        Job(long id) {
+            this.id = id;
+        }
+
+        void finish(State finalState, String message) {
+            durationMillis = System.currentTimeMillis() - startedAt;
+            error = message;
+            state = finalState;
+        }
+
+        HandicapRecalculationStatus status() {
+            State currentState = state;
+            long duration = currentState == State.RUNNING ? System.currentTimeMillis() - startedAt : durationMillis;
+            return new HandicapRecalculationStatus(id, currentState, totalMembers, processedMembers.get(),
+                    updatedMembers.get(), duration, error);
+        }
+    }
+}
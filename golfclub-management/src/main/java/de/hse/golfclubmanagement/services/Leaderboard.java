@@ -0,0 +1,193 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-memory leaderboard of a single tournament.
+ * The scores of each player are kept in primitive arrays indexed by a player slot,
+ * and the ranking is a sorted set of slots that is updated in O(log n) per recorded hole.
+ * Writers are serialized on this instance; readers get an immutable snapshot
+ * that is published after every write and never block.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class Leaderboard {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The par of each hole indexed by the hole number; 0 marks a missing hole.
+     */
+    private final int[] parByHole;
+
+    private final Map<Long, Integer> slotByMember = new HashMap<>();
+
+    private long[] memberIds = new long[INITIAL_CAPACITY];
+
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    private int[] totalStrokes = new int[INITIAL_CAPACITY];
+
+    private int[] parPlayed = new int[INITIAL_CAPACITY];
+
+    private int[] holesPlayed = new int[INITIAL_CAPACITY];
+
+    /**
+     * The strokes of each player per hole number; 0 marks a hole not played yet.
+     */
+    private int[][] holeStrokes = new int[INITIAL_CAPACITY][];
+
+    private int size;
+
+    /**
+     * The player slots ordered by strokes to par, then by holes played (more first), then by member id.
+     * The comparator reads the arrays, so a slot is removed before and re-added after its scores change.
+     */
+    private final TreeSet<Integer> ranking = new TreeSet<>(this::compareSlots);
+
+    private volatile List<LeaderboardEntry> snapshot = Collections.emptyList();
+
+    /**
+     * Creates an empty leaderboard.
+     *
+     * @param parByHole the par of each hole indexed by the hole number; 0 marks a missing hole
+     */
+    Leaderboard(int[] parByHole) {
+        this.parByHole = parByHole.clone();
+    }
+
+    /**
+     * Checks whether the golf course of the tournament has a hole with the given number.
+     *
+     * @param holeNumber the number of the hole
+     * @return true if the hole exists
+     */
+    boolean hasHole(int holeNumber) {
+        return holeNumber > 0 && holeNumber < parByHole.length && parByHole[holeNumber] > 0;
+    }
+
+    /**
+     * Records the strokes of a player on a hole, replacing a previously recorded value.
+     *
+     * @param memberId   the id of the member
+     * @param name       the name of the member
+     * @param holeNumber the number of the hole, must satisfy {@link #hasHole(int)}
+     * @param strokes    the number of strokes
+     */
+    synchronized void record(long memberId, String name, int holeNumber, int strokes) {
+        apply(memberId, name, holeNumber, strokes);
+        publish();
+    }
+
+    /**
+     * Records many scores at once and publishes a single snapshot afterwards.
+     * Used to replay the persisted scores when the leaderboard is loaded.
+     *
+     * @param memberIds   the ids of the members
+     * @param names       the names of the members
+     * @param holeNumbers the numbers of the holes
+     * @param strokes     the numbers of strokes
+     */
+    synchronized void recordAll(long[] memberIds, String[] names, int[] holeNumbers, int[] strokes) {
+        for (int i = 0; i < memberIds.length; i++) {
+            if (hasHole(holeNumbers[i])) {
+                apply(memberIds[i], names[i], holeNumbers[i], strokes[i]);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Gets the current leaderboard. The returned list is immutable and reflects
+     * all writes completed before the call.
+     *
+     * @return the rows of the leaderboard ordered by position
+     */
+    List<LeaderboardEntry> snapshot() {
+        return snapshot;
+    }
+
+    private void apply(long memberId, String name, int holeNumber, int strokes) {
+        int slot = slotOf(memberId, name);
+        ranking.remove(slot);
+        int previous = holeStrokes[slot][holeNumber];
+        if (previous == 0) {
+            holesPlayed[slot]++;
+            parPlayed[slot] += parByHole[holeNumber];
+        }
+        totalStrokes[slot] += strokes - previous;
+        holeStrokes[slot][holeNumber] = strokes;
+        ranking.add(slot);
+    }
+
+    private int slotOf(long memberId, String name) {
+        Integer slot = slotByMember.get(memberId);
+        if (slot != null) {
+            names[slot] = name;
+            return slot;
+        }
+        if (size == memberIds.length) {
+            int capacity = size * 2;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            totalStrokes = Arrays.copyOf(totalStrokes, capacity);
+            parPlayed = Arrays.copyOf(parPlayed, capacity);
+            holesPlayed = Arrays.copyOf(holesPlayed, capacity);
+            holeStrokes = Arrays.copyOf(holeStrokes, capacity);
+        }
+        int newSlot = size++;
+        memberIds[newSlot] = memberId;
+        names[newSlot] = name;
+        holeStrokes[newSlot] = new int[parByHole.length];
+        slotByMember.put(memberId, newSlot);
+        return newSlot;
+    }
+
+    private int toPar(int slot) {
+        return totalStrokes[slot] - parPlayed[slot];
+    }
+
+    private int compareSlots(int a, int b) {
+        int result = Integer.compare(toPar(a), toPar(b));
+        if (result == 0) {
+            result = Integer.compare(holesPlayed[b], holesPlayed[a]);
+        }
+        return result != 0 ? result : Long.compare(memberIds[a], memberIds[b]);
+    }
+
+    private void publish() {
+        List<LeaderboardEntry> entries = new ArrayList<>(ranking.size());
+        int position = 0;
+        int previousToPar = 0;
+        for (int slot : ranking) {
+            int toPar = toPar(slot);
+            if (entries.isEmpty() || toPar != previousToPar) {
+                position = entries.size() + 1;
+                previousToPar = toPar;
+            }
+            entries.add(new LeaderboardEntry(position, memberIds[slot], names[slot],
+                    toPar, totalStrokes[slot], holesPlayed[slot]));
+        }
+        snapshot = Collections.unmodifiableList(entries);
+    }
+}
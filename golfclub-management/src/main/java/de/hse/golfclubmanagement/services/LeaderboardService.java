@@ -0,0 +1,283 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.dto.LeaderboardEntry;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Score;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.ScoreRepository;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class for recording tournament scores and maintaining the leaderboards.
+ * Each tournament leaderboard is loaded from the database on first access and
+ * afterwards updated incrementally in memory for every recorded hole.
+ * The leaderboards are held in a bounded cache (golfclub.leaderboard.maximum-size) and reloaded
+ * golfclub.leaderboard.time-to-live after they have been loaded, which bounds the staleness caused
+ * by scores recorded on other instances. Writes of tournaments and golf courses, of this or another
+ * instance, evict the affected leaderboards, as they may change the golf course or the pars.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Service
+public class LeaderboardService {
+
+    /**
+     * The highest number of strokes accepted for a single hole.
+     */
+    public static final int MAX_STROKES_PER_HOLE = 20;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private GolfCourseRepository golfCourseRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ScoreRepository scoreRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Cache<Long, Leaderboard> leaderboards;
+
+    /**
+     * Incremented by every eviction, so a leaderboard loaded before an eviction is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a new leaderboard service.
+     *
+     * @param transactionManager the transaction manager used to persist the scores
+     * @param maximumSize        the maximum number of leaderboards held in memory
+     * @param timeToLive         the time after which a leaderboard is reloaded from the database
+     */
+    public LeaderboardService(PlatformTransactionManager transactionManager,
+                              @Value("${golfclub.leaderboard.maximum-size:1000}") long maximumSize,
+                              @Value("${golfclub.leaderboard.time-to-live:1m}") Duration timeToLive) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.leaderboards = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Records the strokes of a member on a hole of a tournament and updates the leaderboard.
+     * Recording the same hole again replaces the previous number of strokes.
+     *
+     * @param tournamentId the id of the tournament
+     * @param score        the score containing member id, hole number and strokes
+     * @return the saved Score entity
+     * @throws ResponseStatusException 404 if the tournament or member does not exist,
+     *         400 if the hole or the strokes are invalid, 409 if the tournament has no golf course
+     */
+    public Score recordScore(Long tournamentId, Score score) {
+        if (score.getMemberId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "memberId is required");
+        }
+        if (score.getStrokes() < 1 || score.getStrokes() > MAX_STROKES_PER_HOLE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "strokes must be between 1 and " + MAX_STROKES_PER_HOLE);
+        }
+        Leaderboard leaderboard = getLeaderboardFor(tournamentId);
+        if (!leaderboard.hasHole(score.getHoleNumber())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Hole " + score.getHoleNumber() + " does not exist on the golf course of the tournament");
+        }
+        Member member = memberRepository.findById(score.getMemberId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Member " + score.getMemberId() + " not found"));
+
+        // the lock keeps the order of the database writes and the in-memory updates identical
+        synchronized (leaderboard) {
+            Score saved = transactionTemplate.execute(status -> {
+                Score existing = scoreRepository.findByTournamentIdAndMemberIdAndHoleNumber(
+                        tournamentId, member.getId(), score.getHoleNumber());
+                Score target = existing != null ? existing : new Score();
+                target.setTournamentId(tournamentId);
+                target.setMemberId(member.getId());
+                target.setHoleNumber(score.getHoleNumber());
+                target.setStrokes(score.getStrokes());
+                Score result = scoreRepository.save(target);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        scoreCommitted(tournamentId, leaderboard);
+                    }
+                });
+                return result;
+            });
+            leaderboard.record(member.getId(), member.getName(), saved.getHoleNumber(), saved.getStrokes());
+            return saved;
+        }
+    }
+
+    /**
+     * Gets the current leaderboard of a tournament ordered by strokes relative to par.
+     *
+     * @param tournamentId the id of the tournament
+     * @return the rows of the leaderboard
+     * @throws ResponseStatusException 404 if the tournament does not exist,
+     *         409 if the tournament has no golf course
+     */
+    public List<LeaderboardEntry> getLeaderboard(Long tournamentId) {
+        return getLeaderboardFor(tournamentId).snapshot();
+    }
+
+    /**
+     * Evicts the leaderboards affected by a committed write of a tournament or golf course.
+     *
+     * @param change the written entities
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntityChanged(EntityChangedEvent change) {
+        if (change.getType() == EntityVersions.Type.TOURNAMENTS && change.getEntityId() != null) {
+            evict(change.getEntityId());
+        } else if (change.getType() == EntityVersions.Type.GOLF_COURSES) {
+            evictAll();
+        }
+    }
+
+    /**
+     * Evicts all leaderboards after another instance has written tournaments or golf courses.
+     *
+     * @param event the write of another instance
+     */
+    @EventListener
+    void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+        if (event.getType() != EntityVersions.Type.MEMBERS) {
+            evictAll();
+        }
+    }
+
+    private Leaderboard getLeaderboardFor(Long tournamentId) {
+        Leaderboard leaderboard = leaderboards.getIfPresent(tournamentId);
+        if (leaderboard != null) {
+            return leaderboard;
+        }
+        // loaded outside of the cache, so concurrent lookups of other tournaments are not blocked;
+        // the leaderboard is kept in memory, so it must not miss scores not yet replicated
+        long loadedGeneration = generation.get();
+        Leaderboard loaded = ReadWriteRoutingDataSource.readFromPrimary(() -> loadLeaderboard(tournamentId));
+        if (loadedGeneration != generation.get()) {
+            return loaded;
+        }
+        Leaderboard cached = leaderboards.asMap().putIfAbsent(tournamentId, loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    /**
+     * Keeps a leaderboard loaded from a snapshot before the commit of a score out of the cache: a load still
+     * running is not cached, and one cached meanwhile is evicted unless it is the leaderboard the score has
+     * been recorded in.
+     */
+    private void scoreCommitted(Long tournamentId, Leaderboard recorded) {
+        generation.incrementAndGet();
+        leaderboards.asMap().computeIfPresent(tournamentId, (id, cached) -> cached == recorded ? cached : null);
+    }
+
+    private void evict(Long tournamentId) {
+        generation.incrementAndGet();
+        leaderboards.invalidate(tournamentId);
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        leaderboards.invalidateAll();
+    }
+
+    private Leaderboard loadLeaderboard(Long tournamentId) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            Tournament tournament = tournamentRepository.findById(tournamentId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "Tournament " + tournamentId + " not found"));
+            if (tournament.getGolfCourseId() == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Tournament " + tournamentId + " has no golf course assigned");
+            }
+            GolfCourse golfCourse = golfCourseRepository.findById(tournament.getGolfCourseId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Golf course " + tournament.getGolfCourseId() + " of tournament " + tournamentId + " not found"));
+
+            int maxHoleNumber = 0;
+            for (Hole hole : golfCourse.getHoles()) {
+                maxHoleNumber = Math.max(maxHoleNumber, hole.getNumber());
+            }
+            int[] parByHole = new int[maxHoleNumber + 1];
+            for (Hole hole : golfCourse.getHoles()) {
+                if (hole.getNumber() > 0) {
+                    parByHole[hole.getNumber()] = hole.getPar();
+                }
+            }
+            Leaderboard leaderboard = new Leaderboard(parByHole);
+
+            List<Score> scores = scoreRepository.findByTournamentId(tournamentId);
+            Set<Long> memberIds = new HashSet<>();
+            for (Score score : scores) {
+                memberIds.add(score.getMemberId());
+            }
+            Map<Long, String> namesById = new HashMap<>();
+            for (Member member : memberRepository.findAllById(memberIds)) {
+                namesById.put(member.getId(), member.getName());
+            }
+            long[] scoreMemberIds = new long[scores.size()];
+            String[] scoreNames = new String[scores.size()];
+            int[] holeNumbers = new int[scores.size()];
+            int[] strokes = new int[scores.size()];
+            for (int i = 0; i < scores.size(); i++) {
+                Score score = scores.get(i);
+                scoreMemberIds[i] = score.getMemberId();
+                scoreNames[i] = namesById.get(score.getMemberId());
+                holeNumbers[i] = score.getHoleNumber();
+                strokes[i] = score.getStrokes();
+            }
+            leaderboard.recordAll(scoreMemberIds, scoreNames, holeNumbers, strokes);
+            return leaderboard;
+        });
+    }
+}
@@ -12,12 +12,34 @@
  */
 package de.hse.golfclubmanagement.services;
 
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.NameMatch;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
 import de.hse.golfclubmanagement.models.Member;
 import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.NameView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing Member entities.
@@ -28,17 +50,109 @@ import java.util.List;
 @Service
 public class MemberService {
 
+    /**
+     * The maximum number of Member entities returned in a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * In-memory index over all names for autocomplete lookups.
+     */
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+
+    /**
+     * In-memory trigram index over all names for typo-tolerant searches.
+     */
+    private final NameTrigramIndex fuzzyNameIndex = new NameTrigramIndex();
+
     /**
      * Adds a new Member entity to the database.
+     * Clears the name lookup cache, as the write may rename an existing Member.
+     * A welcome notification for new members is written to the outbox in the same transaction.
      *
      * @param member the Member entity to add
      * @return the saved Member entity
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.MEMBERS_BY_NAME, allEntries = true)
     public Member addMember(Member member) {
-        return memberRepository.save(member);
+        boolean isNew = member.getId() == null || !memberRepository.existsById(member.getId());
+        Member savedMember = memberRepository.save(member);
+        if (isNew) {
+            notificationOutbox.notifyMember(NotificationOutbox.MEMBER_ADDED, savedMember.getId(),
+                    "Welcome to the golf club, " + savedMember.getName() + "!");
+        }
+        entityVersions.increment(EntityVersions.Type.MEMBERS);
+        eventPublisher.publishEvent(EntityChangedEvent.saved(EntityVersions.Type.MEMBERS, isNew,
+                savedMember.getId(), savedMember.getName()));
+        return savedMember;
+    }
+
+    /**
+     * Checks that the given Member can be written asynchronously (see WriteBehindWriter):
+     * it must be new and have a name.
+     *
+     * @param member the Member to check
+     * @throws ResponseStatusException 400 if the Member has an id or no valid name
+     */
+    public void validateNewMember(Member member) {
+        WriteBehindWriter.requireNewNamed(member.getId(), member.getName());
+    }
+
+    /**
+     * Adds new Member entities within a single transaction, e.g. the members queued by the WriteBehindWriter.
+     * The inserts are sent in JDBC batches; a welcome notification per member is written to the outbox.
+     *
+     * @param members the new Member entities, without id
+     * @return the saved Member entities in the same order
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.MEMBERS_BY_NAME, allEntries = true)
+    public List<Member> addNewMembers(List<Member> members) {
+        List<Member> savedMembers = memberRepository.saveAll(members);
+        for (Member savedMember : savedMembers) {
+            notificationOutbox.notifyMember(NotificationOutbox.MEMBER_ADDED, savedMember.getId(),
+                    "Welcome to the golf club, " + savedMember.getName() + "!");
+            eventPublisher.publishEvent(EntityChangedEvent.saved(EntityVersions.Type.MEMBERS, true,
+                    savedMember.getId(), savedMember.getName()));
+        }
+        entityVersions.increment(EntityVersions.Type.MEMBERS);
+        return savedMembers;
+    }
+
+    /**
+     * Imports a large number of Member entities using batched inserts.
+     * The entities are persisted in chunks, each within its own transaction.
+     *
+     * @param members the Member entities to import, read lazily
+     * @return a summary with the number of imported entities and the throughput
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.MEMBERS_BY_NAME, allEntries = true)
+    public BulkImportResult importMembers(Iterator<Member> members) {
+        return bulkImporter.importAll(members, chunk -> {
+            Map<Long, String> names = new LinkedHashMap<>();
+            chunk.forEach(savedMember -> names.put(savedMember.getId(), savedMember.getName()));
+            entityVersions.increment(EntityVersions.Type.MEMBERS);
+            eventPublisher.publishEvent(EntityChangedEvent.imported(EntityVersions.Type.MEMBERS, names));
+        });
     }
 
     /**
@@ -46,17 +160,169 @@ public class MemberService {
      *
      * @return a list of all Member entities
      */
+    @Transactional(readOnly = true)
     public List<Member> getAllMembers() {
         return memberRepository.findAll();
     }
 
     /**
      * Finds a Member by their name.
+     * Results, including misses, are served from a bounded cache (see CacheConfiguration).
      *
      * @param name the name of the Member to find
      * @return the Member with the specified name, or null if not found
      */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfiguration.MEMBERS_BY_NAME, key = "#name")
     public Member findByName(String name) {
-        return memberRepository.findByName(name);
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> memberRepository.findByName(name));
+    }
+
+    /**
+     * Retrieves the next page of Member entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last Member of the previous page, or null for the first page
+     * @param limit   the maximum number of entities to return, capped at {@link #MAX_PAGE_SIZE}
+     * @return the Member entities following afterId, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<Member> getMembersAfter(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return memberRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the given fields of all Member entities (sparse fieldset).
+     * Only the requested columns are selected and no entities are loaded.
+     *
+     * @param fields the names of the fields to return, the id is always returned
+     * @return one row per Member, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllMemberFields(List<String> fields) {
+        return memberRepository.findAllFields(SparseFields.validate(fields, memberRepository.getSelectableFields()));
+    }
+
+    /**
+     * Retrieves the given fields of the Member with the given name (sparse fieldset).
+     *
+     * @param name   the name of the Member to find
+     * @param fields the names of the fields to return, the id is always returned
+     * @return the requested fields of the Member, or null if not found
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findFieldsByName(String name, List<String> fields) {
+        return memberRepository.findFieldsByName(name, SparseFields.validate(fields, memberRepository.getSelectableFields()))
+                .orElse(null);
+    }
+
+    /**
+     * Retrieves the given fields of the next page of Member entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last Member of the previous page, or null for the first page
+     * @param limit   the maximum number of rows to return, capped at {@link #MAX_PAGE_SIZE}
+     * @param fields  the names of the fields to return, the id is always returned
+     * @return one row per Member following afterId, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getMemberFieldsAfter(Long afterId, int limit, List<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return memberRepository.findFieldsAfter(afterId != null ? afterId : 0L, pageSize,
+                SparseFields.validate(fields, memberRepository.getSelectableFields()));
+    }
+
+    /**
+     * Streams all Member entities from the database to the given consumer.
+     * Each entity is detached once it has been consumed, so the persistence
+     * context does not grow with the size of the table.
+     *
+     * @param consumer the consumer receiving the Member entities ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void streamAllMembers(Consumer<Member> consumer) {
+        try (Stream<Member> members = memberRepository.streamAll()) {
+            members.forEach(member -> {
+                consumer.accept(member);
+                entityManager.detach(member);
+            });
+        }
+    }
+
+    /**
+     * Finds Member entities whose name starts with the given prefix.
+     * The lookup is served from the in-memory name index and does not touch the database.
+     *
+     * @param prefix the prefix to search for (case-insensitive)
+     * @param limit  the maximum number of suggestions to return
+     * @return the matching suggestions ordered by name
+     */
+    public List<NameSuggestion> autocomplete(String prefix, int limit) {
+        return nameIndex.findByPrefix(prefix, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Finds Member entities whose name is similar to the given name, tolerating typos.
+     * The search is served from the in-memory trigram index and does not touch the database.
+     *
+     * @param name          the name to search for (case- and accent-insensitive)
+     * @param minSimilarity the minimum similarity of a name to be returned, between 0 (exclusive) and 1
+     * @param limit         the maximum number of matches to return
+     * @return the matching Member entities ordered by descending similarity
+     * @throws ResponseStatusException 400 if the minimum similarity is out of range
+     */
+    public List<NameMatch> search(String name, double minSimilarity, int limit) {
+        if (!(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minSimilarity must be greater than 0 and at most 1");
+        }
+        return fuzzyNameIndex.search(name, minSimilarity, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Adds the names of a committed write to the in-memory name indexes. The indexes are only updated
+     * after commit: the ids are assigned before the insert, so a rolled back write (e.g. a failed
+     * write-behind batch, retried entity by entity) would otherwise leave entries of rows that do not exist.
+     *
+     * @param change the committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent change) {
+        if (change.getType() != EntityVersions.Type.MEMBERS) {
+            return;
+        }
+        // waits for a running rebuild, which may have read the names before this write was committed
+        synchronized (nameIndex) {
+            change.getNames().forEach((id, name) -> {
+                nameIndex.put(id, name);
+                fuzzyNameIndex.put(id, name);
+            });
+        }
+    }
+
+    /**
+     * Reloads the in-memory name indexes after another instance has written members.
+     *
+     * @param event the write of another instance
+     */
+    @EventListener
+    public void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+        if (event.getType() == EntityVersions.Type.MEMBERS) {
+            rebuildNameIndex();
+        }
+    }
+
+    /**
+     * Loads the names of all Member entities into the in-memory name indexes
+     * once the application has started and after writes of other instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildNameIndex() {
+        synchronized (nameIndex) {
+            List<NameView> names = ReadWriteRoutingDataSource.readFromPrimary(memberRepository::findAllNames);
+            nameIndex.rebuild(names);
+            fuzzyNameIndex.rebuild(names);
+        }
     }
 }
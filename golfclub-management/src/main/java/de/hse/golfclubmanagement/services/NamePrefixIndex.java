@@ -0,0 +1,132 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.NameSuggestion;
+import de.hse.golfclubmanagement.repositories.NameView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory sorted index over entity names for prefix (type-ahead) lookups.
+ * Names are kept in a skip list ordered by their normalized form, so a prefix
+ * query is a single O(log n) seek followed by a scan over the matches only.
+ * The index is thread-safe and is kept in sync by the owning service on writes; a rebuild
+ * replaces the content at once, so lookups never see a partially loaded index. Puts must not
+ * run concurrently with a rebuild, as they could be applied to the replaced content.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class NamePrefixIndex {
+
+    /**
+     * Separates the normalized name from the id inside an index key,
+     * so that several entities may share the same name.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * The current content of the index.
+     */
+    private volatile Entries current = new Entries();
+
+    /**
+     * Replaces the content of the index with the given names.
+     *
+     * @param names the id and name of every indexed entity
+     */
+    void rebuild(List<? extends NameView> names) {
+        Entries rebuilt = new Entries();
+        for (NameView view : names) {
+            rebuilt.put(view.getId(), view.getName());
+        }
+        current = rebuilt;
+    }
+
+    /**
+     * Adds or updates the name of an entity.
+     *
+     * @param id   the id of the entity
+     * @param name the (new) name of the entity
+     */
+    void put(Long id, String name) {
+        current.put(id, name);
+    }
+
+    /**
+     * Finds the entities whose name starts with the given prefix (case-insensitive).
+     *
+     * @param prefix the prefix to search for
+     * @param limit  the maximum number of suggestions to return
+     * @return the matching suggestions ordered by name
+     */
+    List<NameSuggestion> findByPrefix(String prefix, int limit) {
+        List<NameSuggestion> result = new ArrayList<>(Math.min(limit, 64));
+        String normalizedPrefix = normalize(prefix);
+        ConcurrentNavigableMap<String, NameSuggestion> tail = current.entries.tailMap(normalizedPrefix);
+        for (Map.Entry<String, NameSuggestion> entry : tail.entrySet()) {
+            if (result.size() >= limit || !entry.getKey().startsWith(normalizedPrefix)) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of indexed entities.
+     *
+     * @return the number of indexed entities
+     */
+    int size() {
+        return current.keysById.size();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The indexed names.
+     */
+    private static final class Entries {
+
+        /**
+         * Sorted index keyed by normalized name and id.
+         */
+        private final ConcurrentSkipListMap<String, NameSuggestion> entries = new ConcurrentSkipListMap<>();
+
+        /**
+         * The current index key per entity id, needed to replace renamed entities.
+         */
+        private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+
+        private void put(Long id, String name) {
+            if (id == null || name == null) {
+                return;
+            }
+            String key = normalize(name) + KEY_SEPARATOR + id;
+            String previousKey = keysById.put(id, key);
+            if (previousKey != null && !previousKey.equals(key)) {
+                entries.remove(previousKey);
+            }
+            entries.put(key, new NameSuggestion(id, name));
+        }
+    }
+}
@@ -0,0 +1,444 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.NameMatch;
+import de.hse.golfclubmanagement.repositories.NameView;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over entity names for typo-tolerant (fuzzy) lookups.
+ * Every name is split into words, each word padded with two leading and one trailing blank
+ * and cut into its trigrams, e.g. "Bob" into "  b", " bo", "bob" and "ob ". The similarity of two
+ * names is the Jaccard coefficient of their trigram sets, so a single typo still shares most trigrams.
+ * <p>
+ * The indexed names are numbered densely in insertion order; each trigram maps to a sorted
+ * {@code int[]} of these numbers (posting list). A query counts the shared trigrams per name in an
+ * {@code int[]} over the rarest posting lists only, as a name sharing fewer trigrams cannot reach the
+ * minimum similarity, and then probes the remaining (long) lists for these candidates only.
+ * The index is thread-safe and is kept in sync by the owning service on writes; a rebuild loads the
+ * names aside and replaces the content at once, so searches are neither blocked nor see a partial index.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class NameTrigramIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Orders matches by descending similarity, then by id.
+     */
+    private static final Comparator<NameMatch> RANKING = Comparator.comparingDouble(NameMatch::getSimilarity).reversed()
+            .thenComparing(NameMatch::getId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The posting list per trigram, keyed by the three characters packed into a long.
+     */
+    private PostingsTable postings = new PostingsTable();
+
+    /**
+     * The number of the current name per entity id.
+     */
+    private Map<Long, Integer> numbersById = new HashMap<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    /**
+     * The number of distinct trigrams per name, 0 for names that have been replaced by a rename.
+     */
+    private int[] trigramCounts = new int[INITIAL_CAPACITY];
+
+    private int nameCount;
+
+    private int replacedCount;
+
+    /**
+     * Replaces the content of the index with the given names.
+     *
+     * @param views the id and name of every indexed entity
+     */
+    void rebuild(List<? extends NameView> views) {
+        NameTrigramIndex rebuilt = new NameTrigramIndex();
+        for (NameView view : views) {
+            if (view.getId() != null && view.getName() != null) {
+                rebuilt.putLocked(view.getId(), view.getName());
+            }
+        }
+        rebuilt.postings.trimToSize();
+        lock.writeLock().lock();
+        try {
+            postings = rebuilt.postings;
+            numbersById = rebuilt.numbersById;
+            ids = rebuilt.ids;
+            names = rebuilt.names;
+            trigramCounts = rebuilt.trigramCounts;
+            nameCount = rebuilt.nameCount;
+            replacedCount = rebuilt.replacedCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or updates the name of an entity.
+     *
+     * @param id   the id of the entity
+     * @param name the (new) name of the entity
+     */
+    void put(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            putLocked(id, name);
+            if (replacedCount > INITIAL_CAPACITY && replacedCount > nameCount / 2) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the entities whose name is similar to the given query.
+     *
+     * @param query         the name to search for, may contain typos
+     * @param minSimilarity the minimum similarity of a name to be returned, between 0 (exclusive) and 1
+     * @param limit         the maximum number of matches to return
+     * @return the matching entities ordered by descending similarity
+     */
+    List<NameMatch> search(String query, double minSimilarity, int limit) {
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[queryTrigrams.length];
+            int listCount = 0;
+            for (long trigram : queryTrigrams) {
+                Postings list = postings.get(trigram);
+                if (list != null) {
+                    lists[listCount++] = list;
+                }
+            }
+            Arrays.sort(lists, 0, listCount, Comparator.comparingInt(list -> list.size));
+
+            // A match shares at least minOverlap trigrams with the query, so it occurs in one of the
+            // (queryTrigrams.length - minOverlap + 1) rarest lists; trigrams unknown to the index count as empty lists.
+            int minOverlap = Math.max(1, (int) Math.ceil(minSimilarity * queryTrigrams.length));
+            int candidateLists = listCount - minOverlap + 1;
+            if (candidateLists <= 0) {
+                return Collections.emptyList();
+            }
+            int[] overlaps = new int[nameCount];
+            int candidateCapacity = 0;
+            for (int i = 0; i < candidateLists; i++) {
+                candidateCapacity += lists[i].size;
+            }
+            int[] candidates = new int[Math.min(candidateCapacity, nameCount)];
+            int candidateCount = 0;
+            for (int i = 0; i < candidateLists; i++) {
+                Postings list = lists[i];
+                for (int j = 0; j < list.size; j++) {
+                    int number = list.numbers[j];
+                    if (overlaps[number]++ == 0) {
+                        candidates[candidateCount++] = number;
+                    }
+                }
+            }
+            for (int i = candidateLists; i < listCount; i++) {
+                countOverlaps(lists[i], candidates, candidateCount, overlaps);
+            }
+            return rank(candidates, candidateCount, overlaps, queryTrigrams.length, minSimilarity, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed entities.
+     *
+     * @return the number of indexed entities
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return numbersById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(long id, String name) {
+        Integer previous = numbersById.get(id);
+        if (previous != null) {
+            if (name.equals(names[previous])) {
+                return;
+            }
+            trigramCounts[previous] = 0;
+            names[previous] = null;
+            replacedCount++;
+        }
+        long[] nameTrigrams = trigrams(name);
+        int number = nameCount++;
+        if (number == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        }
+        ids[number] = id;
+        names[number] = name;
+        // a name without any letter or digit is kept (and not matched), so a rename can replace it
+        trigramCounts[number] = nameTrigrams.length;
+        numbersById.put(id, number);
+        for (long trigram : nameTrigrams) {
+            postings.getOrCreate(trigram).add(number);
+        }
+    }
+
+    /**
+     * Renumbers the current names, dropping the postings of replaced names.
+     */
+    private void compact() {
+        int count = nameCount;
+        long[] currentIds = ids;
+        String[] currentNames = names;
+        clear();
+        for (int number = 0; number < count; number++) {
+            if (currentNames[number] != null) {
+                putLocked(currentIds[number], currentNames[number]);
+            }
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        numbersById.clear();
+        ids = new long[INITIAL_CAPACITY];
+        names = new String[INITIAL_CAPACITY];
+        trigramCounts = new int[INITIAL_CAPACITY];
+        nameCount = 0;
+        replacedCount = 0;
+    }
+
+    /**
+     * Increments the overlap of every candidate contained in the given list. Few candidates are looked up by
+     * binary search in the sorted list, otherwise the list is scanned.
+     */
+    private static void countOverlaps(Postings list, int[] candidates, int candidateCount, int[] overlaps) {
+        int searchCost = 32 - Integer.numberOfLeadingZeros(list.size);
+        if ((long) candidateCount * searchCost < list.size) {
+            for (int i = 0; i < candidateCount; i++) {
+                if (Arrays.binarySearch(list.numbers, 0, list.size, candidates[i]) >= 0) {
+                    overlaps[candidates[i]]++;
+                }
+            }
+        } else {
+            for (int j = 0; j < list.size; j++) {
+                int number = list.numbers[j];
+                if (overlaps[number] > 0) {
+                    overlaps[number]++;
+                }
+            }
+        }
+    }
+
+    private List<NameMatch> rank(int[] candidates, int candidateCount, int[] overlaps, int queryTrigramCount,
+                                 double minSimilarity, int limit) {
+        PriorityQueue<NameMatch> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (int i = 0; i < candidateCount; i++) {
+            int number = candidates[i];
+            int overlap = overlaps[number];
+            if (trigramCounts[number] == 0) {
+                continue;
+            }
+            double similarity = (double) overlap / (queryTrigramCount + trigramCounts[number] - overlap);
+            if (similarity < minSimilarity || best.size() == limit && !ranksBefore(similarity, ids[number], best.peek())) {
+                continue;
+            }
+            best.add(new NameMatch(ids[number], names[number], similarity));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<NameMatch> result = new ArrayList<>(best);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private static boolean ranksBefore(double similarity, long id, NameMatch match) {
+        return similarity > match.getSimilarity() || similarity == match.getSimilarity() && id < match.getId();
+    }
+
+    /**
+     * Gets the distinct trigrams of the words of a name, ignoring case, accents and punctuation.
+     *
+     * @param name the name to split
+     * @return the sorted trigrams, each packed into a long
+     */
+    static long[] trigrams(String name) {
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        long[] result = new long[normalized.length() * 2 + 2];
+        int count = 0;
+        int wordStart = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordChar && wordStart >= 0) {
+                char first = ' ';
+                char second = ' ';
+                for (int j = wordStart; j <= i; j++) {
+                    char third = j < i ? normalized.charAt(j) : ' ';
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = ((long) first << 32) | ((long) second << 16) | third;
+                    first = second;
+                    second = third;
+                }
+                wordStart = -1;
+            }
+        }
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Hash table from trigram to posting list with open addressing (linear probing) on a primitive
+     * {@code long[]} of keys; 0 marks a free slot, as every trigram contains at least one non-zero character.
+     */
+    private static final class PostingsTable {
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+
+        private Postings[] values = new Postings[INITIAL_CAPACITY];
+
+        private int size;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        Postings getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            Postings list = new Postings();
+            keys[slot] = key;
+            values[slot] = list;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return list;
+        }
+
+        void clear() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Postings[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        void trimToSize() {
+            for (Postings list : values) {
+                if (list != null) {
+                    list.trimToSize();
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+
+    /**
+     * Growable, ascending list of name numbers.
+     */
+    private static final class Postings {
+
+        private int[] numbers = new int[4];
+
+        private int size;
+
+        void add(int number) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+        void trimToSize() {
+            if (size < numbers.length) {
+                numbers = Arrays.copyOf(numbers, size);
+            }
+        }
+    }
+}
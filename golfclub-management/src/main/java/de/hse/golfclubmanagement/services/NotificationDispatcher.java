@@ -0,0 +1,380 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.OutboxEvent;
+import de.hse.golfclubmanagement.models.OutboxEvent.Status;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the notifications of the transactional outbox (see NotificationOutbox)
+ * to the notification-service in the background.
+ * <p>
+ * The dispatcher runs on its own thread, as pacing the deliveries keeps it busy for
+ * batch-size / max-per-second seconds per batch; the shared scheduler stays free for the
+ * other background jobs. Every poll claims one batch of due events: the events are locked, their next attempt is moved
+ * behind a lease and the lock is released again, so no database lock is held while sending.
+ * A notification for all members is split into one event per member, one page of members per claim, so
+ * every page is committed on its own; the id of the last member is kept on the notification for the next page.
+ * The events are then posted one by one, paced to golfclub.notifications.max-per-second,
+ * and the results of the whole batch are written in a single transaction. After a full batch
+ * the next poll follows immediately, otherwise after golfclub.notifications.poll-interval-ms.
+ * Failed deliveries are retried with exponential backoff until golfclub.notifications.max-attempts
+ * is reached; if the notification-service cannot be reached, the rest of the batch is postponed.
+ * Delivery is at-least-once: an event sent right before a crash is sent again once its lease expires.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+@ConditionalOnProperty(name = "golfclub.notifications.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationDispatcher implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    /**
+     * The number of per-member events written per transaction when a notification for all members is split up.
+     */
+    private static final int FAN_OUT_PAGE_SIZE = 1000;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * How long the shutdown waits for the batch in delivery before interrupting it.
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("notificationRestTemplate")
+    private RestTemplate restTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String url;
+
+    private final int batchSize;
+
+    private final long pollIntervalMillis;
+
+    private final long sendIntervalNanos;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final long leaseMillis;
+
+    private final long retentionMillis;
+
+    private final Counter delivered;
+
+    private final Counter retried;
+
+    private final Counter failed;
+
+    private long nextSendAt = System.nanoTime();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param transactionManager the transaction manager used to claim and complete batches
+     * @param meterRegistry      the registry of the delivery counters
+     * @param url                the URL of the notifications endpoint
+     * @param batchSize          the maximum number of events claimed per poll
+     * @param pollIntervalMillis the delay between polls when no full batch was due
+     * @param maxPerSecond       the maximum number of notifications sent per second
+     * @param maxAttempts        the number of failed attempts after which an event is given up
+     * @param retryBackoffMillis the delay before the first retry, doubled with every further attempt
+     * @param maxBackoffMillis   the upper limit of the retry delay
+     * @param leaseMillis        how long claimed events are hidden from other dispatchers
+     * @param retentionDays      how long delivered events are kept
+     */
+    public NotificationDispatcher(PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${golfclub.notifications.url}") String url,
+                                  @Value("${golfclub.notifications.batch-size:100}") int batchSize,
+                                  @Value("${golfclub.notifications.poll-interval-ms:1000}") long pollIntervalMillis,
+                                  @Value("${golfclub.notifications.max-per-second:50}") int maxPerSecond,
+                                  @Value("${golfclub.notifications.max-attempts:10}") int maxAttempts,
+                                  @Value("${golfclub.notifications.retry-backoff-ms:1000}") long retryBackoffMillis,
+                                  @Value("${golfclub.notifications.max-backoff-ms:600000}") long maxBackoffMillis,
+                                  @Value("${golfclub.notifications.lease-ms:60000}") long leaseMillis,
+                                  @Value("${golfclub.notifications.retention-days:7}") int retentionDays) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.url = url;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        this.sendIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxPerSecond);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = Math.max(1, retryBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.retryBackoffMillis, maxBackoffMillis);
+        this.leaseMillis = leaseMillis;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+        this.delivered = Counter.builder("golfclub.notifications.delivered")
+                .description("Notifications delivered to the notification-service").register(meterRegistry);
+        this.retried = Counter.builder("golfclub.notifications.retried")
+                .description("Failed notification deliveries that will be retried").register(meterRegistry);
+        this.failed = Counter.builder("golfclub.notifications.failed")
+                .description("Notifications given up after the maximum number of attempts").register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = executor;
+        executor.schedule(this::poll, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                // the unsent events of the batch are delivered again once their lease expires
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void poll() {
+        boolean more = false;
+        try {
+            more = dispatch();
+        } catch (RuntimeException e) {
+            LOG.error("Delivering notifications failed", e);
+        }
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null && !executor.isShutdown()) {
+            executor.schedule(this::poll, more ? 0 : pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Delivers one batch of due events; if no full batch was due, removes old delivered events.
+     *
+     * @return true if further events are probably due
+     */
+    boolean dispatch() {
+        List<OutboxEvent> locked = claimBatch();
+        List<OutboxEvent> batch = new ArrayList<>(locked.size());
+        for (OutboxEvent event : locked) {
+            if (event.getUserId() != null) {
+                batch.add(event);
+            }
+        }
+        boolean reachable = batch.isEmpty() || deliver(batch);
+        // a full batch leaves events behind, a split notification for all members has just created new ones
+        if (reachable && (locked.size() == batchSize || batch.size() < locked.size())) {
+            return true;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deleteSentBefore(new Date(System.currentTimeMillis() - retentionMillis)));
+        return false;
+    }
+
+    /**
+     * Locks the due events, splits the next page of notifications for all members and leases the others.
+     *
+     * @return the locked events, detached; the notifications for all members are completed after their last page
+     */
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            Date now = new Date();
+            List<OutboxEvent> locked = outboxEventRepository.lockDueEvents(now, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : locked) {
+                if (event.getUserId() == null) {
+                    if (!fanOut(event)) {
+                        event.setStatus(Status.SENT);
+                        event.setSentAt(now);
+                    }
+                } else {
+                    event.setNextAttemptAt(new Date(now.getTime() + leaseMillis));
+                }
+            }
+            return locked;
+        });
+    }
+
+    /**
+     * Writes the events for the next page of members of a notification for all members.
+     *
+     * @param broadcast the notification for all members, locked
+     * @return true if members may follow the page
+     */
+    private boolean fanOut(OutboxEvent broadcast) {
+        Long cursor = broadcast.getFanOutCursor() != null ? broadcast.getFanOutCursor() : 0L;
+        List<Long> memberIds = memberRepository.findIdsAfter(cursor, PageRequest.of(0, FAN_OUT_PAGE_SIZE));
+        for (Long memberId : memberIds) {
+            entityManager.persist(NotificationOutbox.newEvent(broadcast.getEventType(), memberId, broadcast.getMessage()));
+        }
+        if (!memberIds.isEmpty()) {
+            broadcast.setFanOutCursor(memberIds.get(memberIds.size() - 1));
+        }
+        return memberIds.size() == FAN_OUT_PAGE_SIZE;
+    }
+
+    /**
+     * Sends the claimed events and stores the results.
+     *
+     * @param batch the claimed events
+     * @return false if the notification-service could not be reached
+     */
+    private boolean deliver(List<OutboxEvent> batch) {
+        Map<Long, String> errors = new HashMap<>();
+        Set<Long> rejected = new HashSet<>();
+        List<Long> sent = new ArrayList<>();
+        List<Long> postponed = new ArrayList<>();
+        boolean reachable = true;
+        for (OutboxEvent event : batch) {
+            if (!reachable) {
+                postponed.add(event.getId());
+                continue;
+            }
+            pace();
+            try {
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("user_id", event.getUserId());
+                payload.put("message", event.getMessage());
+                restTemplate.postForEntity(url, payload, Void.class);
+                sent.add(event.getId());
+            } catch (HttpClientErrorException e) {
+                // the payload was rejected, retrying will not help
+                errors.put(event.getId(), "rejected with status " + e.getRawStatusCode());
+                rejected.add(event.getId());
+            } catch (ResourceAccessException e) {
+                errors.put(event.getId(), e.getMessage());
+                reachable = false;
+            } catch (RestClientException e) {
+                errors.put(event.getId(), e.getMessage());
+            }
+        }
+        if (!reachable) {
+            LOG.warn("Notification service at {} is not reachable, postponing {} notifications", url, postponed.size() + 1);
+        }
+        transactionTemplate.executeWithoutResult(status -> complete(batch, sent, errors, rejected, postponed));
+        return reachable;
+    }
+
+    private void complete(List<OutboxEvent> batch, List<Long> sent, Map<Long, String> errors, Set<Long> rejected,
+                          List<Long> postponed) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ids.add(event.getId());
+        }
+        Map<Long, OutboxEvent> events = new HashMap<>();
+        for (OutboxEvent event : outboxEventRepository.findAllById(ids)) {
+            events.put(event.getId(), event);
+        }
+        long now = System.currentTimeMillis();
+        for (Long id : sent) {
+            OutboxEvent event = events.get(id);
+            event.setStatus(Status.SENT);
+            event.setSentAt(new Date(now));
+            delivered.increment();
+        }
+        for (Long id : postponed) {
+            events.get(id).setNextAttemptAt(new Date(now + retryBackoffMillis));
+        }
+        for (Map.Entry<Long, String> error : errors.entrySet()) {
+            OutboxEvent event = events.get(error.getKey());
+            String message = error.getValue() != null ? error.getValue() : "unknown error";
+            event.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            event.setAttempts(event.getAttempts() + 1);
+            if (rejected.contains(event.getId()) || event.getAttempts() >= maxAttempts) {
+                event.setStatus(Status.FAILED);
+                failed.increment();
+                LOG.warn("Giving up notification {} for member {} after {} attempts: {}",
+                        event.getId(), event.getUserId(), event.getAttempts(), message);
+            } else {
+                long backoff = Math.min(maxBackoffMillis, retryBackoffMillis << Math.min(20, event.getAttempts() - 1));
+                event.setNextAttemptAt(new Date(now + backoff));
+                retried.increment();
+            }
+        }
+    }
+
+    /**
+     * Waits until the next notification may be sent according to the rate limit.
+     */
+    private void pace() {
+        long now = System.nanoTime();
+        long wait = nextSendAt - now;
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        nextSendAt = Math.max(now, nextSendAt) + sendIntervalNanos;
+    }
+}
@@ -0,0 +1,82 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.OutboxEvent;
+import de.hse.golfclubmanagement.repositories.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+/**
+ * Writes notifications to the transactional outbox.
+ * Must be called within the transaction that writes the entity the notification reports on,
+ * so that the notification is stored if and only if the entity is; the NotificationDispatcher
+ * delivers it to the notification-service afterwards.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+public class NotificationOutbox {
+
+    /**
+     * Event type of the welcome notification of a new member.
+     */
+    public static final String MEMBER_ADDED = "MEMBER_ADDED";
+
+    /**
+     * Event type of the announcement of a new tournament to all members.
+     */
+    public static final String TOURNAMENT_ADDED = "TOURNAMENT_ADDED";
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Adds a notification for a single member.
+     *
+     * @param eventType the kind of change that caused the notification
+     * @param userId    the id of the member to notify
+     * @param message   the text of the notification
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyMember(String eventType, Long userId, String message) {
+        outboxEventRepository.save(newEvent(eventType, userId, message));
+    }
+
+    /**
+     * Adds a notification for all members. It is split into one notification
+     * per member in the background, not within the calling transaction.
+     *
+     * @param eventType the kind of change that caused the notification
+     * @param message   the text of the notification
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyAllMembers(String eventType, String message) {
+        outboxEventRepository.save(newEvent(eventType, null, message));
+    }
+
+    static OutboxEvent newEvent(String eventType, Long userId, String message) {
+        Date now = new Date();
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setUserId(userId);
+        event.setMessage(message);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        return event;
+    }
+}
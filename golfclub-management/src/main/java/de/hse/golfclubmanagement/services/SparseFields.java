@@ -0,0 +1,55 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helper for validating the fields requested with the fields parameter (sparse fieldsets).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class SparseFields {
+
+    private SparseFields() {
+    }
+
+    /**
+     * Normalizes the requested field names and checks them against the selectable fields.
+     *
+     * @param requested  the requested field names, possibly with blanks or empty entries
+     * @param selectable the names of the selectable fields
+     * @return the trimmed field names in the requested order
+     * @throws ResponseStatusException 400 if a field cannot be selected
+     */
+    static List<String> validate(List<String> requested, Set<String> selectable) {
+        List<String> fields = new ArrayList<>(requested.size());
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!selectable.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name + "', expected one of " + selectable);
+            }
+            fields.add(name);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,232 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.TeeTimeBooking;
+import de.hse.golfclubmanagement.repositories.TeeTimeBookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes tee time bookings and cancellations to the database in the background.
+ * The operations are applied in the order they were accepted, in batches of up to
+ * golfclub.teetimes.write-batch-size operations per transaction (group commit). Every
+ * operation returns a future that completes once its transaction has been committed, so
+ * the caller can confirm the operation only when it is durable. If a batch fails, its
+ * operations are retried one by one; for every operation that still fails, the callback is
+ * invoked, e.g. to free the slot of a booking rejected by the database, and the future
+ * completes exceptionally.
+ * At most golfclub.teetimes.write-queue-capacity operations wait to be written; further
+ * operations are rejected with 503. Pending operations are written before the application shuts down.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Component
+class TeeTimeBookingWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TeeTimeBookingWriter.class);
+
+    /**
+     * How long the writer waits for new operations before checking for shutdown.
+     */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    @Autowired
+    private TeeTimeBookingRepository bookingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final BlockingQueue<Operation> queue;
+
+    private final Object acceptLock = new Object();
+
+    private boolean accepting = true;
+
+    private Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param transactionManager the transaction manager used for the batches
+     * @param batchSize          the maximum number of operations per transaction
+     * @param queueCapacity      the maximum number of operations waiting to be written
+     */
+    TeeTimeBookingWriter(PlatformTransactionManager transactionManager,
+                         @Value("${golfclub.teetimes.write-batch-size:500}") int batchSize,
+                         @Value("${golfclub.teetimes.write-queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new Thread(this::writeLoop, "tee-time-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        synchronized (acceptLock) {
+            accepting = false;
+        }
+        running = false;
+        worker.join();
+        List<Operation> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            write(remaining);
+            remaining.clear();
+        }
+    }
+
+    /**
+     * Queues the insert of a booking.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @param slot         the index of the slot
+     * @param memberId     the id of the member
+     * @param onFailure    invoked if the booking is rejected or cannot be written
+     * @return a future completing once the booking has been committed
+     * @throws ResponseStatusException 503 if the queue is full or the application is shutting down
+     */
+    CompletableFuture<Void> book(Long golfCourseId, Date date, int slot, Long memberId, Runnable onFailure) {
+        return enqueue(new Operation(false, golfCourseId, date, slot, memberId, onFailure));
+    }
+
+    /**
+     * Queues the delete of a booking.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @param slot         the index of the slot
+     * @param memberId     the id of the member
+     * @param onFailure    invoked if the cancellation is rejected or cannot be written
+     * @return a future completing once the cancellation has been committed
+     * @throws ResponseStatusException 503 if the queue is full or the application is shutting down
+     */
+    CompletableFuture<Void> cancel(Long golfCourseId, Date date, int slot, Long memberId, Runnable onFailure) {
+        return enqueue(new Operation(true, golfCourseId, date, slot, memberId, onFailure));
+    }
+
+    private CompletableFuture<Void> enqueue(Operation operation) {
+        boolean shuttingDown;
+        synchronized (acceptLock) {
+            if (accepting && queue.offer(operation)) {
+                return operation.written;
+            }
+            shuttingDown = !accepting;
+        }
+        operation.onFailure.run();
+        throw new WriteBehindWriter.QueueFullException(shuttingDown ? "The application is shutting down"
+                : "Too many tee time bookings are waiting to be written");
+    }
+
+    private void writeLoop() {
+        List<Operation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Operation first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Operation> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+        } catch (RuntimeException batchFailure) {
+            for (Operation operation : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(operation));
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not write tee time {} of golf course {} on {} for member {}",
+                            operation.slot, operation.golfCourseId, operation.date, operation.memberId, e);
+                    operation.onFailure.run();
+                    operation.written.completeExceptionally(e);
+                }
+            }
+        }
+        // no effect on the operations that have failed
+        batch.forEach(operation -> operation.written.complete(null));
+    }
+
+    private void apply(Operation operation) {
+        if (operation.cancel) {
+            bookingRepository.deleteBooking(operation.golfCourseId, operation.date, operation.slot, operation.memberId);
+        } else {
+            TeeTimeBooking booking = new TeeTimeBooking();
+            booking.setGolfCourseId(operation.golfCourseId);
+            booking.setDate(operation.date);
+            booking.setSlot(operation.slot);
+            booking.setMemberId(operation.memberId);
+            bookingRepository.save(booking);
+        }
+    }
+
+    private static final class Operation {
+
+        private final boolean cancel;
+
+        private final Long golfCourseId;
+
+        private final Date date;
+
+        private final int slot;
+
+        private final Long memberId;
+
+        private final Runnable onFailure;
+
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Operation(boolean cancel, Long golfCourseId, Date date, int slot, Long memberId, Runnable onFailure) {
+            this.cancel = cancel;
+            this.golfCourseId = golfCourseId;
+            this.date = date;
+            this.slot = slot;
+            this.memberId = memberId;
+            this.onFailure = onFailure;
+        }
+    }
+}
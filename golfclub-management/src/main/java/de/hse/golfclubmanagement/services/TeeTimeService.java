@@ -0,0 +1,297 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.dto.TeeTime;
+import de.hse.golfclubmanagement.dto.TeeTimeRequest;
+import de.hse.golfclubmanagement.models.TeeTimeBooking;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.TeeTimeBookingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service class for booking tee times on golf courses.
+ * The slots of each golf course and day are held in memory (see TeeTimeSlots) and booked
+ * lock-free with compare-and-set, so a burst of concurrent bookings neither waits on a
+ * database lock nor can book a slot twice. The bookings of a day are loaded from the
+ * database on first access; afterwards the slots are reserved in memory and written to the
+ * database in batches (see TeeTimeBookingWriter). A booking or cancellation is confirmed
+ * once its batch has been committed; if the write fails, the reservation is undone.
+ * Only the days from today until golfclub.teetimes.booking-window-days ahead can be booked,
+ * and at most golfclub.teetimes.maximum-days of them are held in memory.
+ * The in-memory state is owned by a single instance; if several instances book the same
+ * golf course, the unique constraint on the slot rejects the second booking with 409 and
+ * the slots of the day are reloaded from the database. The slots of a day are also reloaded
+ * after golfclub.teetimes.time-to-live, so cancellations of other instances become visible.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Service
+public class TeeTimeService {
+
+    @Autowired
+    private GolfCourseRepository golfCourseRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TeeTimeBookingRepository bookingRepository;
+
+    @Autowired
+    private TeeTimeBookingWriter bookingWriter;
+
+    private final LocalTime firstTeeTime;
+
+    private final int intervalMinutes;
+
+    private final int slotsPerDay;
+
+    private final int bookingWindowDays;
+
+    private final long writeTimeoutMillis;
+
+    private final Cache<DayKey, TeeTimeSlots> days;
+
+    /**
+     * Creates a new tee time service.
+     *
+     * @param firstTeeTime       the first tee time of a day
+     * @param intervalMinutes    the minutes between two tee times
+     * @param slotsPerDay        the number of tee times per day
+     * @param bookingWindowDays  the number of days after today that can be booked
+     * @param maximumDays        the maximum number of golf course days held in memory
+     * @param timeToLive         the time after which the slots of a day are reloaded from the database
+     * @param writeTimeoutMillis the time a booking or cancellation waits for its batch to be committed
+     */
+    public TeeTimeService(@Value("${golfclub.teetimes.first-tee-time:07:00}") String firstTeeTime,
+                          @Value("${golfclub.teetimes.interval-minutes:10}") int intervalMinutes,
+                          @Value("${golfclub.teetimes.slots-per-day:72}") int slotsPerDay,
+                          @Value("${golfclub.teetimes.booking-window-days:90}") int bookingWindowDays,
+                          @Value("${golfclub.teetimes.maximum-days:10000}") long maximumDays,
+                          @Value("${golfclub.teetimes.time-to-live:30s}") Duration timeToLive,
+                          @Value("${golfclub.teetimes.write-timeout-ms:10000}") long writeTimeoutMillis) {
+        this.firstTeeTime = LocalTime.parse(firstTeeTime);
+        this.intervalMinutes = intervalMinutes;
+        this.slotsPerDay = slotsPerDay;
+        this.bookingWindowDays = bookingWindowDays;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maximumDays)
+                .expireAfterWrite(timeToLive)
+                .build();
+    }
+
+    /**
+     * Gets all tee times of a golf course on a day, booked and free.
+     * The tee times of past days are read from the database.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @return the tee times of the day ordered by time
+     * @throws ResponseStatusException 400 if the day is after the booking window,
+     *         404 if the golf course does not exist
+     */
+    public List<TeeTime> getTeeTimes(Long golfCourseId, LocalDate date) {
+        TeeTimeSlots slots = date.isBefore(LocalDate.now())
+                ? loadSlots(new DayKey(golfCourseId, date.toEpochDay()))
+                : slotsOf(golfCourseId, date);
+        List<TeeTime> teeTimes = new ArrayList<>(slots.size());
+        for (int slot = 0; slot < slots.size(); slot++) {
+            teeTimes.add(new TeeTime(golfCourseId, date, timeOf(slot), slots.owner(slot)));
+        }
+        return teeTimes;
+    }
+
+    /**
+     * Books a tee time. Without a requested time, the earliest free tee time of the day is booked.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param request      the member, day and optional time to book
+     * @return the booked tee time, once the booking has been committed
+     * @throws ResponseStatusException 400 if the request is invalid or the day is outside the booking
+     *         window, 404 if the golf course or member does not exist, 409 if the tee time or all tee
+     *         times of the day are taken, 503 if too many bookings are waiting to be written or the
+     *         booking cannot be written in time
+     */
+    public TeeTime book(Long golfCourseId, TeeTimeRequest request) {
+        if (request.getMemberId() == null || request.getDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "memberId and date are required");
+        }
+        if (request.getDate().isBefore(LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tee times in the past cannot be booked");
+        }
+        int requestedSlot = request.getTime() != null ? slotOf(request.getTime()) : -1;
+        if (!memberRepository.existsById(request.getMemberId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Member " + request.getMemberId() + " not found");
+        }
+        TeeTimeSlots slots = slotsOf(golfCourseId, request.getDate());
+        long memberId = request.getMemberId();
+        int slot;
+        if (requestedSlot >= 0) {
+            if (!slots.reserve(requestedSlot, memberId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Tee time " + request.getTime() + " is already booked");
+            }
+            slot = requestedSlot;
+        } else {
+            slot = slots.reserveFirstFree(0, memberId);
+            if (slot < 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "All tee times on " + request.getDate() + " are booked");
+            }
+        }
+        int bookedSlot = slot;
+        CompletableFuture<Void> written = bookingWriter.book(golfCourseId, Date.valueOf(request.getDate()), bookedSlot,
+                memberId, () -> slots.release(bookedSlot, memberId));
+        awaitWrite(written, golfCourseId, request.getDate(), slots, "Tee time " + timeOf(bookedSlot) + " is already booked");
+        return new TeeTime(golfCourseId, request.getDate(), timeOf(bookedSlot), memberId);
+    }
+
+    /**
+     * Cancels a booked tee time.
+     *
+     * @param golfCourseId the id of the golf course
+     * @param date         the day
+     * @param time         the start time
+     * @param memberId     the id of the member who booked the tee time
+     * @throws ResponseStatusException 400 if the time is not a tee time or the day is outside the booking
+     *         window, 404 if the tee time is not booked by the member, 503 if the cancellation cannot be
+     *         written in time
+     */
+    public void cancel(Long golfCourseId, LocalDate date, LocalTime time, Long memberId) {
+        if (date.isBefore(LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tee times in the past cannot be cancelled");
+        }
+        int slot = slotOf(time);
+        TeeTimeSlots slots = slotsOf(golfCourseId, date);
+        if (!slots.release(slot, memberId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Tee time " + time + " on " + date + " is not booked by member " + memberId);
+        }
+        CompletableFuture<Void> written = bookingWriter.cancel(golfCourseId, Date.valueOf(date), slot, memberId,
+                () -> slots.reserve(slot, memberId));
+        awaitWrite(written, golfCourseId, date, slots, "Tee time " + time + " on " + date + " could not be cancelled");
+    }
+
+    /**
+     * Waits until a booking or cancellation has been committed.
+     * If another instance has written the slot, the slots of the day are reloaded on the next access.
+     * If the write is not committed in time, the caller gets 503; the write itself stays queued and
+     * is still applied, or undone in memory if it fails.
+     */
+    private void awaitWrite(CompletableFuture<Void> written, Long golfCourseId, LocalDate date, TeeTimeSlots slots,
+                            String conflict) {
+        try {
+            written.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataIntegrityViolationException) {
+                days.asMap().remove(new DayKey(golfCourseId, date.toEpochDay()), slots);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, conflict, e.getCause());
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The tee time could not be saved", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The tee time has not been saved within "
+                    + writeTimeoutMillis + " ms; it is still being saved, check the tee times of the day", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while saving the tee time", e);
+        }
+    }
+
+    private TeeTimeSlots slotsOf(Long golfCourseId, LocalDate date) {
+        if (date.isAfter(LocalDate.now().plusDays(bookingWindowDays))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Tee times can be booked at most " + bookingWindowDays + " days in advance");
+        }
+        // the slots are kept in memory, so they must not miss bookings not yet replicated
+        return days.get(new DayKey(golfCourseId, date.toEpochDay()),
+                day -> ReadWriteRoutingDataSource.readFromPrimary(() -> loadSlots(day)));
+    }
+
+    private TeeTimeSlots loadSlots(DayKey key) {
+        if (!golfCourseRepository.existsById(key.golfCourseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Golf course " + key.golfCourseId + " not found");
+        }
+        TeeTimeSlots slots = new TeeTimeSlots(slotsPerDay);
+        Date date = Date.valueOf(LocalDate.ofEpochDay(key.epochDay));
+        for (TeeTimeBooking booking : bookingRepository.findByGolfCourseIdAndDate(key.golfCourseId, date)) {
+            if (booking.getSlot() >= 0 && booking.getSlot() < slotsPerDay) {
+                slots.reserve(booking.getSlot(), booking.getMemberId());
+            }
+        }
+        return slots;
+    }
+
+    private int slotOf(LocalTime time) {
+        long minutes = Duration.between(firstTeeTime, time).toMinutes();
+        if (minutes < 0 || minutes % intervalMinutes != 0 || minutes / intervalMinutes >= slotsPerDay
+                || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, time + " is not a tee time; tee times start at "
+                    + firstTeeTime + " every " + intervalMinutes + " minutes");
+        }
+        return (int) (minutes / intervalMinutes);
+    }
+
+    private LocalTime timeOf(int slot) {
+        return firstTeeTime.plusMinutes((long) slot * intervalMinutes);
+    }
+
+    /**
+     * Identifies the tee time slots of a golf course on a day.
+     */
+    private static final class DayKey {
+
+        private final Long golfCourseId;
+
+        private final long epochDay;
+
+        DayKey(Long golfCourseId, long epochDay) {
+            this.golfCourseId = golfCourseId;
+            this.epochDay = epochDay;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof DayKey)) {
+                return false;
+            }
+            DayKey that = (DayKey) other;
+            return epochDay == that.epochDay && golfCourseId.equals(that.golfCourseId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(golfCourseId, epochDay);
+        }
+    }
+}
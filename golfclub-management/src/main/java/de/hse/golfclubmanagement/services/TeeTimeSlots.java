@@ -0,0 +1,97 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The tee time slots of one golf course on one day.
+ * Every slot holds the id of the member who booked it, or 0 if it is free.
+ * A slot is booked with a single compare-and-set from 0 to the member id, so
+ * concurrent bookings never block each other and a slot can never be taken twice.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+final class TeeTimeSlots {
+
+    private static final long FREE = 0L;
+
+    private final AtomicLongArray owners;
+
+    /**
+     * Creates the slots of a day, all free.
+     *
+     * @param slotsPerDay the number of tee times per day
+     */
+    TeeTimeSlots(int slotsPerDay) {
+        this.owners = new AtomicLongArray(slotsPerDay);
+    }
+
+    /**
+     * Gets the number of slots of the day.
+     *
+     * @return the number of slots
+     */
+    int size() {
+        return owners.length();
+    }
+
+    /**
+     * Books a slot if it is still free.
+     *
+     * @param slot     the index of the slot
+     * @param memberId the id of the member
+     * @return true if the slot has been booked for the member
+     */
+    boolean reserve(int slot, long memberId) {
+        return owners.compareAndSet(slot, FREE, memberId);
+    }
+
+    /**
+     * Books the earliest free slot at or after the given slot.
+     *
+     * @param fromSlot the index of the first slot to consider
+     * @param memberId the id of the member
+     * @return the index of the booked slot, or -1 if all slots are taken
+     */
+    int reserveFirstFree(int fromSlot, long memberId) {
+        for (int slot = fromSlot; slot < owners.length(); slot++) {
+            if (owners.get(slot) == FREE && owners.compareAndSet(slot, FREE, memberId)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Frees a slot if it is booked by the given member.
+     *
+     * @param slot     the index of the slot
+     * @param memberId the id of the member
+     * @return true if the slot has been freed
+     */
+    boolean release(int slot, long memberId) {
+        return owners.compareAndSet(slot, memberId, FREE);
+    }
+
+    /**
+     * Gets the member who booked a slot.
+     *
+     * @param slot the index of the slot
+     * @return the id of the member, or null if the slot is free
+     */
+    Long owner(int slot) {
+        long owner = owners.get(slot);
+        return owner == FREE ? null : owner;
+    }
+}
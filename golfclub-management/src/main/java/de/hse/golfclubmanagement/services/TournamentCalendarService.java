@@ -0,0 +1,217 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.TournamentCalendarView;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the club calendar: the tournaments of a date range, e.g. upcoming, of a month or of a season.
+ * The ranges are read through the index on the tournament date. Past months do not change unless a tournament is
+ * written, so their tournaments are cached until the next write of a tournament, of this or of another instance
+ * (see CacheConfiguration and CacheInvalidation).
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@Service
+public class TournamentCalendarService {
+
+    /**
+     * The end of open date ranges, the highest date supported by all databases.
+     */
+    private static final LocalDate END_OF_CALENDAR = LocalDate.of(9999, 12, 31);
+
+    private static final int FIRST_YEAR = 1;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    private final Cache pastMonths;
+
+    private final Month seasonStart;
+
+    private final Month seasonEnd;
+
+    private final int exportPastMonths;
+
+    /**
+     * Incremented on every eviction, so a month loaded before a write is not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a new calendar service.
+     *
+     * @param cacheManager     the cache manager providing the cache of past months
+     * @param seasonStart      the first month of the golf season
+     * @param seasonEnd        the last month of the golf season, a season ending before it starts spans the new year
+     * @param exportPastMonths the number of past months exported to the iCalendar file unless a start is given
+     */
+    public TournamentCalendarService(CacheManager cacheManager,
+                                     @Value("${golfclub.calendar.season-start:APRIL}") Month seasonStart,
+                                     @Value("${golfclub.calendar.season-end:OCTOBER}") Month seasonEnd,
+                                     @Value("${golfclub.calendar.export-past-months:12}") int exportPastMonths) {
+        this.pastMonths = cacheManager.getCache(CacheConfiguration.TOURNAMENTS_BY_MONTH);
+        this.seasonStart = seasonStart;
+        this.seasonEnd = seasonEnd;
+        this.exportPastMonths = exportPastMonths;
+    }
+
+    /**
+     * Retrieves the next tournaments, starting today.
+     *
+     * @param limit the maximum number of tournaments to return, capped at {@link TournamentService#MAX_PAGE_SIZE}
+     * @return the upcoming Tournament entities ordered by date
+     */
+    public List<Tournament> getUpcomingTournaments(int limit) {
+        int pageSize = Math.max(1, Math.min(limit, TournamentService.MAX_PAGE_SIZE));
+        return tournamentRepository.findByDateGreaterThanEqualOrderByDateAscIdAsc(toDate(LocalDate.now()),
+                PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the tournaments of a month. Months before the current month are served from the cache.
+     *
+     * @param year  the year
+     * @param month the month of the year, from 1 (January) to 12
+     * @return the Tournament entities of the month ordered by date
+     * @throws ResponseStatusException 400 if the year or month is invalid
+     */
+    public List<Tournament> getTournamentsInMonth(int year, int month) {
+        if (month < 1 || month > 12) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must be between 1 and 12");
+        }
+        YearMonth yearMonth = yearMonth(year, Month.of(month));
+        return yearMonth.isBefore(YearMonth.now()) ? getPastMonth(yearMonth) : findByMonths(yearMonth, yearMonth);
+    }
+
+    /**
+     * Retrieves the tournaments of the golf season of a year (golfclub.calendar.season-start to season-end).
+     * The months of the season that have passed are served from the cache, the others are read with one query.
+     *
+     * @param year the year in which the season starts
+     * @return the Tournament entities of the season ordered by date
+     * @throws ResponseStatusException 400 if the season is not within the supported years
+     */
+    public List<Tournament> getTournamentsInSeason(int year) {
+        YearMonth first = yearMonth(year, seasonStart);
+        YearMonth last = yearMonth(seasonEnd.compareTo(seasonStart) < 0 ? year + 1 : year, seasonEnd);
+        YearMonth currentMonth = YearMonth.now();
+        List<Tournament> tournaments = new ArrayList<>();
+        YearMonth month = first;
+        for (; !month.isAfter(last) && month.isBefore(currentMonth); month = month.plusMonths(1)) {
+            tournaments.addAll(getPastMonth(month));
+        }
+        if (!month.isAfter(last)) {
+            tournaments.addAll(findByMonths(month, last));
+        }
+        return tournaments;
+    }
+
+    /**
+     * Streams the tournaments of a date range, e.g. to export them as iCalendar file.
+     * The tournaments are read with a cursor and handed over one by one, never as complete list.
+     *
+     * @param from     the first day, or null for the first day of the month golfclub.calendar.export-past-months ago
+     * @param to       the last day (inclusive), or null for no end
+     * @param consumer the consumer receiving the calendar entries ordered by date
+     */
+    @Transactional(readOnly = true)
+    public void streamCalendar(LocalDate from, LocalDate to, Consumer<TournamentCalendarView> consumer) {
+        LocalDate start = from != null ? from : YearMonth.now().minusMonths(exportPastMonths).atDay(1);
+        LocalDate end = to != null && to.isBefore(END_OF_CALENDAR) ? to.plusDays(1) : END_OF_CALENDAR;
+        try (Stream<TournamentCalendarView> entries = tournamentRepository.streamCalendar(toDate(start), toDate(end))) {
+            entries.forEach(consumer);
+        }
+    }
+
+    /**
+     * Evicts the cached months after a tournament has been written.
+     * Within a transaction, the cache is evicted again once the transaction has been committed,
+     * so a month read in the meantime is not kept with the old tournaments.
+     */
+    public void tournamentsChanged() {
+        evictPastMonths();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictPastMonths();
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Tournament> getPastMonth(YearMonth month) {
+        Cache.ValueWrapper cached = pastMonths.get(month);
+        if (cached != null) {
+            return (List<Tournament>) cached.get();
+        }
+        long loadedGeneration = generation.get();
+        List<Tournament> tournaments = Collections.unmodifiableList(
+                ReadWriteRoutingDataSource.readFromPrimary(() -> findByMonths(month, month)));
+        if (loadedGeneration == generation.get()) {
+            pastMonths.put(month, tournaments);
+        }
+        return tournaments;
+    }
+
+    private List<Tournament> findByMonths(YearMonth first, YearMonth last) {
+        LocalDate end = last.plusMonths(1).atDay(1);
+        return tournamentRepository.findByDateRange(toDate(first.atDay(1)),
+                toDate(end.isBefore(END_OF_CALENDAR) ? end : END_OF_CALENDAR));
+    }
+
+    private static YearMonth yearMonth(int year, Month month) {
+        if (year < FIRST_YEAR || year > END_OF_CALENDAR.getYear()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "year must be between " + FIRST_YEAR + " and " + END_OF_CALENDAR.getYear());
+        }
+        return YearMonth.of(year, month);
+    }
+
+    private void evictPastMonths() {
+        generation.incrementAndGet();
+        pastMonths.clear();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return java.sql.Date.valueOf(date);
+    }
+}
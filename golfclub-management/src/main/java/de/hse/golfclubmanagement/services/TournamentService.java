@@ -12,12 +12,32 @@
  */
 package de.hse.golfclubmanagement.services;
 
+import de.hse.golfclubmanagement.config.CacheConfiguration;
+import de.hse.golfclubmanagement.config.ReadWriteRoutingDataSource;
+import de.hse.golfclubmanagement.dto.BulkImportResult;
+import de.hse.golfclubmanagement.dto.NameSuggestion;
 import de.hse.golfclubmanagement.models.Tournament;
 import de.hse.golfclubmanagement.repositories.TournamentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing Tournament entities.
@@ -28,17 +48,107 @@ import java.util.List;
 @Service
 public class TournamentService {
 
+    /**
+     * The maximum number of Tournament entities returned in a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private TournamentRepository tournamentRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private TournamentCalendarService tournamentCalendarService;
+
+    /**
+     * In-memory index over all names for autocomplete lookups.
+     */
+    private final NamePrefixIndex nameIndex = new NamePrefixIndex();
+
     /**
      * Adds a new Tournament entity to the database.
+     * An announcement to all members is written to the outbox in the same transaction.
      *
      * @param tournament the Tournament entity to add
      * @return the saved Tournament entity
      */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.TOURNAMENTS_BY_NAME, allEntries = true)
     public Tournament addTournament(Tournament tournament) {
-        return tournamentRepository.save(tournament);
+        boolean isNew = tournament.getId() == null || !tournamentRepository.existsById(tournament.getId());
+        Tournament savedTournament = tournamentRepository.save(tournament);
+        if (isNew) {
+            notificationOutbox.notifyAllMembers(NotificationOutbox.TOURNAMENT_ADDED, announcement(savedTournament));
+        }
+        entityVersions.increment(EntityVersions.Type.TOURNAMENTS);
+        tournamentCalendarService.tournamentsChanged();
+        eventPublisher.publishEvent(EntityChangedEvent.saved(EntityVersions.Type.TOURNAMENTS, isNew,
+                savedTournament.getId(), savedTournament.getName()));
+        return savedTournament;
+    }
+
+    /**
+     * Checks that the given Tournament can be written asynchronously (see WriteBehindWriter):
+     * it must be new and have a name.
+     *
+     * @param tournament the Tournament to check
+     * @throws ResponseStatusException 400 if the Tournament has an id or no valid name
+     */
+    public void validateNewTournament(Tournament tournament) {
+        WriteBehindWriter.requireNewNamed(tournament.getId(), tournament.getName());
+    }
+
+    /**
+     * Adds new Tournament entities within a single transaction, e.g. the tournaments queued by the WriteBehindWriter.
+     * The inserts are sent in JDBC batches; an announcement per tournament is written to the outbox.
+     *
+     * @param tournaments the new Tournament entities, without id
+     * @return the saved Tournament entities in the same order
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.TOURNAMENTS_BY_NAME, allEntries = true)
+    public List<Tournament> addNewTournaments(List<Tournament> tournaments) {
+        List<Tournament> savedTournaments = tournamentRepository.saveAll(tournaments);
+        for (Tournament savedTournament : savedTournaments) {
+            notificationOutbox.notifyAllMembers(NotificationOutbox.TOURNAMENT_ADDED, announcement(savedTournament));
+            eventPublisher.publishEvent(EntityChangedEvent.saved(EntityVersions.Type.TOURNAMENTS, true,
+                    savedTournament.getId(), savedTournament.getName()));
+        }
+        entityVersions.increment(EntityVersions.Type.TOURNAMENTS);
+        tournamentCalendarService.tournamentsChanged();
+        return savedTournaments;
+    }
+
+    /**
+     * Imports a large number of Tournament entities using batched inserts.
+     * The entities are persisted in chunks, each within its own transaction.
+     *
+     * @param tournaments the Tournament entities to import, read lazily
+     * @return a summary with the number of imported entities and the throughput
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.TOURNAMENTS_BY_NAME, allEntries = true)
+    public BulkImportResult importTournaments(Iterator<Tournament> tournaments) {
+        return bulkImporter.importAll(tournaments, chunk -> {
+            Map<Long, String> names = new LinkedHashMap<>();
+            chunk.forEach(savedTournament -> names.put(savedTournament.getId(), savedTournament.getName()));
+            entityVersions.increment(EntityVersions.Type.TOURNAMENTS);
+            tournamentCalendarService.tournamentsChanged();
+            eventPublisher.publishEvent(EntityChangedEvent.imported(EntityVersions.Type.TOURNAMENTS, names));
+        });
     }
 
     /**
@@ -46,17 +156,154 @@ public class TournamentService {
      *
      * @return a list of all Tournament entities
      */
+    @Transactional(readOnly = true)
     public List<Tournament> getAllTournaments() {
         return tournamentRepository.findAll();
     }
 
     /**
      * Finds a Tournament by its name.
+     * Results, including misses, are served from a bounded cache (see CacheConfiguration).
      *
      * @param name the name of the Tournament to find
      * @return the Tournament with the specified name, or null if not found
      */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfiguration.TOURNAMENTS_BY_NAME, key = "#name")
     public Tournament findByName(String name) {
-        return tournamentRepository.findByName(name);
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> tournamentRepository.findByName(name));
+    }
+
+    /**
+     * Retrieves the next page of Tournament entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last Tournament of the previous page, or null for the first page
+     * @param limit   the maximum number of entities to return, capped at {@link #MAX_PAGE_SIZE}
+     * @return the Tournament entities following afterId, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<Tournament> getTournamentsAfter(Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return tournamentRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the given fields of all Tournament entities (sparse fieldset).
+     * Only the requested columns are selected and no entities are loaded.
+     *
+     * @param fields the names of the fields to return, the id is always returned
+     * @return one row per Tournament, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllTournamentFields(List<String> fields) {
+        return tournamentRepository.findAllFields(SparseFields.validate(fields, tournamentRepository.getSelectableFields()));
+    }
+
+    /**
+     * Retrieves the given fields of the Tournament with the given name (sparse fieldset).
+     *
+     * @param name   the name of the Tournament to find
+     * @param fields the names of the fields to return, the id is always returned
+     * @return the requested fields of the Tournament, or null if not found
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findFieldsByName(String name, List<String> fields) {
+        return tournamentRepository.findFieldsByName(name, SparseFields.validate(fields, tournamentRepository.getSelectableFields()))
+                .orElse(null);
+    }
+
+    /**
+     * Retrieves the given fields of the next page of Tournament entities using keyset pagination on the id.
+     *
+     * @param afterId the id of the last Tournament of the previous page, or null for the first page
+     * @param limit   the maximum number of rows to return, capped at {@link #MAX_PAGE_SIZE}
+     * @param fields  the names of the fields to return, the id is always returned
+     * @return one row per Tournament following afterId, ordered by id
+     * @throws ResponseStatusException 400 if a field does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTournamentFieldsAfter(Long afterId, int limit, List<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return tournamentRepository.findFieldsAfter(afterId != null ? afterId : 0L, pageSize,
+                SparseFields.validate(fields, tournamentRepository.getSelectableFields()));
+    }
+
+    /**
+     * Streams all Tournament entities from the database to the given consumer.
+     * Each entity is detached once it has been consumed, so the persistence
+     * context does not grow with the size of the table.
+     *
+     * @param consumer the consumer receiving the Tournament entities ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void streamAllTournaments(Consumer<Tournament> consumer) {
+        try (Stream<Tournament> tournaments = tournamentRepository.streamAll()) {
+            tournaments.forEach(tournament -> {
+                consumer.accept(tournament);
+                entityManager.detach(tournament);
+            });
+        }
+    }
+
+    /**
+     * Finds Tournament entities whose name starts with the given prefix.
+     * The lookup is served from the in-memory name index and does not touch the database.
+     *
+     * @param prefix the prefix to search for (case-insensitive)
+     * @param limit  the maximum number of suggestions to return
+     * @return the matching suggestions ordered by name
+     */
+    public List<NameSuggestion> autocomplete(String prefix, int limit) {
+        return nameIndex.findByPrefix(prefix, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Adds the names of a committed write to the in-memory name index. The index is only updated
+     * after commit, so a rolled back write (e.g. a failed write-behind batch) leaves no entry behind.
+     *
+     * @param change the committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent change) {
+        if (change.getType() != EntityVersions.Type.TOURNAMENTS) {
+            return;
+        }
+        // waits for a running rebuild, which may have read the names before this write was committed
+        synchronized (nameIndex) {
+            change.getNames().forEach(nameIndex::put);
+        }
+    }
+
+    /**
+     * Reloads the in-memory name index after another instance has written tournaments.
+     *
+     * @param event the write of another instance
+     */
+    @EventListener
+    public void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+        if (event.getType() == EntityVersions.Type.TOURNAMENTS) {
+            rebuildNameIndex();
+        }
+    }
+
+    /**
+     * Loads the names of all Tournament entities into the in-memory name index
+     * once the application has started and after writes of other instances.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildNameIndex() {
+        synchronized (nameIndex) {
+            nameIndex.rebuild(ReadWriteRoutingDataSource.readFromPrimary(tournamentRepository::findAllNames));
+        }
+    }
+
+    private static String announcement(Tournament tournament) {
+        String announcement = "New tournament: " + tournament.getName();
+        if (tournament.getDate() != null) {
+            announcement += " on " + new SimpleDateFormat("yyyy-MM-dd").format(tournament.getDate());
+        }
+        return announcement;
     }
 }
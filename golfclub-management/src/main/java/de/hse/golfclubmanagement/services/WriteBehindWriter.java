@@ -0,0 +1,334 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.hse.golfclubmanagement.dto.WriteRequestStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes new entities to the database in the background (write-behind).
+ * Accepted entities are put on a bounded queue and a tracking id is returned at once; a single
+ * writer thread drains the queue and saves up to golfclub.write-behind.batch-size entities per
+ * transaction, so their inserts are sent as JDBC batches instead of one commit per entity.
+ * If a batch fails, its entities are retried one by one and only those still failing are marked
+ * as failed. The state of every write request is kept for a limited time and can be polled by
+ * its tracking id.
+ * <p>
+ * A full queue rejects further entities with 503 Service Unavailable and Retry-After. On a
+ * graceful shutdown no more entities are accepted and all queued entities are written before the
+ * database is closed. Queued entities are only held in memory and are lost if the process dies.
+ * @param <T> the type of the written entities
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+public class WriteBehindWriter<T> implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindWriter.class);
+
+    /**
+     * How long the writer waits for new entities before checking for shutdown.
+     */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * The phase of the writer: it is started before and stopped after the web server,
+     * so it accepts no requests before it runs and drains the queue once no more arrive.
+     */
+    private static final int PHASE = Integer.MAX_VALUE - 2;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * The length of the name columns.
+     */
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final String name;
+
+    private final Consumer<T> validator;
+
+    private final Function<List<T>, List<T>> batchWriter;
+
+    private final Function<T, Long> idOf;
+
+    private final int batchSize;
+
+    private final BlockingQueue<Entry<T>> queue;
+
+    private final Cache<String, WriteRequestStatus> statuses;
+
+    private final Object acceptLock = new Object();
+
+    private final Counter written;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    private final DistributionSummary batchSizes;
+
+    private boolean accepting;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param name              the name of the written entities, used for the thread and the metrics, e.g. members
+     * @param validator         checks an entity before it is queued, throwing an exception if it cannot be written
+     * @param batchWriter       saves a batch of entities within one transaction and returns the saved entities in order
+     * @param idOf              the id of a saved entity
+     * @param queueCapacity     the maximum number of queued entities
+     * @param batchSize         the maximum number of entities per transaction
+     * @param statusRetention   how long the state of a write request is kept
+     * @param maxStatuses       the maximum number of kept states
+     * @param meterRegistry     the registry of the writer metrics
+     */
+    public WriteBehindWriter(String name, Consumer<T> validator, Function<List<T>, List<T>> batchWriter,
+                             Function<T, Long> idOf, int queueCapacity, int batchSize, Duration statusRetention,
+                             long maxStatuses, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.validator = validator;
+        this.batchWriter = batchWriter;
+        this.idOf = idOf;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxStatuses)
+                .expireAfterWrite(statusRetention)
+                .build();
+        this.written = requestCounter(meterRegistry, "written");
+        this.failed = requestCounter(meterRegistry, "failed");
+        this.rejected = requestCounter(meterRegistry, "rejected");
+        this.batchSizes = DistributionSummary.builder("golfclub.writebehind.batch.size")
+                .description("Entities written per transaction")
+                .tag("type", name)
+                .register(meterRegistry);
+        Gauge.builder("golfclub.writebehind.queued", queue, BlockingQueue::size)
+                .description("Entities waiting to be written")
+                .tag("type", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates the given entity and queues it for writing.
+     *
+     * @param entity the new entity
+     * @return the state of the write request, including its tracking id
+     * @throws ResponseStatusException 503 if the queue is full or the application is shutting down
+     */
+    public WriteRequestStatus submit(T entity) {
+        validator.accept(entity);
+        WriteRequestStatus status = new WriteRequestStatus(UUID.randomUUID().toString(),
+                WriteRequestStatus.State.QUEUED, null, null, new Date(), null);
+        statuses.put(status.getId(), status);
+        boolean shuttingDown;
+        synchronized (acceptLock) {
+            if (accepting && queue.offer(new Entry<>(status, entity))) {
+                return status;
+            }
+            shuttingDown = !accepting;
+        }
+        statuses.invalidate(status.getId());
+        rejected.increment();
+        throw new QueueFullException(shuttingDown ? "The application is shutting down"
+                : "The write queue of " + name + " is full");
+    }
+
+    /**
+     * Checks that an entity is new and has a name that fits into its column, so it can be written later.
+     *
+     * @param id   the id of the entity, null for a new entity
+     * @param name the name of the entity
+     * @throws ResponseStatusException 400 if the entity has an id or no valid name
+     */
+    static void requireNewNamed(Long id, String name) {
+        if (id != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only new entities can be written asynchronously");
+        }
+        if (name == null || name.trim().isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The name is required and must not exceed " + MAX_NAME_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * Retrieves the state of a write request.
+     *
+     * @param id the tracking id
+     * @return the state, or null if the id is unknown or has expired
+     */
+    public WriteRequestStatus getStatus(String id) {
+        return statuses.getIfPresent(id);
+    }
+
+    @Override
+    public void start() {
+        synchronized (acceptLock) {
+            accepting = true;
+        }
+        running = true;
+        worker = new Thread(this::writeLoop, name + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        synchronized (acceptLock) {
+            accepting = false;
+        }
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Entry<T>> remaining = new ArrayList<>(batchSize);
+        int drained = 0;
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            drained += remaining.size();
+            write(remaining);
+            remaining.clear();
+        }
+        if (drained > 0) {
+            LOG.info("Wrote {} queued {} before shutdown", drained, name);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void writeLoop() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Entry<T> first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Entry<T>> batch) {
+        List<T> entities = new ArrayList<>(batch.size());
+        batch.forEach(entry -> entities.add(entry.entity));
+        try {
+            List<T> saved = batchWriter.apply(entities);
+            for (int i = 0; i < batch.size(); i++) {
+                completed(batch.get(i), idOf.apply(saved.get(i)));
+            }
+            batchSizes.record(batch.size());
+        } catch (RuntimeException batchFailure) {
+            for (Entry<T> entry : batch) {
+                try {
+                    completed(entry, idOf.apply(batchWriter.apply(Collections.singletonList(entry.entity)).get(0)));
+                    batchSizes.record(1);
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not write {} of write request {}", name, entry.status.getId(), e);
+                    failed(entry, e);
+                }
+            }
+        }
+    }
+
+    private void completed(Entry<T> entry, Long entityId) {
+        statuses.put(entry.status.getId(), new WriteRequestStatus(entry.status.getId(), WriteRequestStatus.State.WRITTEN,
+                entityId, null, entry.status.getAcceptedAt(), new Date()));
+        written.increment();
+    }
+
+    private void failed(Entry<T> entry, RuntimeException e) {
+        String error = String.valueOf(e.getMessage());
+        statuses.put(entry.status.getId(), new WriteRequestStatus(entry.status.getId(), WriteRequestStatus.State.FAILED,
+                null, error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)), entry.status.getAcceptedAt(), new Date()));
+        failed.increment();
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("golfclub.writebehind.requests")
+                .description("Write requests by outcome")
+                .tag("type", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class Entry<T> {
+
+        private final WriteRequestStatus status;
+
+        private final T entity;
+
+        private Entry(WriteRequestStatus status, T entity) {
+            this.status = status;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * Rejects a write request because the queue is full, asking the client to retry after a second.
+     */
+    static final class QueueFullException extends ResponseStatusException {
+
+        QueueFullException(String reason) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that the admission control rejects clients over their rate with 429 and requests exceeding the
+ * concurrency of their endpoint class with 503, both with a Retry-After header.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission-control;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=true",
+        "golfclub.admission.client-header=X-Forwarded-For",
+        "golfclub.admission.stripes=65536",
+        "golfclub.admission.queue-timeout-ms=50",
+        "golfclub.admission.heavy.rate-per-second=0.1",
+        "golfclub.admission.heavy.burst=2",
+        "golfclub.admission.heavy.max-concurrent=1"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class AdmissionControlConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void clientOverItsRateIsRejectedWithRetryAfter() throws Exception {
+        double rejected = rejected("rate_limited");
+        mockMvc.perform(members("10.0.0.1")).andExpect(status().isOk());
+        mockMvc.perform(members("10.0.0.1")).andExpect(status().isOk());
+
+        String retryAfter = mockMvc.perform(members("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(status().reason(containsString("heavy")))
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+        assertTrue(Integer.parseInt(retryAfter) >= 1 && Integer.parseInt(retryAfter) <= 10, retryAfter);
+        assertEquals(rejected + 1, rejected("rate_limited"));
+
+        // entries sent by the client before the one of the proxy do not give a fresh budget
+        mockMvc.perform(members("10.0.0.99, 10.0.0.1")).andExpect(status().isTooManyRequests());
+        // other clients and the lookups of the same client have budgets of their own
+        mockMvc.perform(members("10.0.0.2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/members/findByName").param("name", "nobody")
+                        .header("X-Forwarded-For", "10.0.0.1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requestOverTheConcurrencyOfItsClassIsRejectedWithRetryAfter() throws Exception {
+        double rejected = rejected("overloaded");
+        // a running stream keeps the only permit of the heavy endpoints until it has completed
+        MvcResult stream = mockMvc.perform(get("/api/v1/members/stream").accept(MediaType.APPLICATION_NDJSON)
+                        .header("X-Forwarded-For", "10.0.1.1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(members("10.0.1.2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertEquals(rejected + 1, rejected("overloaded"));
+
+        mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk());
+        mockMvc.perform(members("10.0.1.2")).andExpect(status().isOk());
+    }
+
+    private static MockHttpServletRequestBuilder members(String forwardedFor) {
+        return get("/api/v1/members").header("X-Forwarded-For", forwardedFor);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("golfclub.admission.rejected").tag("class", "heavy").tag("reason", reason)
+                .counter().count();
+    }
+}
@@ -0,0 +1,151 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that the CBOR and Smile representations are selected by the Accept header and carry the
+ * same data as JSON.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:binary-formats;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class BinaryFormatConfigurationTest {
+
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createMembers() {
+        if (memberRepository.count() > 0) {
+            return;
+        }
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Member member = new Member();
+            member.setName("Binary Member " + i);
+            member.setMembershipStatus("active");
+            member.setHandicap(i);
+            members.add(member);
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @Test
+    void jsonIsTheDefault() throws Exception {
+        mockMvc.perform(get("/api/v1/members/page").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void cborAndSmileCarryTheDataOfJson() throws Exception {
+        JsonNode json = objectMapper.readTree(read(MediaType.APPLICATION_JSON));
+
+        assertEquals(json, CBOR.readTree(read(MediaType.APPLICATION_CBOR)));
+        assertEquals(json, SMILE.readTree(read(BinaryFormatConfiguration.APPLICATION_SMILE)));
+    }
+
+    @Test
+    void cborRequestBodyIsAccepted() throws Exception {
+        Member member = new Member();
+        member.setName("Cbor Member");
+        member.setMembershipStatus("active");
+        member.setHandicap(7);
+
+        byte[] response = mockMvc.perform(post("/api/v1/members")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(member)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Member saved = CBOR.readValue(response, Member.class);
+        assertEquals("Cbor Member", saved.getName());
+        assertEquals(7, memberRepository.findById(saved.getId()).orElseThrow(AssertionError::new).getHandicap());
+    }
+
+    @Test
+    void streamIsWrittenAsCborSequence() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/members/stream")
+                        .accept(BinaryFormatConfiguration.APPLICATION_CBOR_SEQ))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatConfiguration.APPLICATION_CBOR_SEQ))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Member> members = new ArrayList<>();
+        try (MappingIterator<Member> documents = CBOR.readerFor(Member.class).readValues(body)) {
+            documents.forEachRemaining(members::add);
+        }
+        assertEquals(memberRepository.count(), members.size());
+    }
+
+    private byte[] read(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/v1/members/page").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
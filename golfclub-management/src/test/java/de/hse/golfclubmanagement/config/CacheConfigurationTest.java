@@ -0,0 +1,68 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that the name lookup caches apply evictions of a transaction only after commit.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class CacheConfigurationTest {
+
+    private final CacheManager cacheManager = new CacheConfiguration().cacheManager(100, Duration.ofMinutes(10),
+            Duration.ofSeconds(30), 10, Duration.ofHours(1));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictionWithinTransactionIsAppliedAfterCommit() {
+        Cache cache = cacheManager.getCache(CacheConfiguration.MEMBERS_BY_NAME);
+        cache.put("Jane Doe", "old row");
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.clear();
+        assertEquals("old row", cache.get("Jane Doe").get());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertNull(cache.get("Jane Doe"));
+    }
+
+    @Test
+    void evictionWithoutTransactionIsAppliedImmediately() {
+        Cache cache = cacheManager.getCache(CacheConfiguration.TOURNAMENTS_BY_NAME);
+        cache.put("Club Championship", "old row");
+
+        cache.clear();
+
+        assertNull(cache.get("Club Championship"));
+    }
+}
@@ -0,0 +1,69 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests that the request latency histograms and the persistence metrics are exposed on the
+ * Prometheus scrape endpoint.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeContainsRequestHistogramsPerEndpointAndPersistenceMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/members")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertContains(scrape, "http_server_requests_seconds_bucket{");
+        assertContains(scrape, "endpoint=\"MemberController.getAllMembers\"");
+        assertContains(scrape, "outcome=\"SUCCESS\"");
+        assertContains(scrape, "quantile=\"0.99\"");
+        assertContains(scrape, "hibernate_statements_total");
+        assertContains(scrape, "hibernate_entities_loads_total");
+        assertContains(scrape, "hibernate_second_level_cache_requests_total");
+        assertContains(scrape, "hikaricp_connections_active");
+        assertContains(scrape, "hikaricp_connections_acquire_seconds");
+    }
+
+    private static void assertContains(String scrape, String expected) {
+        assertTrue(scrape.contains(expected), () -> "missing " + expected + " in the scrape");
+    }
+}
@@ -0,0 +1,179 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.config;
+
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.services.GolfCourseService;
+import de.hse.golfclubmanagement.services.LeaderboardService;
+import de.hse.golfclubmanagement.services.MemberService;
+import de.hse.golfclubmanagement.services.TournamentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the routing of transactions between two embedded databases, the primary and one replica.
+ * Nothing replicates between them: the replica gets a copy of the schema, a row of its own and a
+ * heartbeat written by the test, so every read shows which of the databases has answered it.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.datasource.routing.enabled=true",
+        "golfclub.datasource.routing.lag-tolerance-ms=5000",
+        "golfclub.datasource.routing.lag-check-interval-ms=3600000",
+        "golfclub.datasource.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.datasource.replicas[0].username=sa",
+        "golfclub.datasource.replicas[0].password=",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class ReadWriteRoutingConfigurationTest {
+
+    private static final String REPLICA_ONLY = "Replica Only";
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplicas().get(0));
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            if (!statement.startsWith("--") && !statement.startsWith("CREATE USER")) {
+                replica.execute(statement);
+            }
+        }
+        replica.execute("CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        replica.update("INSERT INTO member (id, name, membership_status, handicap) VALUES (?, ?, ?, ?)",
+                1_000_000L, REPLICA_ONLY, "active", 54);
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        replicateHeartbeat(0);
+
+        assertTrue(memberNames().contains(REPLICA_ONLY));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        replicateHeartbeat(0);
+
+        memberService.addMember(member("Written To Primary"));
+
+        assertEquals(1, count(primary, "Written To Primary"));
+        assertEquals(0, count(replica, "Written To Primary"));
+        assertEquals(0, count(primary, REPLICA_ONLY));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicateHeartbeat(60_000);
+
+        assertTrue(routingDataSource.getReplicaLagMillis(0) > 5000);
+        assertFalse(memberNames().contains(REPLICA_ONLY));
+    }
+
+    @Test
+    void replicaWithUnknownLagFallsBackToPrimary() {
+        replica.execute("DROP TABLE replication_heartbeat");
+        routingDataSource.checkReplicaLag();
+
+        assertEquals(Long.MAX_VALUE, routingDataSource.getReplicaLagMillis(0));
+        assertFalse(memberNames().contains(REPLICA_ONLY));
+    }
+
+    @Test
+    void readFromPrimaryOverridesReadOnlyTransaction() {
+        replicateHeartbeat(0);
+
+        List<String> names = ReadWriteRoutingDataSource.readFromPrimary(this::memberNames);
+
+        assertFalse(names.contains(REPLICA_ONLY));
+        assertTrue(memberNames().contains(REPLICA_ONLY));
+    }
+
+    @Test
+    void leaderboardAndNameLookupsReadFromPrimary() {
+        replicateHeartbeat(0);
+        GolfCourse golfCourse = new GolfCourse();
+        golfCourse.setName("Routing Course");
+        Long golfCourseId = golfCourseService.saveGolfCourse(golfCourse).getId();
+        Tournament tournament = new Tournament();
+        tournament.setName("Routing Open");
+        tournament.setGolfCourseId(golfCourseId);
+        Long tournamentId = tournamentService.addTournament(tournament).getId();
+        memberService.addMember(member("Cached From Primary"));
+
+        // the replica has none of these rows, reading it would fail or cache a miss
+        assertNotNull(leaderboardService.getLeaderboard(tournamentId));
+        assertNotNull(memberService.findByName("Cached From Primary"));
+        assertNotNull(tournamentService.findByName("Routing Open"));
+        assertNotNull(golfCourseService.findByName("Routing Course"));
+    }
+
+    private void replicateHeartbeat(long lagMillis) {
+        replica.update("MERGE INTO replication_heartbeat (id, beat_at) KEY (id) VALUES (1, ?)",
+                System.currentTimeMillis() - lagMillis);
+        routingDataSource.checkReplicaLag();
+    }
+
+    private List<String> memberNames() {
+        return memberService.getMembersAfter(0L, 1000).stream().map(Member::getName).collect(Collectors.toList());
+    }
+
+    private static int count(JdbcTemplate database, String name) {
+        return database.queryForObject("SELECT COUNT(*) FROM member WHERE name = ?", Integer.class, name);
+    }
+
+    private static Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMembershipStatus("active");
+        member.setHandicap(20);
+        return member;
+    }
+}
@@ -0,0 +1,225 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.controllers;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.services.BulkImporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests the endpoints of the members: keyset pagination, streaming, bulk import and sparse fieldsets.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:member-controller;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createMembers() {
+        if (memberRepository.count() > 0) {
+            return;
+        }
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member();
+            member.setName("Paged Member " + i);
+            member.setMembershipStatus("active");
+            member.setHandicap(10 + i);
+            members.add(member);
+        }
+        memberRepository.saveAll(members);
+    }
+
+    @Test
+    void pagesFollowTheCursorUntilAllMembersAreRead() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        while (true) {
+            MockHttpServletRequestBuilder request = get("/api/v1/members/page").param("limit", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            JsonNode page = objectMapper.readTree(response.getContentAsString());
+            if (page.size() == 0) {
+                assertNull(response.getHeader("X-Next-Cursor"));
+                break;
+            }
+            pages++;
+            page.forEach(member -> ids.add(member.get("id").asLong()));
+            cursor = response.getHeader("X-Next-Cursor");
+            assertEquals(page.get(page.size() - 1).get("id").asText(), cursor);
+        }
+
+        assertEquals(allIds(), ids);
+        assertEquals((ids.size() + 1) / 2, pages);
+    }
+
+    @Test
+    void streamWritesOneMemberPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/members/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readTree(line).get("id").asLong());
+            }
+        }
+        assertEquals(allIds(), ids);
+    }
+
+    @Test
+    void bulkImportWritesAllChunks() throws Exception {
+        long before = memberRepository.count();
+        int rows = 2 * BulkImporter.CHUNK_SIZE + 1;
+
+        mockMvc.perform(post("/api/v1/members/bulk").contentType("text/csv").content(csv(rows, -1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(rows));
+
+        assertEquals(before + rows, memberRepository.count());
+    }
+
+    @Test
+    void bulkImportRejectsInvalidRowAndKeepsCommittedChunks() throws Exception {
+        long before = memberRepository.count();
+
+        // the invalid row is the first one of the second chunk
+        mockMvc.perform(post("/api/v1/members/bulk").contentType("text/csv")
+                        .content(csv(BulkImporter.CHUNK_SIZE + 10, BulkImporter.CHUNK_SIZE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason(containsString("invalid number 'many' in column 'handicap'")));
+
+        assertEquals(before + BulkImporter.CHUNK_SIZE, memberRepository.count());
+    }
+
+    @Test
+    void bulkImportRejectsMalformedJson() throws Exception {
+        long before = memberRepository.count();
+
+        mockMvc.perform(post("/api/v1/members/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Json Member\",\"handicap\":\"many\"}]"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(before, memberRepository.count());
+    }
+
+    @Test
+    void sparseFieldsetContainsTheIdAndTheRequestedFieldsOnly() throws Exception {
+        JsonNode rows = objectMapper.readTree(mockMvc.perform(get("/api/v1/members")
+                        .param("fields", " handicap,,name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals(allIds().size(), rows.size());
+        for (JsonNode row : rows) {
+            List<String> names = new ArrayList<>();
+            row.fieldNames().forEachRemaining(names::add);
+            assertEquals(Arrays.asList("id", "handicap", "name"), names);
+        }
+    }
+
+    @Test
+    void sparseFieldsetOfPageFollowsTheCursor() throws Exception {
+        List<Long> ids = allIds();
+
+        mockMvc.perform(get("/api/v1/members/page")
+                        .param("after", String.valueOf(ids.get(0)))
+                        .param("limit", "1")
+                        .param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(ids.get(1)))
+                .andExpect(jsonPath("$[0].membershipStatus").doesNotExist())
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(ids.get(1))));
+    }
+
+    @Test
+    void unknownFieldsAreRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/members").param("fields", "name,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason(containsString("Unknown field 'password'")));
+        mockMvc.perform(get("/api/v1/members/findByName").param("name", "Paged Member 0").param("fields", "class"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/members/page").param("fields", "id.name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> allIds() {
+        return memberRepository.findAll().stream().map(Member::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static String csv(int rows, int invalidRow) {
+        StringBuilder csv = new StringBuilder("name,membershipStatus,handicap\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Imported Member ").append(System.nanoTime()).append(",active,")
+                    .append(i == invalidRow ? "many" : String.valueOf(i % 54)).append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,125 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.repositories;
+
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.services.GolfCourseService;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements issued to load golf courses with their holes, which must not grow
+ * with the number of golf courses (no N+1 queries). The second level cache is evicted before
+ * every measurement, so all holes are read from the database.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:golf-course-repository;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class GolfCourseRepositoryTest {
+
+    private static final int HOLES_PER_COURSE = 18;
+
+    @Autowired
+    private GolfCourseRepository golfCourseRepository;
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void deleteGolfCourses() {
+        golfCourseRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllWithHolesIssuesOneStatementForAnyNumberOfCourses() {
+        saveGolfCourses(3);
+        assertEquals(1, countStatements(this::loadAllWithHoles));
+
+        saveGolfCourses(27);
+        assertEquals(1, countStatements(this::loadAllWithHoles));
+    }
+
+    @Test
+    void streamAllGolfCoursesIssuesConstantNumberOfStatements() {
+        saveGolfCourses(3);
+        long fewCourses = countStatements(this::streamAllWithHoles);
+
+        saveGolfCourses(27);
+        assertEquals(fewCourses, countStatements(this::streamAllWithHoles));
+    }
+
+    private void loadAllWithHoles() {
+        int holes = 0;
+        for (GolfCourse golfCourse : golfCourseService.getAllGolfCourses()) {
+            holes += golfCourse.getHoles().size();
+        }
+        assertEquals(golfCourseRepository.count() * HOLES_PER_COURSE, holes);
+    }
+
+    private void streamAllWithHoles() {
+        AtomicInteger holes = new AtomicInteger();
+        golfCourseService.streamAllGolfCourses(golfCourse -> holes.addAndGet(golfCourse.getHoles().size()));
+        assertEquals(golfCourseRepository.count() * HOLES_PER_COURSE, holes.get());
+    }
+
+    private long countStatements(Runnable action) {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        statistics.clear();
+        action.run();
+        // the count queries of the assertions are not part of the measurement
+        return statistics.getPrepareStatementCount() - 1;
+    }
+
+    private void saveGolfCourses(int count) {
+        for (int i = 0; i < count; i++) {
+            GolfCourse golfCourse = new GolfCourse();
+            golfCourse.setName("Course " + System.nanoTime());
+            List<Hole> holes = new ArrayList<>();
+            for (int number = 1; number <= HOLES_PER_COURSE; number++) {
+                Hole hole = new Hole();
+                hole.setNummer(number);
+                hole.setPar(4);
+                hole.setLength(350);
+                holes.add(hole);
+            }
+            golfCourse.setHoles(holes);
+            golfCourseService.saveGolfCourse(golfCourse);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.GolfclubManagementApplication;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.repositories.GolfCourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that an instance stops serving golf courses from its second level cache once it notices
+ * the write of another instance sharing the database.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + CacheInvalidationTest.DATABASE_URL,
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class CacheInvalidationTest {
+
+    static final String DATABASE_URL = "jdbc:h2:mem:cache-invalidation;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Test
+    void golfCourseWriteOfAnotherInstanceIsServedAfterPoll() {
+        GolfCourse golfCourse = new GolfCourse();
+        golfCourse.setName("Cached Course");
+        Hole hole = new Hole();
+        hole.setNummer(1);
+        hole.setLength(350);
+        hole.setPar(4);
+        List<Hole> holes = new ArrayList<>();
+        holes.add(hole);
+        golfCourse.setHoles(holes);
+        golfCourse = golfCourseService.saveGolfCourse(golfCourse);
+        Long id = golfCourse.getId();
+
+        // the other instance uses the schema created by this one
+        try (ConfigurableApplicationContext other = new SpringApplicationBuilder(GolfclubManagementApplication.class)
+                .profiles("embedded")
+                .run("--spring.datasource.url=" + DATABASE_URL,
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--server.port=0",
+                        "--golfclub.versions.poll-interval-ms=3600000",
+                        "--golfclub.notifications.enabled=false",
+                        "--golfclub.admission.enabled=false")) {
+            GolfCourseService otherService = other.getBean(GolfCourseService.class);
+            assertEquals("Cached Course 4", describe(other, id));
+            assertNull(otherService.findByName("Renamed Course"));
+
+            golfCourse.setName("Renamed Course");
+            golfCourse.getHoles().get(0).setPar(5);
+            golfCourseService.saveGolfCourse(golfCourse);
+
+            assertEquals("Cached Course 4", describe(other, id));
+            assertNull(otherService.findByName("Renamed Course"));
+
+            other.getBean(EntityVersions.class).poll();
+
+            assertEquals("Renamed Course 5", describe(other, id));
+            assertNotNull(otherService.findByName("Renamed Course"));
+        }
+    }
+
+    private static String describe(ConfigurableApplicationContext context, Long id) {
+        GolfCourseRepository repository = context.getBean(GolfCourseRepository.class);
+        return context.getBean(TransactionTemplate.class).execute(status -> {
+            GolfCourse golfCourse = repository.findById(id).orElseThrow(AssertionError::new);
+            return golfCourse.getName() + " " + golfCourse.getHoles().get(0).getPar();
+        });
+    }
+}
@@ -0,0 +1,150 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a change feed subscriber that stops reading neither delays the other subscribers nor
+ * stays connected.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:change-feed;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.changes.writer-threads=1",
+        "golfclub.changes.write-timeout-ms=500",
+        "golfclub.changes.subscriber-queue-size=100000",
+        "golfclub.changes.heartbeat-interval-ms=3600000",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class ChangeFeedTest {
+
+    /**
+     * Together far more than the socket buffers of a client that does not read take.
+     */
+    private static final int EVENTS = 200;
+
+    private static final int NAME_LENGTH = 64 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void subscriberThatStopsReadingIsDisconnectedWithoutDelayingTheOthers() throws Exception {
+        double droppedBefore = registry.counter("golfclub.changes.dropped").count();
+        int subscribersBefore = changeFeed.getSubscriberCount();
+        try (Socket stalled = subscribe(1024); Socket reading = subscribe(64 * 1024)) {
+            // reads up to the first comment only, then never again
+            readUntil(stalled.getInputStream(), ":subscribed");
+            AtomicInteger received = new AtomicInteger();
+            Thread reader = new Thread(() -> count(reading, received), "change-feed-test-reader");
+            reader.setDaemon(true);
+            reader.start();
+            waitFor(() -> changeFeed.getSubscriberCount() == subscribersBefore + 2,
+                    () -> changeFeed.getSubscriberCount() + " subscribers");
+
+            StringBuilder name = new StringBuilder(NAME_LENGTH);
+            while (name.length() < NAME_LENGTH) {
+                name.append('x');
+            }
+            for (long id = 1; id <= EVENTS; id++) {
+                changeFeed.onEntityChanged(EntityChangedEvent.saved(EntityVersions.Type.MEMBERS, true, id,
+                        name.toString()));
+            }
+
+            waitFor(() -> received.get() == EVENTS, () -> received.get() + " events received");
+            waitFor(() -> changeFeed.getSubscriberCount() == subscribersBefore + 1,
+                    () -> changeFeed.getSubscriberCount() + " subscribers");
+            assertEquals(droppedBefore + 1, registry.counter("golfclub.changes.dropped").count());
+        }
+    }
+
+    private Socket subscribe(int receiveBufferSize) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(receiveBufferSize);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream output = socket.getOutputStream();
+        // HTTP/1.0, so the events are not split into chunks
+        output.write(("GET /api/v1/changes HTTP/1.0\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+        return socket;
+    }
+
+    private static void readUntil(InputStream input, String expected) throws IOException {
+        StringBuilder read = new StringBuilder();
+        int next;
+        while (read.indexOf(expected) < 0 && (next = input.read()) >= 0) {
+            read.append((char) next);
+        }
+    }
+
+    /**
+     * Counts the change events received on the socket until it is closed.
+     */
+    private static void count(Socket socket, AtomicInteger received) {
+        String marker = "event:change";
+        byte[] buffer = new byte[64 * 1024];
+        String tail = "";
+        try {
+            InputStream input = socket.getInputStream();
+            int length;
+            while ((length = input.read(buffer)) >= 0) {
+                String text = tail + new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+                for (int index = text.indexOf(marker); index >= 0; index = text.indexOf(marker, index + 1)) {
+                    received.incrementAndGet();
+                }
+                // shorter than the marker, so no event is counted twice
+                tail = text.substring(Math.max(0, text.length() - marker.length() + 1));
+            }
+        } catch (IOException e) {
+            // closed at the end of the test
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition, Supplier<String> state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean(), state);
+    }
+}
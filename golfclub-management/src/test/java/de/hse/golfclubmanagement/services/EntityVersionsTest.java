@@ -0,0 +1,160 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.CacheVersionRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that the ETags follow the versions shared through the database, so that every instance
+ * moves its ETag on after a write of another instance.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entity-versions;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+@RecordApplicationEvents
+class EntityVersionsTest {
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private ETagsAtEviction etagsAtEviction;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void ownWriteMovesETagOnWithoutWrittenElsewhere() {
+        entityVersions.poll();
+        String before = entityVersions.etag(EntityVersions.Type.MEMBERS);
+
+        Member member = new Member();
+        member.setName("Version Member");
+        member.setMembershipStatus("active");
+        member.setHandicap(20);
+        memberService.addMember(member);
+        entityVersions.poll();
+
+        assertNotEquals(before, entityVersions.etag(EntityVersions.Type.MEMBERS));
+        assertEquals(0, events.stream(EntityVersions.WrittenElsewhere.class).count());
+    }
+
+    @Test
+    void writeOfAnotherInstanceMovesETagOnAfterPoll() {
+        entityVersions.poll();
+        String before = entityVersions.etag(EntityVersions.Type.TOURNAMENTS);
+
+        // another instance increments the shared version without telling this one
+        transactionTemplate.executeWithoutResult(status -> cacheVersionRepository.increment("tournaments"));
+        assertEquals(before, entityVersions.etag(EntityVersions.Type.TOURNAMENTS));
+        entityVersions.poll();
+
+        assertNotEquals(before, entityVersions.etag(EntityVersions.Type.TOURNAMENTS));
+        assertEquals(1, events.stream(EntityVersions.WrittenElsewhere.class)
+                .filter(event -> event.getType() == EntityVersions.Type.TOURNAMENTS)
+                .count());
+        // the caches are evicted while the old ETag is still served
+        assertEquals(before, etagsAtEviction.etags.get(etagsAtEviction.etags.size() - 1));
+    }
+
+    @Test
+    void writeOfAnotherInstanceRefreshesNameLookupsAfterPoll() {
+        entityVersions.poll();
+        assertNull(memberService.findByName("Foreign Member"));
+        assertNull(tournamentService.findByName("Foreign Tournament"));
+
+        // another instance stores the entities, bypassing the caches of this one
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("Foreign Member");
+            member.setMembershipStatus("active");
+            member.setHandicap(20);
+            memberRepository.save(member);
+            cacheVersionRepository.increment("members");
+            Tournament tournament = new Tournament();
+            tournament.setName("Foreign Tournament");
+            tournament.setDate(new Date());
+            tournamentRepository.save(tournament);
+            cacheVersionRepository.increment("tournaments");
+        });
+        assertNull(memberService.findByName("Foreign Member"));
+        assertNull(tournamentService.findByName("Foreign Tournament"));
+        entityVersions.poll();
+
+        assertNotNull(memberService.findByName("Foreign Member"));
+        assertNotNull(tournamentService.findByName("Foreign Tournament"));
+    }
+
+    /**
+     * Records the ETag of the written entity type when the caches are evicted.
+     */
+    @TestConfiguration
+    static class ETagsAtEviction {
+
+        private final List<String> etags = new CopyOnWriteArrayList<>();
+
+        @Autowired
+        private EntityVersions entityVersions;
+
+        @EventListener
+        void onWrittenElsewhere(EntityVersions.WrittenElsewhere event) {
+            etags.add(entityVersions.etag(event.getType()));
+        }
+    }
+}
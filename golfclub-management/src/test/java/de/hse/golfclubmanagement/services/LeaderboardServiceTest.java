@@ -0,0 +1,158 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Hole;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.Score;
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.CacheVersionRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the leaderboards held in memory follow the writes of the golf course, of this and
+ * of other instances.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:leaderboards;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class LeaderboardServiceTest {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private GolfCourse golfCourse;
+
+    private Long tournamentId;
+
+    @BeforeEach
+    void createTournamentWithScore() {
+        golfCourse = new GolfCourse();
+        golfCourse.setName("Leaderboard Course " + System.nanoTime());
+        Hole hole = new Hole();
+        hole.setNummer(1);
+        hole.setLength(350);
+        hole.setPar(4);
+        List<Hole> holes = new ArrayList<>();
+        holes.add(hole);
+        golfCourse.setHoles(holes);
+        golfCourse = golfCourseService.saveGolfCourse(golfCourse);
+
+        Tournament tournament = new Tournament();
+        tournament.setName("Leaderboard Tournament " + System.nanoTime());
+        tournament.setDate(new Date());
+        tournament.setGolfCourseId(golfCourse.getId());
+        tournamentId = tournamentService.addTournament(tournament).getId();
+
+        Member member = new Member();
+        member.setName("Leaderboard Member");
+        member.setMembershipStatus("active");
+        member.setHandicap(20);
+        Score score = new Score();
+        score.setMemberId(memberRepository.save(member).getId());
+        score.setHoleNumber(1);
+        score.setStrokes(5);
+        leaderboardService.recordScore(tournamentId, score);
+        entityVersions.poll();
+    }
+
+    @Test
+    void golfCourseWriteChangesParsOfCachedLeaderboard() {
+        assertEquals(1, leaderboardService.getLeaderboard(tournamentId).get(0).getToPar());
+
+        golfCourse.getHoles().get(0).setPar(5);
+        golfCourseService.saveGolfCourse(golfCourse);
+
+        assertEquals(0, leaderboardService.getLeaderboard(tournamentId).get(0).getToPar());
+    }
+
+    @Test
+    void golfCourseWriteOfAnotherInstanceChangesParsAfterPoll() {
+        assertEquals(1, leaderboardService.getLeaderboard(tournamentId).get(0).getToPar());
+
+        // another instance changes the par and increments the shared version without telling this one
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE hole SET par = 3 WHERE golfcourse_id = ?", golfCourse.getId());
+            cacheVersionRepository.increment("golf_courses");
+        });
+        assertEquals(1, leaderboardService.getLeaderboard(tournamentId).get(0).getToPar());
+        entityVersions.poll();
+
+        assertEquals(2, leaderboardService.getLeaderboard(tournamentId).get(0).getToPar());
+    }
+
+    @Test
+    void leaderboardLoadedBeforeCommitOfScoreIsNotCached() {
+        Member member = new Member();
+        member.setName("Late Member");
+        member.setMembershipStatus("active");
+        member.setHandicap(10);
+        Long memberId = memberRepository.save(member).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Score score = new Score();
+            score.setMemberId(memberId);
+            score.setHoleNumber(1);
+            score.setStrokes(4);
+            leaderboardService.recordScore(tournamentId, score);
+            // before the commit, the leaderboard is evicted and loaded again from a snapshot without the score
+            leaderboardService.onWrittenElsewhere(new EntityVersions.WrittenElsewhere(EntityVersions.Type.TOURNAMENTS));
+            assertEquals(1, CompletableFuture.supplyAsync(() -> leaderboardService.getLeaderboard(tournamentId))
+                    .join().size());
+        });
+
+        assertEquals(2, leaderboardService.getLeaderboard(tournamentId).size());
+    }
+}
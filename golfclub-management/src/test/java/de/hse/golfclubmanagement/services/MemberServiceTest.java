@@ -0,0 +1,124 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.repositories.CacheVersionRepository;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the in-memory name indexes of the members only contain committed writes.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:member-service;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class MemberServiceTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void batchFailingAtCommitLeavesNoEntriesInTheNameIndexes() {
+        // the status is not validated, but exceeds its column, so the batch fails when it is flushed at commit
+        List<Member> batch = Arrays.asList(member("Phantom Batch One", "active"),
+                member("Phantom Batch Two", String.join("", Collections.nCopies(300, "x"))));
+
+        assertThrows(RuntimeException.class, () -> memberService.addNewMembers(batch));
+
+        assertTrue(memberService.autocomplete("Phantom Batch", 10).isEmpty());
+        assertTrue(memberService.search("Phantom Batch One", 0.5, 10).isEmpty());
+    }
+
+    @Test
+    void committedBatchIsAddedToTheNameIndexes() {
+        List<Member> saved = memberService.addNewMembers(new ArrayList<>(Arrays.asList(
+                member("Committed Batch One", "active"), member("Committed Batch Two", "active"))));
+
+        assertEquals(2, memberService.autocomplete("Committed Batch", 10).size());
+        assertEquals(saved.get(0).getId(), memberService.search("Committed Batch One", 0.9, 10).get(0).getId());
+    }
+
+    @Test
+    void memberFailingAtCommitLeavesNoEntryInTheNameIndexes() {
+        Member member = member("Phantom Single", String.join("", Collections.nCopies(300, "x")));
+
+        assertThrows(RuntimeException.class, () -> memberService.addMember(member));
+
+        assertTrue(memberService.autocomplete("Phantom Single", 10).isEmpty());
+        assertTrue(memberService.search("Phantom Single", 0.5, 10).isEmpty());
+    }
+
+    @Test
+    void importedMembersAreAddedToTheAutocompleteIndex() {
+        memberService.importMembers(Arrays.asList(member("Imported Member One", "active"),
+                member("Imported Member Two", "active")).iterator());
+
+        assertEquals(2, memberService.autocomplete("Imported Member", 10).size());
+    }
+
+    @Test
+    void membersOfAnotherInstanceAreAddedToTheAutocompleteIndexAfterPoll() {
+        entityVersions.poll();
+        // another instance stores a member, bypassing the indexes of this one
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(member("Elsewhere Member", "active"));
+            cacheVersionRepository.increment("members");
+        });
+        assertTrue(memberService.autocomplete("Elsewhere Member", 10).isEmpty());
+
+        entityVersions.poll();
+
+        assertEquals(1, memberService.autocomplete("Elsewhere Member", 10).size());
+        assertEquals(1, memberService.search("Elsewhere Member", 0.9, 10).size());
+    }
+
+    private static Member member(String name, String membershipStatus) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMembershipStatus(membershipStatus);
+        member.setHandicap(20);
+        return member;
+    }
+}
@@ -0,0 +1,183 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.NameMatch;
+import de.hse.golfclubmanagement.repositories.NameView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the typo-tolerant search of the trigram index: normalization, ranking, the similarity
+ * threshold and the pruning of candidates to the rarest posting lists.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class NameTrigramIndexTest {
+
+    private static final String[] FIRST_NAMES = {"Anna", "Jürgen", "Jörg", "Müller", "Marie", "Mario", "Bob", "Bea"};
+
+    private static final String[] LAST_NAMES = {"Müller", "Muller", "Maier", "Meyer", "Schmidt", "Schmitt", "Smith"};
+
+    @Test
+    void findsNamesDespiteTyposCaseAndAccents() {
+        NameTrigramIndex index = index("Jürgen Müller", "Anna Schmidt", "Bob Smith");
+
+        List<NameMatch> matches = index.search("jurgen muler", 0.2, 10);
+
+        assertEquals(1, matches.size());
+        assertEquals("Jürgen Müller", matches.get(0).getName());
+        assertEquals(1.0, index.search("JURGEN MULLER", 0.2, 10).get(0).getSimilarity());
+    }
+
+    @Test
+    void ranksByDescendingSimilarityThenById() {
+        NameTrigramIndex index = index("Anna Maier", "Anna Meyer", "Anna Maier");
+
+        List<NameMatch> matches = index.search("Anna Maier", 0.1, 10);
+
+        assertEquals(Arrays.asList(1L, 3L, 2L), ids(matches));
+        assertEquals(1.0, matches.get(0).getSimilarity());
+        assertTrue(matches.get(2).getSimilarity() < 1.0);
+    }
+
+    @Test
+    void leavesOutNamesBelowTheMinimumSimilarity() {
+        NameTrigramIndex index = index("Anna Maier", "Anna Meyer", "Bob Smith");
+
+        assertEquals(Collections.singletonList(1L), ids(index.search("Anna Maier", 1.0, 10)));
+        assertEquals(Arrays.asList(1L, 2L), ids(index.search("Anna Maier", 0.3, 10)));
+        assertTrue(index.search("Xaver Quast", 0.2, 10).isEmpty());
+    }
+
+    @Test
+    void matchesTheSimilarityOfAllNamesDespitePruning() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            names.add(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        }
+        NameTrigramIndex index = index(names.toArray(new String[0]));
+
+        for (String query : new String[] {"Jurgen Muler", "Mari Smit", "Bea Meier", "Anna"}) {
+            for (double minSimilarity : new double[] {0.1, 0.3, 0.5, 0.8}) {
+                Set<Long> expected = new TreeSet<>();
+                for (int i = 0; i < names.size(); i++) {
+                    if (jaccard(query, names.get(i)) >= minSimilarity) {
+                        expected.add(i + 1L);
+                    }
+                }
+                assertEquals(expected, new TreeSet<>(ids(index.search(query, minSimilarity, names.size()))),
+                        query + " with minimum similarity " + minSimilarity);
+            }
+        }
+    }
+
+    @Test
+    void keepsTheBestMatchesUpToTheLimit() {
+        NameTrigramIndex index = index("Anna Meyer", "Anna Maier", "Anna Mayer", "Anna Maier");
+
+        assertEquals(Arrays.asList(2L, 4L), ids(index.search("Anna Maier", 0.1, 2)));
+    }
+
+    @Test
+    void renameReplacesTheIndexedName() {
+        NameTrigramIndex index = index("Anna Maier");
+
+        index.put(1L, "Bob Smith");
+
+        assertTrue(index.search("Anna Maier", 0.5, 10).isEmpty());
+        assertEquals(Collections.singletonList(1L), ids(index.search("Bob Smith", 0.5, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuildReplacesAllNames() {
+        NameTrigramIndex index = index("Anna Maier", "Bob Smith");
+
+        index.rebuild(Collections.singletonList(view(7L, "Marie Schmitt")));
+
+        assertTrue(index.search("Anna Maier", 0.2, 10).isEmpty());
+        assertEquals(Collections.singletonList(7L), ids(index.search("Marie Schmitt", 0.5, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void queryWithoutLettersOrDigitsMatchesNothing() {
+        assertTrue(index("Anna Maier").search(" - ", 0.1, 10).isEmpty());
+    }
+
+    /**
+     * Indexes the given names with the ids 1, 2, ...
+     */
+    private static NameTrigramIndex index(String... names) {
+        List<NameView> views = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            views.add(view(i + 1L, names[i]));
+        }
+        NameTrigramIndex index = new NameTrigramIndex();
+        index.rebuild(views);
+        return index;
+    }
+
+    private static NameView view(Long id, String name) {
+        return new NameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static List<Long> ids(List<NameMatch> matches) {
+        List<Long> ids = new ArrayList<>();
+        for (NameMatch match : matches) {
+            ids.add(match.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * The Jaccard coefficient of the trigram sets, computed without the index.
+     */
+    private static double jaccard(String first, String second) {
+        Set<Long> a = new TreeSet<>();
+        for (long trigram : NameTrigramIndex.trigrams(first)) {
+            a.add(trigram);
+        }
+        Set<Long> union = new TreeSet<>(a);
+        int shared = 0;
+        for (long trigram : NameTrigramIndex.trigrams(second)) {
+            union.add(trigram);
+            if (a.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / union.size();
+    }
+}
@@ -0,0 +1,90 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.OutboxEvent;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests that a notification for all members is split up page by page.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notification-dispatcher;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.url=http://localhost:1/notifications",
+        "golfclub.notifications.poll-interval-ms=3600000",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class NotificationDispatcherTest {
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Test
+    void notificationForAllMembersIsSplitUpInPages() {
+        notificationDispatcher.stop();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            Member member = new Member();
+            member.setName("Notified Member " + i);
+            member.setMembershipStatus("active");
+            member.setHandicap(20);
+            members.add(member);
+        }
+        memberRepository.saveAll(members);
+        String message = "Broadcast " + System.nanoTime();
+        Long broadcastId = outboxEventRepository.save(NotificationOutbox.newEvent("TOURNAMENT_ADDED", null, message))
+                .getId();
+
+        notificationDispatcher.dispatch();
+
+        OutboxEvent broadcast = outboxEventRepository.findById(broadcastId).orElseThrow(AssertionError::new);
+        assertEquals(OutboxEvent.Status.PENDING, broadcast.getStatus());
+        assertNotNull(broadcast.getFanOutCursor());
+        assertEquals(1000, countEvents(message));
+
+        for (int i = 0; i < 10 && broadcast.getStatus() == OutboxEvent.Status.PENDING; i++) {
+            notificationDispatcher.dispatch();
+            broadcast = outboxEventRepository.findById(broadcastId).orElseThrow(AssertionError::new);
+        }
+        assertEquals(OutboxEvent.Status.SENT, broadcast.getStatus());
+        assertEquals(memberRepository.count(), countEvents(message));
+    }
+
+    private long countEvents(String message) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getUserId() != null && message.equals(event.getMessage()))
+                .count();
+    }
+}
@@ -0,0 +1,101 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.TeeTime;
+import de.hse.golfclubmanagement.dto.TeeTimeRequest;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.TeeTimeBookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the tee time slots held in memory are reloaded after their time to live, so a
+ * cancellation of another instance frees the tee time.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tee-time-refresh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.teetimes.time-to-live=1s",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class TeeTimeServiceRefreshTest {
+
+    @Autowired
+    private TeeTimeService teeTimeService;
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TeeTimeBookingRepository bookingRepository;
+
+    @Test
+    void cancellationOfAnotherInstanceFreesTheTeeTimeAfterTimeToLive() throws InterruptedException {
+        GolfCourse golfCourse = new GolfCourse();
+        golfCourse.setName("Refresh Course");
+        Long golfCourseId = golfCourseService.saveGolfCourse(golfCourse).getId();
+        Long first = member("First Member");
+        Long second = member("Second Member");
+        LocalDate day = LocalDate.now().plusDays(1);
+        TeeTime booked = teeTimeService.book(golfCourseId, request(first, day));
+
+        // the other instance cancels the booking directly in the database
+        bookingRepository.deleteAll(bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day)));
+        ResponseStatusException stale = assertThrows(ResponseStatusException.class,
+                () -> teeTimeService.book(golfCourseId, request(second, day)));
+        assertEquals(HttpStatus.CONFLICT, stale.getStatus());
+
+        Thread.sleep(1500);
+        TeeTime rebooked = teeTimeService.book(golfCourseId, request(second, day));
+
+        assertEquals(booked.getTime(), rebooked.getTime());
+        assertEquals(second, bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day))
+                .get(0).getMemberId());
+    }
+
+    private Long member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMembershipStatus("active");
+        member.setHandicap(20);
+        return memberRepository.save(member).getId();
+    }
+
+    private static TeeTimeRequest request(Long memberId, LocalDate day) {
+        TeeTimeRequest request = new TeeTimeRequest();
+        request.setMemberId(memberId);
+        request.setDate(day);
+        request.setTime(LocalTime.of(7, 0));
+        return request;
+    }
+}
@@ -0,0 +1,213 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.TeeTime;
+import de.hse.golfclubmanagement.dto.TeeTimeRequest;
+import de.hse.golfclubmanagement.models.GolfCourse;
+import de.hse.golfclubmanagement.models.Member;
+import de.hse.golfclubmanagement.models.TeeTimeBooking;
+import de.hse.golfclubmanagement.repositories.MemberRepository;
+import de.hse.golfclubmanagement.repositories.TeeTimeBookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the tee time booking under contention: no tee time may be handed out twice, and a
+ * confirmed booking or cancellation must already be in the database when the call returns.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tee-time-service;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class TeeTimeServiceTest {
+
+    /**
+     * Half of the members book the earliest free tee time, enough to fill all 72 tee times of a day.
+     */
+    private static final int MEMBERS = 160;
+
+    @Autowired
+    private TeeTimeService teeTimeService;
+
+    @Autowired
+    private GolfCourseService golfCourseService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TeeTimeBookingRepository bookingRepository;
+
+    private final List<Long> memberIds = new ArrayList<>();
+
+    private Long golfCourseId;
+
+    @BeforeEach
+    void createGolfCourseAndMembers() {
+        GolfCourse golfCourse = new GolfCourse();
+        golfCourse.setName("Tee Time Course " + System.nanoTime());
+        golfCourseId = golfCourseService.saveGolfCourse(golfCourse).getId();
+        if (memberRepository.count() < MEMBERS) {
+            for (int i = 0; i < MEMBERS; i++) {
+                Member member = new Member();
+                member.setName("Tee Time Member " + i);
+                member.setMembershipStatus("active");
+                member.setHandicap(20);
+                memberRepository.save(member);
+            }
+        }
+        memberIds.clear();
+        memberRepository.findAll().forEach(member -> memberIds.add(member.getId()));
+    }
+
+    @Test
+    void concurrentBookingsNeverHandOutATeeTimeTwice() throws Exception {
+        LocalDate[] days = {LocalDate.now().plusDays(1), LocalDate.now().plusDays(2)};
+        List<LocalTime> times = new ArrayList<>();
+        for (TeeTime teeTime : teeTimeService.getTeeTimes(golfCourseId, days[0])) {
+            times.add(teeTime.getTime());
+        }
+        Map<String, Long> accepted = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(memberIds.size());
+        try {
+            List<Future<?>> bookings = new ArrayList<>();
+            for (int i = 0; i < memberIds.size(); i++) {
+                Long memberId = memberIds.get(i);
+                boolean randomTime = i % 2 == 0;
+                bookings.add(executor.submit(() -> {
+                    start.await();
+                    for (LocalDate day : days) {
+                        TeeTimeRequest request = request(memberId, day,
+                                randomTime ? times.get(ThreadLocalRandom.current().nextInt(times.size())) : null);
+                        try {
+                            TeeTime teeTime = teeTimeService.book(golfCourseId, request);
+                            if (accepted.putIfAbsent(day + " " + teeTime.getTime(), memberId) != null) {
+                                duplicates.incrementAndGet();
+                            }
+                        } catch (ResponseStatusException e) {
+                            assertEquals(HttpStatus.CONFLICT, e.getStatus());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> booking : bookings) {
+                booking.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(times.size() * days.length, accepted.size());
+        Map<String, Long> stored = new HashMap<>();
+        for (LocalDate day : days) {
+            for (TeeTimeBooking booking : bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day))) {
+                assertNull(stored.put(day + " " + times.get(booking.getSlot()), booking.getMemberId()));
+            }
+        }
+        assertEquals(accepted, stored);
+    }
+
+    @Test
+    void bookingOfAnotherInstanceIsRejectedWithConflict() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        LocalTime firstTeeTime = teeTimeService.getTeeTimes(golfCourseId, day).get(0).getTime();
+        TeeTimeBooking otherInstance = new TeeTimeBooking();
+        otherInstance.setGolfCourseId(golfCourseId);
+        otherInstance.setDate(Date.valueOf(day));
+        otherInstance.setSlot(0);
+        otherInstance.setMemberId(memberIds.get(0));
+        bookingRepository.save(otherInstance);
+
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class,
+                () -> teeTimeService.book(golfCourseId, request(memberIds.get(1), day, firstTeeTime)));
+
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatus());
+        assertEquals(memberIds.get(0), teeTimeService.getTeeTimes(golfCourseId, day).get(0).getMemberId());
+        assertEquals(1, bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day)).size());
+    }
+
+    @Test
+    void bookingAndCancellationAreStoredWhenConfirmed() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Long memberId = memberIds.get(0);
+
+        TeeTime teeTime = teeTimeService.book(golfCourseId, request(memberId, day, null));
+        List<TeeTimeBooking> stored = bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day));
+        assertEquals(1, stored.size());
+        assertEquals(memberId, stored.get(0).getMemberId());
+
+        teeTimeService.cancel(golfCourseId, day, teeTime.getTime(), memberId);
+        assertTrue(bookingRepository.findByGolfCourseIdAndDate(golfCourseId, Date.valueOf(day)).isEmpty());
+    }
+
+    @Test
+    void daysOutsideTheBookingWindowAreRejected() {
+        LocalDate afterWindow = LocalDate.now().plusDays(91);
+        Long memberId = memberIds.get(0);
+
+        ResponseStatusException afterTheWindow = assertThrows(ResponseStatusException.class,
+                () -> teeTimeService.book(golfCourseId, request(memberId, afterWindow, null)));
+        ResponseStatusException farFuture = assertThrows(ResponseStatusException.class,
+                () -> teeTimeService.getTeeTimes(golfCourseId, LocalDate.of(9999, 12, 31)));
+        ResponseStatusException past = assertThrows(ResponseStatusException.class,
+                () -> teeTimeService.cancel(golfCourseId, LocalDate.now().minusDays(1), LocalTime.of(7, 0), memberId));
+
+        assertEquals(HttpStatus.BAD_REQUEST, afterTheWindow.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, farFuture.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, past.getStatus());
+        assertEquals(72, teeTimeService.getTeeTimes(golfCourseId, LocalDate.now().plusDays(90)).size());
+    }
+
+    private static TeeTimeRequest request(Long memberId, LocalDate day, LocalTime time) {
+        TeeTimeRequest request = new TeeTimeRequest();
+        request.setMemberId(memberId);
+        request.setDate(day);
+        request.setTime(time);
+        return request;
+    }
+}
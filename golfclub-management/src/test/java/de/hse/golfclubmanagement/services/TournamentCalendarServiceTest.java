@@ -0,0 +1,102 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.models.Tournament;
+import de.hse.golfclubmanagement.repositories.CacheVersionRepository;
+import de.hse.golfclubmanagement.repositories.TournamentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the cached past months of the club calendar and the validation of the requested months.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tournament-calendar;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "golfclub.versions.poll-interval-ms=3600000",
+        "golfclub.notifications.enabled=false",
+        "golfclub.admission.enabled=false"
+})
+@ActiveProfiles("embedded")
+class TournamentCalendarServiceTest {
+
+    @Autowired
+    private TournamentCalendarService tournamentCalendarService;
+
+    @Autowired
+    private EntityVersions entityVersions;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void tournamentOfAnotherInstanceIsAddedToThePastMonthAfterPoll() {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        entityVersions.poll();
+        assertTrue(tournamentCalendarService.getTournamentsInMonth(lastMonth.getYear(), lastMonth.getMonthValue())
+                .isEmpty());
+
+        // another instance stores the tournament, bypassing the caches of this one
+        transactionTemplate.executeWithoutResult(status -> {
+            Tournament tournament = new Tournament();
+            tournament.setName("Foreign Past Tournament");
+            tournament.setDate(Date.valueOf(lastMonth.atDay(15)));
+            tournamentRepository.save(tournament);
+            cacheVersionRepository.increment("tournaments");
+        });
+        assertTrue(tournamentCalendarService.getTournamentsInMonth(lastMonth.getYear(), lastMonth.getMonthValue())
+                .isEmpty());
+        entityVersions.poll();
+
+        List<Tournament> tournaments = tournamentCalendarService.getTournamentsInMonth(lastMonth.getYear(),
+                lastMonth.getMonthValue());
+        assertEquals(1, tournaments.size());
+        assertEquals("Foreign Past Tournament", tournaments.get(0).getName());
+    }
+
+    @Test
+    void yearsOutsideTheCalendarAreRejected() {
+        ResponseStatusException tooLate = assertThrows(ResponseStatusException.class,
+                () -> tournamentCalendarService.getTournamentsInMonth(1000000000, 1));
+        ResponseStatusException tooEarly = assertThrows(ResponseStatusException.class,
+                () -> tournamentCalendarService.getTournamentsInMonth(-5, 1));
+        ResponseStatusException season = assertThrows(ResponseStatusException.class,
+                () -> tournamentCalendarService.getTournamentsInSeason(Integer.MAX_VALUE));
+
+        assertEquals(HttpStatus.BAD_REQUEST, tooLate.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, tooEarly.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, season.getStatus());
+        assertTrue(tournamentCalendarService.getTournamentsInMonth(9999, 12).isEmpty());
+    }
+}
@@ -0,0 +1,157 @@
+/** Copyright (c) 2024. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 3 only, as
+ * published by the Free Software Foundation.  
+ *
+ * This code is distributed for educational purposes only, but WITHOUT
+ * ANY WARRANTY; See the GNU General Public License version 3 for more 
+ * details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ */
+package de.hse.golfclubmanagement.services;
+
+import de.hse.golfclubmanagement.dto.WriteRequestStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the write-behind writer saves queued entities in batches, retries a failed batch
+ * entity by entity and rejects entities once its queue is full.
+ * @author  Dennis Grewe
+ * @since   0.1
+ */
+class WriteBehindWriterTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    /**
+     * The batches passed to the batch writer, including the retries of single entities.
+     */
+    private final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Holds the first batch until released, so the following entities queue up behind it.
+     */
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+    private WriteBehindWriter<Long> writer;
+
+    @AfterEach
+    void stopWriter() {
+        releaseFirstBatch.countDown();
+        if (writer != null && writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void queuedEntitiesAreWrittenInBatches() throws Exception {
+        writer = startWriter(100);
+        List<String> ids = new ArrayList<>();
+        ids.add(writer.submit(1L).getId());
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        for (long entity = 2; entity <= 7; entity++) {
+            ids.add(writer.submit(entity).getId());
+        }
+        releaseFirstBatch.countDown();
+
+        for (int i = 0; i < ids.size(); i++) {
+            WriteRequestStatus status = awaitCompletion(ids.get(i));
+            assertEquals(WriteRequestStatus.State.WRITTEN, status.getState());
+            assertEquals(Long.valueOf(i + 1), status.getEntityId());
+        }
+        assertEquals(Arrays.asList(Collections.singletonList(1L), Arrays.asList(2L, 3L, 4L, 5L), Arrays.asList(6L, 7L)),
+                batches);
+    }
+
+    @Test
+    void failedBatchIsRetriedEntityByEntity() throws Exception {
+        writer = startWriter(100);
+        writer.submit(1L);
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        String good = writer.submit(2L).getId();
+        String bad = writer.submit(-3L).getId();
+        String other = writer.submit(4L).getId();
+        releaseFirstBatch.countDown();
+
+        assertEquals(WriteRequestStatus.State.WRITTEN, awaitCompletion(good).getState());
+        assertEquals(WriteRequestStatus.State.WRITTEN, awaitCompletion(other).getState());
+        WriteRequestStatus failed = awaitCompletion(bad);
+        assertEquals(WriteRequestStatus.State.FAILED, failed.getState());
+        assertNull(failed.getEntityId());
+        assertEquals("invalid entity -3", failed.getError());
+        assertEquals(Arrays.asList(Collections.singletonList(1L), Arrays.asList(2L, -3L, 4L),
+                Collections.singletonList(2L), Collections.singletonList(-3L), Collections.singletonList(4L)), batches);
+    }
+
+    @Test
+    void fullQueueRejectsWithRetryAfter() throws Exception {
+        writer = startWriter(1);
+        writer.submit(1L);
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        String queued = writer.submit(2L).getId();
+
+        WriteBehindWriter.QueueFullException rejected = assertThrows(WriteBehindWriter.QueueFullException.class,
+                () -> writer.submit(3L));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertEquals("1", rejected.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        releaseFirstBatch.countDown();
+        assertEquals(WriteRequestStatus.State.WRITTEN, awaitCompletion(queued).getState());
+    }
+
+    private WriteBehindWriter<Long> startWriter(int queueCapacity) {
+        WriteBehindWriter<Long> started = new WriteBehindWriter<>("test-entities", entity -> { }, this::writeBatch,
+                entity -> entity, queueCapacity, BATCH_SIZE, Duration.ofMinutes(1), 1000, new SimpleMeterRegistry());
+        started.start();
+        return started;
+    }
+
+    private List<Long> writeBatch(List<Long> entities) {
+        batches.add(new ArrayList<>(entities));
+        if (firstBatchStarted.getCount() > 0) {
+            firstBatchStarted.countDown();
+            try {
+                releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Long entity : entities) {
+            if (entity < 0) {
+                throw new IllegalStateException("invalid entity " + entity);
+            }
+        }
+        return entities;
+    }
+
+    private WriteRequestStatus awaitCompletion(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        WriteRequestStatus status = writer.getStatus(id);
+        while (status.getState() == WriteRequestStatus.State.QUEUED && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = writer.getStatus(id);
+        }
+        return status;
+    }
+}